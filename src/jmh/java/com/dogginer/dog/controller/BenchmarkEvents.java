@@ -0,0 +1,49 @@
+package com.dogginer.dog.controller;
+
+import com.dogginer.dog.model.Event;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Fixtures shared by the controller benchmarks
+ */
+final class BenchmarkEvents {
+
+    private BenchmarkEvents() {
+    }
+
+    /**
+     * @param rows the number of events
+     * @return events shaped like the rows of the events table
+     */
+    static List<Event> events(int rows) {
+        LocalDateTime date = LocalDateTime.of(2022, 10, 23, 18, 0);
+        List<Event> events = new ArrayList<>(rows);
+        for (int i = 1; i <= rows; i++) {
+            Event event = new Event();
+            event.setEventId(i);
+            event.setTitle("eventTitle" + i);
+            event.setDescription("A walk in the park for small dogs and their humans, number " + i);
+            event.setDate(date.plusHours(i));
+            event.setPrice(i % 100 / 10.0);
+            event.setCapacity(20);
+            events.add(event);
+        }
+        return events;
+    }
+
+    /**
+     * Binds a GET request to the current thread, so links can be built as on a request thread
+     * @param uri the request URI
+     */
+    static void onRequestTo(String uri) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", uri);
+        request.setServerName("dogginer.com");
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+    }
+}
@@ -0,0 +1,90 @@
+package com.dogginer.dog.controller;
+
+import com.dogginer.dog.model.Event;
+import com.dogginer.dog.model.EventModel;
+import com.dogginer.dog.query.Cursor;
+import com.dogginer.dog.query.EventFilter;
+import com.dogginer.dog.query.KeysetPage;
+import com.dogginer.dog.service.IEventService;
+import com.dogginer.dog.service.IExportService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.hateoas.CollectionModel;
+import org.springframework.hateoas.mediatype.MessageResolver;
+import org.springframework.hateoas.mediatype.hal.CurieProvider;
+import org.springframework.hateoas.mediatype.hal.Jackson2HalModule;
+import org.springframework.hateoas.server.core.AnnotationLinkRelationProvider;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.web.context.request.RequestContextHolder;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+
+/**
+ * Cost of answering GET /v1/events once the page has been loaded: mapping the events to models with their
+ * HATEOAS links, the entity tag, and the HAL serialization. The page sizes go beyond the size limit of the
+ * endpoint to show how the cost grows with the rows
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EventListingBenchmark {
+
+    @Param({"100", "10000", "100000"})
+    private int rows;
+
+    private EventController eventController;
+    private ObjectMapper halMapper;
+    private EventFilter filter;
+
+    @Setup
+    public void setup() {
+        List<Event> events = BenchmarkEvents.events(rows);
+        KeysetPage<Event> page = new KeysetPage<>(events, Cursor.of(rows), null);
+        IEventService eventService = mock(IEventService.class, withSettings().stubOnly());
+        when(eventService.findPage(any(), any(), any(), any(), anyInt())).thenReturn(page);
+
+        DogginerLinks links = new DogginerLinks();
+        eventController = new EventController(eventService, mock(IExportService.class, withSettings().stubOnly()),
+                new EventModelAssembler(links), links);
+        filter = new EventFilter();
+        // the same mapper setup as the HAL message converter of the application
+        halMapper = Jackson2ObjectMapperBuilder.json().modulesToInstall(new Jackson2HalModule()).build();
+        halMapper.setHandlerInstantiator(new Jackson2HalModule.HalHandlerInstantiator(
+                new AnnotationLinkRelationProvider(), CurieProvider.NONE, MessageResolver.DEFAULTS_ONLY));
+        // thread-scoped state is set up on the benchmark thread
+        BenchmarkEvents.onRequestTo("/v1/events");
+    }
+
+    @TearDown
+    public void tearDown() {
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    @Benchmark
+    public byte[] getAllEvents() throws Exception {
+        ResponseEntity<CollectionModel<EventModel>> response = eventController.getAllEvents(filter, null, null, null, rows);
+        return halMapper.writeValueAsBytes(response.getBody());
+    }
+}
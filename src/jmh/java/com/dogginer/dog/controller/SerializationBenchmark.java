@@ -0,0 +1,56 @@
+package com.dogginer.dog.controller;
+
+import com.dogginer.dog.model.Event;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of writing the same events as JSON and as XML, the two representations the API negotiates
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SerializationBenchmark {
+
+    @Param({"1", "100", "10000"})
+    private int rows;
+
+    private List<Event> events;
+    private ObjectMapper jsonMapper;
+    private ObjectMapper xmlMapper;
+
+    @Setup
+    public void setup() {
+        events = BenchmarkEvents.events(rows);
+        // the builder applies the same defaults as the message converters of the application
+        jsonMapper = Jackson2ObjectMapperBuilder.json().build();
+        xmlMapper = Jackson2ObjectMapperBuilder.xml().build();
+    }
+
+    @Benchmark
+    public byte[] json() throws Exception {
+        return jsonMapper.writeValueAsBytes(events);
+    }
+
+    @Benchmark
+    public byte[] xml() throws Exception {
+        return xmlMapper.writeValueAsBytes(events);
+    }
+}
@@ -0,0 +1,71 @@
+package com.dogginer.dog.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.prometheus.PrometheusConfig;
+import io.micrometer.prometheus.PrometheusMeterRegistry;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Overhead of the method metrics on a proxied call. The gc profiler shows whether recording allocates,
+ * the allocation per call should match the one of the bare proxy
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MethodMetricsBenchmark {
+
+    private Supplier<List<Integer>> bare;
+    private Supplier<List<Integer>> instrumented;
+
+    @Setup
+    @SuppressWarnings("unchecked")
+    public void setup() {
+        List<Integer> rows = Arrays.asList(1, 2, 3);
+        Supplier<List<Integer>> target = () -> rows;
+        DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+        beanFactory.registerSingleton("meterRegistry", new PrometheusMeterRegistry(PrometheusConfig.DEFAULT));
+
+        // the beans already have advice, so the bare proxy has a pass-through interceptor
+        ProxyFactory bareFactory = new ProxyFactory(target);
+        bareFactory.addInterface(Supplier.class);
+        bareFactory.addAdvice((MethodInterceptor) MethodInvocation::proceed);
+        bare = (Supplier<List<Integer>>) bareFactory.getProxy();
+
+        ProxyFactory instrumentedFactory = new ProxyFactory(target);
+        instrumentedFactory.addInterface(Supplier.class);
+        instrumentedFactory.addAdvice(new MethodMetricsInterceptor(beanFactory.getBeanProvider(MeterRegistry.class),
+                "service", "Supplier"));
+        instrumented = (Supplier<List<Integer>>) instrumentedFactory.getProxy();
+    }
+
+    @Benchmark
+    public List<Integer> bare() {
+        return bare.get();
+    }
+
+    @Benchmark
+    public List<Integer> instrumented() {
+        return instrumented.get();
+    }
+}
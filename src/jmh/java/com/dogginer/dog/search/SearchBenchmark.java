@@ -0,0 +1,100 @@
+package com.dogginer.dog.search;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Latency of the full-text search and of the title suggestions over a large synthetic catalogue.
+ * Sample time mode reports the percentiles, the p99 included, in the JSON results.
+ * The allocation of {@link #loadTitles()} reported by the gc profiler bounds the memory footprint of the
+ * prefix index, it also counts the scratch space of the sort
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class SearchBenchmark {
+    private static final String[] WORDS = {"walk", "park", "puppy", "agility", "beach", "training", "social",
+            "hike", "small", "large", "dogs", "weave", "river", "meetup", "fetch", "frisbee", "trail", "city",
+            "morning", "evening", "sunday", "class", "beginners", "seniors", "rescue", "picnic", "swim", "run"};
+
+    @Param({"1000000"})
+    private int documents;
+
+    private InvertedIndex text;
+    private PrefixIndex titles;
+    private String[] titleValues;
+    private String[] queries;
+    private String[] prefixes;
+    private int next;
+
+    @Setup
+    public void setup() {
+        // a skewed vocabulary, so that common terms have long postings as in real descriptions
+        Random random = new Random(42);
+        text = new InvertedIndex();
+        titles = new PrefixIndex();
+        titleValues = new String[documents];
+        for (int id = 1; id <= documents; id++) {
+            String title = word(random) + " " + word(random) + " " + id;
+            StringBuilder description = new StringBuilder();
+            for (int i = 0; i < 12; i++) description.append(word(random)).append(' ');
+            text.put(id, title, description.toString());
+            titles.append(id, title);
+            titleValues[id - 1] = title;
+        }
+        titles.sort();
+
+        queries = new String[256];
+        prefixes = new String[256];
+        for (int i = 0; i < queries.length; i++) {
+            queries[i] = word(random) + " " + word(random);
+            String word = word(random);
+            prefixes[i] = word.substring(0, 1 + random.nextInt(word.length()));
+        }
+    }
+
+    @Benchmark
+    public List<InvertedIndex.Hit> search() {
+        return text.search(queries[next++ & 255], 20);
+    }
+
+    @Benchmark
+    public List<PrefixIndex.Match> suggest() {
+        return titles.suggest(prefixes[next++ & 255], 10);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @Warmup(iterations = 2)
+    @Measurement(iterations = 5)
+    public PrefixIndex loadTitles() {
+        PrefixIndex index = new PrefixIndex();
+        for (int i = 0; i < titleValues.length; i++) index.append(i + 1, titleValues[i]);
+        index.sort();
+        return index;
+    }
+
+    private static String word(Random random) {
+        // squaring the uniform draw favours the first words
+        double draw = random.nextDouble();
+        return WORDS[(int) (draw * draw * WORDS.length)];
+    }
+}
@@ -0,0 +1,63 @@
+package com.dogginer.dog.security;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.provisioning.InMemoryUserDetailsManager;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of authenticating an HTTP Basic request with a BCrypt verification and from the cache of verified credentials
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AuthenticationBenchmark {
+
+    private DaoAuthenticationProvider bcryptProvider;
+    private CachingAuthenticationProvider cachingProvider;
+
+    @Setup
+    public void setup() {
+        BCryptPasswordEncoder passwordEncoder = new BCryptPasswordEncoder(10);
+        bcryptProvider = new DaoAuthenticationProvider();
+        bcryptProvider.setPasswordEncoder(passwordEncoder);
+        bcryptProvider.setUserDetailsService(new InMemoryUserDetailsManager(User.withUsername("testClient1")
+                .password(passwordEncoder.encode("testPassword1"))
+                .roles("USER")
+                .build()));
+        cachingProvider = new CachingAuthenticationProvider(bcryptProvider, Duration.ofMinutes(5), 10_000);
+        cachingProvider.authenticate(credentials());
+    }
+
+    @Benchmark
+    public Authentication bcrypt() {
+        return bcryptProvider.authenticate(credentials());
+    }
+
+    @Benchmark
+    public Authentication cached() {
+        return cachingProvider.authenticate(credentials());
+    }
+
+    private static Authentication credentials() {
+        return new UsernamePasswordAuthenticationToken("testClient1", "testPassword1");
+    }
+}
@@ -0,0 +1,79 @@
+package com.dogginer.dog.service;
+
+import com.dogginer.dog.model.Client;
+import com.dogginer.dog.repository.IClientRepository;
+import com.dogginer.dog.search.ClientSearchIndex;
+import com.dogginer.dog.security.PasswordHasher;
+import com.dogginer.dog.security.PrincipalCacheEvictor;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+
+/**
+ * Cost of creating a client, which is dominated by hashing its password with BCrypt.
+ * The repository and the search index are stubs, so only the service and the hashing pool are measured
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ClientServiceBenchmark {
+
+    // 10 is the default dogginer.security.bcrypt-strength
+    @Param({"10", "12"})
+    private int bcryptStrength;
+
+    private PasswordHasher passwordHasher;
+    private ClientServiceImpl clientService;
+
+    @Setup
+    public void setup() {
+        passwordHasher = new PasswordHasher(new BCryptPasswordEncoder(bcryptStrength), new SimpleMeterRegistry(), 0, 64);
+        // stub-only mocks don't record the invocations, which would otherwise pile up over the run
+        IClientRepository clientRepository = mock(IClientRepository.class, withSettings().stubOnly());
+        when(clientRepository.save(any(Client.class))).thenAnswer(invocation -> {
+            Client client = invocation.getArgument(0);
+            client.setClientId(1);
+            return client;
+        });
+        clientService = new ClientServiceImpl(clientRepository, null, null, passwordHasher,
+                mock(PrincipalCacheEvictor.class, withSettings().stubOnly()),
+                mock(ClientSearchIndex.class, withSettings().stubOnly()), Runnable::run,
+                mock(PlatformTransactionManager.class, withSettings().stubOnly()), 3);
+    }
+
+    @TearDown
+    public void tearDown() {
+        passwordHasher.shutdown();
+    }
+
+    @Benchmark
+    public Client addClient() {
+        Client client = new Client();
+        client.setUsername("benchmarkClient");
+        client.setEmail("benchmark@dogginer.com");
+        client.setPassword("benchmarkPassword");
+        return clientService.addClient(client);
+    }
+}
@@ -0,0 +1,71 @@
+package com.dogginer.dog.service;
+
+import com.dogginer.dog.model.Client;
+import com.dogginer.dog.model.Event;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of merging the non null fields of a PATCH body into the loaded entity
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MergeBenchmark {
+
+    private EventServiceImpl eventService;
+    private ClientServiceImpl clientService;
+    private Event eventPatch;
+    private Event existingEvent;
+    private Client clientPatch;
+    private Client existingClient;
+
+    @Setup
+    public void setup() {
+        // the merges don't touch the collaborators
+        eventService = new EventServiceImpl(null, null, null, 3);
+        clientService = new ClientServiceImpl(null, null, null, null, null, null, null, null, 3);
+
+        eventPatch = new Event();
+        eventPatch.setTitle("patchedTitle");
+        eventPatch.setPrice(9.99);
+        existingEvent = new Event();
+        existingEvent.setEventId(1);
+        existingEvent.setTitle("eventTitle1");
+        existingEvent.setDescription("eventDescription1");
+        existingEvent.setDate(LocalDateTime.of(2022, 10, 23, 18, 0));
+        existingEvent.setPrice(0.01);
+        existingEvent.setCapacity(20);
+
+        clientPatch = new Client();
+        clientPatch.setEmail("patched@dogginer.com");
+        existingClient = new Client();
+        existingClient.setClientId(1);
+        existingClient.setUsername("testClient1");
+        existingClient.setEmail("testClient1@dogginer.com");
+    }
+
+    @Benchmark
+    public Event mergeEvent() {
+        return eventService.copyNonNullFields(eventPatch, existingEvent);
+    }
+
+    @Benchmark
+    public Client mergeClient() {
+        return clientService.copyNonNullFields(clientPatch, existingClient);
+    }
+}
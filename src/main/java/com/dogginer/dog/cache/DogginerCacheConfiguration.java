@@ -0,0 +1,42 @@
+package com.dogginer.dog.cache;
+
+import com.github.benmanes.caffeine.jcache.configuration.TypesafeConfigurator;
+import com.typesafe.config.ConfigFactory;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import jakarta.persistence.SharedCacheMode;
+import java.util.Map;
+
+/**
+ * Enables the Hibernate second-level and query caches, backed by Caffeine through JCache.
+ * Region sizes and expirations live in caffeine.conf. Hit and miss counts are published
+ * as hibernate.second.level.cache.requests and hibernate.cache.query.requests metrics.
+ */
+@Configuration
+public class DogginerCacheConfiguration {
+
+    public static final String EVENTS_REGION = "events";
+    public static final String CLIENTS_REGION = "clients";
+    private static final String CACHE_CONFIG = "caffeine";
+
+    @Bean
+    public HibernatePropertiesCustomizer secondLevelCacheCustomizer() {
+        // the Caffeine provider ignores the JCache URI and reads its regions from the config source
+        TypesafeConfigurator.setConfigSource(() -> ConfigFactory.load(CACHE_CONFIG));
+        return (Map<String, Object> properties) -> {
+            properties.put("jakarta.persistence.sharedCache.mode", SharedCacheMode.ENABLE_SELECTIVE);
+            properties.put("hibernate.cache.use_second_level_cache", true);
+            properties.put("hibernate.cache.use_query_cache", true);
+            properties.put("hibernate.cache.region.factory_class", "jcache");
+            properties.put("hibernate.javax.cache.provider",
+                    "com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider");
+            // every region must be declared in caffeine.conf, so none is left unbounded
+            properties.put("hibernate.javax.cache.missing_cache_strategy", "fail");
+            // the statistics feed the cache hit ratios, without logging the metrics of every session
+            properties.put("hibernate.generate_statistics", true);
+            properties.put("hibernate.session.events.log", false);
+        };
+    }
+}
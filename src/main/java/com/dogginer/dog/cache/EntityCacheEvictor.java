@@ -0,0 +1,57 @@
+package com.dogginer.dog.cache;
+
+import org.hibernate.Cache;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import jakarta.persistence.EntityManagerFactory;
+
+/**
+ * Evicts entities from the second-level cache after writes that bypass Hibernate, e.g. JDBC updates.
+ * Writes made through the entity manager keep the cache in sync on their own.
+ */
+@Component
+public class EntityCacheEvictor {
+
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired public EntityCacheEvictor(EntityManagerFactory entityManagerFactory) {
+        this.entityManagerFactory = entityManagerFactory;
+    }
+
+    /**
+     * Evicts an entity now and, if a transaction is active, again once it commits, so that
+     * a concurrent read can't put the pre-commit state back in the cache
+     * @param entityClass the class of the entity
+     * @param id the id of the entity
+     */
+    public void evict(Class<?> entityClass, Object id) {
+        entityManagerFactory.getCache().evict(entityClass, id);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    entityManagerFactory.getCache().evict(entityClass, id);
+                }
+            });
+        }
+    }
+
+    /**
+     * Evicts all cached query results now and, if a transaction is active, again once it commits.
+     * Needed after inserts that bypass Hibernate, which would otherwise be missing from cached pages
+     */
+    public void evictQueries() {
+        entityManagerFactory.getCache().unwrap(Cache.class).evictQueryRegions();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    entityManagerFactory.getCache().unwrap(Cache.class).evictQueryRegions();
+                }
+            });
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package com.dogginer.dog.controller;
+
+import com.dogginer.dog.model.Attendance;
+import com.dogginer.dog.model.AttendanceBatchResult;
+import com.dogginer.dog.model.ClientSummary;
+import com.dogginer.dog.model.Event;
+import com.dogginer.dog.model.EventModel;
+import com.dogginer.dog.query.KeysetPage;
+import com.dogginer.dog.service.IAttendanceService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.hateoas.CollectionModel;
+import org.springframework.hateoas.IanaLinkRelations;
+import org.springframework.hateoas.Link;
+import org.springframework.hateoas.LinkRelation;
+import org.springframework.hateoas.RepresentationModel;
+import org.springframework.hateoas.server.RepresentationModelAssembler;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/v1")
+public class AttendanceController {
+
+    private static final LinkRelation EVENT = LinkRelation.of("event");
+    private static final LinkRelation CLIENT = LinkRelation.of("client");
+
+    private IAttendanceService attendanceService;
+    private EventModelAssembler eventAssembler;
+    private ClientSummaryModelAssembler clientAssembler;
+    private DogginerLinks links;
+    private static Logger logger = LoggerFactory.getLogger(AttendanceController.class);
+
+    @Autowired public AttendanceController(IAttendanceService attendanceService, EventModelAssembler eventAssembler,
+                                           ClientSummaryModelAssembler clientAssembler, DogginerLinks links) {
+        this.attendanceService = attendanceService;
+        this.eventAssembler = eventAssembler;
+        this.clientAssembler = clientAssembler;
+        this.links = links;
+    }
+
+    @GetMapping("/events/{eventId}/attendees")
+    public CollectionModel<ClientSummary> getAttendees(@PathVariable int eventId,
+                                                       @RequestParam(required = false) String after,
+                                                       @RequestParam(required = false) Integer size) {
+        logger.debug("Received GET request at endpoint v1/events/" + eventId + "/attendees");
+
+        KeysetPage<ClientSummary> page = attendanceService.findAttendees(eventId, after,
+                size == null ? KeysetPage.DEFAULT_SIZE : size);
+        return pageModel(page, clientAssembler);
+    }
+
+    @GetMapping("/clients/{clientId}/events")
+    public CollectionModel<EventModel> getAttendedEvents(@PathVariable int clientId,
+                                                         @RequestParam(required = false) String after,
+                                                         @RequestParam(required = false) Integer size) {
+        logger.debug("Received GET request at endpoint v1/clients/" + clientId + "/events");
+
+        KeysetPage<Event> page = attendanceService.findAttendedEvents(clientId, after,
+                size == null ? KeysetPage.DEFAULT_SIZE : size);
+        return pageModel(page, eventAssembler);
+    }
+
+    @PostMapping("/events/{eventId}/attendees/{clientId}")
+    public ResponseEntity<Attendance> addAttendee(@PathVariable int eventId, @PathVariable int clientId) {
+        logger.debug("Received POST request at endpoint v1/events/" + eventId + "/attendees/" + clientId);
+
+        boolean created = attendanceService.addAttendee(eventId, clientId);
+
+        return new ResponseEntity<>(attendance(eventId, clientId), created ? HttpStatus.CREATED : HttpStatus.OK);
+    }
+
+    @PostMapping(path = "/events/attendees",
+            consumes = MediaType.APPLICATION_JSON_VALUE,
+            produces = MediaType.APPLICATION_JSON_VALUE)
+    public AttendanceBatchResult addAttendees(@RequestBody List<Attendance> attendances) {
+        logger.debug("Received POST request at endpoint v1/events/attendees");
+
+        return attendanceService.addAttendees(attendances);
+    }
+
+    @DeleteMapping("/events/{eventId}/attendees/{clientId}")
+    public Attendance removeAttendee(@PathVariable int eventId, @PathVariable int clientId) {
+        logger.debug("Received DELETE request at endpoint v1/events/" + eventId + "/attendees/" + clientId);
+
+        attendanceService.removeAttendee(eventId, clientId);
+
+        return attendance(eventId, clientId);
+    }
+
+    private Attendance attendance(int eventId, int clientId) {
+        Attendance attendance = new Attendance(eventId, clientId);
+        DogginerLinks.Templates templates = links.current();
+        attendance.add(templates.event(eventId, EVENT));
+        attendance.add(templates.client(clientId, CLIENT));
+        return attendance;
+    }
+
+    private <E, T extends RepresentationModel<T>> CollectionModel<T> pageModel(
+            KeysetPage<E> page, RepresentationModelAssembler<E, T> assembler) {
+        CollectionModel<T> model = assembler.toCollectionModel(page.getContent());
+        model.add(Link.of(ServletUriComponentsBuilder.fromCurrentRequest().toUriString()).withSelfRel());
+        if (page.getNext() != null) {
+            String next = ServletUriComponentsBuilder.fromCurrentRequest()
+                    .replaceQueryParam("after", page.getNext().encode())
+                    .toUriString();
+            model.add(Link.of(next, IanaLinkRelations.NEXT));
+        }
+        return model;
+    }
+}
@@ -1,106 +1,196 @@
 package com.dogginer.dog.controller;
 
 import com.dogginer.dog.model.Client;
+import com.dogginer.dog.model.ClientModel;
+import com.dogginer.dog.model.ClientSummary;
+import com.dogginer.dog.model.EntityVersion;
+import com.dogginer.dog.model.PasswordChange;
+import com.dogginer.dog.model.Suggestion;
+import com.dogginer.dog.query.ClientFilter;
+import com.dogginer.dog.query.ExportFormat;
+import com.dogginer.dog.query.KeysetPage;
 import com.dogginer.dog.service.IClientService;
+import com.dogginer.dog.service.IExportService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Slice;
 import org.springframework.hateoas.CollectionModel;
-import org.springframework.hateoas.server.mvc.WebMvcLinkBuilder;
+import org.springframework.hateoas.IanaLinkRelations;
+import org.springframework.hateoas.Link;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
-import javax.transaction.Transactional;
+import jakarta.transaction.Transactional;
+import java.util.ArrayList;
 import java.util.List;
-import java.util.stream.Collectors;
-
-import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.linkTo;
-import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.methodOn;
+import java.util.concurrent.CompletableFuture;
 
 @RestController
 @RequestMapping("v1/clients")
 public class ClientController {
 
     private IClientService clientService;
+    private IExportService exportService;
+    private ClientSummaryModelAssembler clientAssembler;
+    private DogginerLinks links;
     private static Logger logger = LoggerFactory.getLogger(ClientController.class);
 
-    @Autowired public ClientController(IClientService clientService) {
+    @Autowired public ClientController(IClientService clientService, IExportService exportService,
+                                       ClientSummaryModelAssembler clientAssembler, DogginerLinks links) {
         this.clientService = clientService;
+        this.exportService = exportService;
+        this.clientAssembler = clientAssembler;
+        this.links = links;
     }
 
     @GetMapping()
-    public CollectionModel<Client> getAllClients() {
+    public CollectionModel<ClientSummary> getAllClients(ClientFilter filter,
+                                                        @RequestParam(required = false) Integer page,
+                                                        @RequestParam(required = false) String after,
+                                                        @RequestParam(required = false) String before,
+                                                        @RequestParam(required = false) Integer size) {
         logger.debug("Received GET request at endpoint /clients");
-        List<Client> clients = clientService.findAll()
-                .stream()
-                .map(client ->
-                        client.add(linkTo(methodOn(this.getClass()).getClient(client.getClientId())).withSelfRel()))
-                .collect(Collectors.toList());
-        return CollectionModel.of(clients);
+        int pageSize = size == null ? KeysetPage.DEFAULT_SIZE : size;
+
+        List<ClientSummary> content;
+        List<Link> pageLinks = new ArrayList<>();
+        if (page != null) {
+            Slice<ClientSummary> slice = clientService.findSlice(filter, page, pageSize);
+            content = slice.getContent();
+            if (slice.hasNext())
+                pageLinks.add(pageLink("page", slice.getNumber() + 1, IanaLinkRelations.NEXT.value()));
+            if (slice.hasPrevious())
+                pageLinks.add(pageLink("page", slice.getNumber() - 1, IanaLinkRelations.PREV.value()));
+        } else {
+            KeysetPage<ClientSummary> keysetPage = clientService.findPage(filter, after, before, pageSize);
+            content = keysetPage.getContent();
+            if (keysetPage.getNext() != null)
+                pageLinks.add(pageLink("after", keysetPage.getNext().encode(), IanaLinkRelations.NEXT.value()));
+            if (keysetPage.getPrev() != null)
+                pageLinks.add(pageLink("before", keysetPage.getPrev().encode(), IanaLinkRelations.PREV.value()));
+        }
+
+        CollectionModel<ClientSummary> model = clientAssembler.toCollectionModel(content);
+        model.add(Link.of(ServletUriComponentsBuilder.fromCurrentRequest().toUriString()).withSelfRel());
+        model.add(pageLinks);
+        return model;
+    }
+
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportClients(@RequestParam(required = false) String format) {
+        logger.debug("Received GET request at endpoint v1/clients/export");
+
+        ExportFormat exportFormat = format == null ? ExportFormat.NDJSON : ExportFormat.fromParameter(format);
+        StreamingResponseBody body = out -> exportService.exportClients(exportFormat, out);
+        return ResponseEntity.ok().contentType(exportFormat.getMediaType()).body(body);
+    }
+
+    @GetMapping("/suggest")
+    public List<Suggestion> suggestClients(@RequestParam(required = false) String prefix,
+                                           @RequestParam(required = false) Integer size) {
+        logger.debug("Received GET request at endpoint v1/clients/suggest");
+
+        return clientService.suggest(prefix, size == null ? Suggestion.DEFAULT_SIZE : size);
     }
 
     @GetMapping("/{clientId}")
-    public Client getClient(@PathVariable int clientId) {
+    public ResponseEntity<ClientModel> getClient(@PathVariable int clientId, WebRequest request) {
         logger.debug("Received GET request at endpoint v1/clients/" + clientId);
-        Client client = clientService.findById(clientId);
 
-        WebMvcLinkBuilder getAllClientsLink = linkTo(methodOn(this.getClass()).getAllClients());
-        client.add(getAllClientsLink.withRel("all-clients"));
+        // unchanged clients are answered from their version, without loading or serializing them
+        EntityVersion version = clientService.findVersion(clientId);
+        if (request.checkNotModified(EntityTags.eTag(version.getVersion()),
+                EntityTags.lastModified(version.getUpdatedAt()))) return null;
 
-        return client;
+        Client client = clientService.findById(clientId);
+
+        return ResponseEntity.ok()
+                .headers(EntityTags.headers(client.getVersion(), client.getUpdatedAt()))
+                .body(ClientModel.of(client).add(links.current().allClients()));
     }
 
     @PostMapping(consumes = MediaType.APPLICATION_JSON_VALUE,
         produces= MediaType.APPLICATION_JSON_VALUE)
     @ResponseStatus(HttpStatus.CREATED)
-    public Client createClient(@RequestBody Client client) {
+    public CompletableFuture<ClientModel> createClient(@RequestBody Client client) {
         logger.debug("Received POST request at endpoint v1/clients");
 
-        Client createdClient = clientService.addClient(client);
-
-        createdClient.add(linkTo(methodOn(this.getClass()).getAllClients()).withRel("all-clients"));
-        createdClient.add(linkTo(methodOn(this.getClass()).getClient(createdClient.getClientId())).withSelfRel());
-
-        return createdClient;
+        // links are built from the current request, so they are resolved before leaving the request thread
+        DogginerLinks.Templates templates = links.current();
+        return clientService.addClientAsync(client).thenApply(createdClient -> ClientModel.of(createdClient)
+                .add(templates.allClients())
+                .add(templates.client(createdClient.getClientId())));
     }
 
     @PutMapping(path="/{clientId}",
             consumes = MediaType.APPLICATION_JSON_VALUE,
             produces= MediaType.APPLICATION_JSON_VALUE)
-    public Client updateClient(@PathVariable int clientId, @RequestBody Client client) {
+    public ResponseEntity<ClientModel> updateClient(@PathVariable int clientId, @RequestBody Client client,
+                                                    @RequestHeader(value = HttpHeaders.IF_MATCH, required = false)
+                                                            String ifMatch) {
         logger.debug("Received PUT request at endpoint v1/clients/" + clientId);
 
+        client.setVersion(EntityTags.ifMatchVersion(ifMatch));
         Client updatedClient = clientService.updateClient(clientId, client);
 
-        updatedClient.add(linkTo(methodOn(this.getClass()).getAllClients()).withRel("all-clients"));
-        updatedClient.add(linkTo(methodOn(this.getClass()).getClient(clientId)).withSelfRel());
-
-        return updatedClient;
+        DogginerLinks.Templates templates = links.current();
+        return ResponseEntity.ok()
+                .headers(EntityTags.headers(updatedClient.getVersion(), updatedClient.getUpdatedAt()))
+                .body(ClientModel.of(updatedClient)
+                        .add(templates.allClients())
+                        .add(templates.client(clientId)));
     }
 
     @PatchMapping(path="/{clientId}", consumes = MediaType.APPLICATION_JSON_VALUE)
-    public Client partiallyUpdateClient(@PathVariable int clientId, @RequestBody Client client) {
+    public ResponseEntity<ClientModel> partiallyUpdateClient(@PathVariable int clientId, @RequestBody Client client,
+                                                             @RequestHeader(value = HttpHeaders.IF_MATCH,
+                                                                     required = false) String ifMatch) {
         logger.debug("Received PATCH request at endpoint v1/clients/" + clientId);
 
+        client.setVersion(EntityTags.ifMatchVersion(ifMatch));
         Client updatedClient = clientService.partiallyUpdateClient(clientId, client);
 
-        updatedClient.add(linkTo(methodOn(this.getClass()).getAllClients()).withRel("all-clients"));
-        updatedClient.add(linkTo(methodOn(this.getClass()).getClient(clientId)).withSelfRel());
+        DogginerLinks.Templates templates = links.current();
+        return ResponseEntity.ok()
+                .headers(EntityTags.headers(updatedClient.getVersion(), updatedClient.getUpdatedAt()))
+                .body(ClientModel.of(updatedClient)
+                        .add(templates.allClients())
+                        .add(templates.client(clientId)));
+    }
+
+    @PutMapping(path="/{clientId}/password", consumes = MediaType.APPLICATION_JSON_VALUE)
+    @ResponseStatus(HttpStatus.NO_CONTENT)
+    public CompletableFuture<Void> changePassword(@PathVariable int clientId,
+                                                 @RequestBody PasswordChange passwordChange) {
+        logger.debug("Received PUT request at endpoint v1/clients/" + clientId + "/password");
 
-        return updatedClient;
+        return clientService.changePasswordAsync(clientId, passwordChange.getPassword());
     }
 
     @DeleteMapping("/{clientId}")
     @Transactional
-    public Client deleteClient(@PathVariable int clientId) {
+    public ClientModel deleteClient(@PathVariable int clientId) {
         logger.debug("Received DELETE request at endpoint v1/clients/" + clientId);
 
         Client deletedClient = clientService.deleteById(clientId);
 
-        deletedClient.add(linkTo(methodOn(this.getClass()).getAllClients()).withRel("all-clients"));
-        deletedClient.add(linkTo(methodOn(this.getClass()).getAllClients()).withRel("all-clients"));
+        return ClientModel.of(deletedClient).add(links.current().allClients());
+    }
 
-        return deletedClient;
+    private Link pageLink(String parameter, Object value, String rel) {
+        String href = ServletUriComponentsBuilder.fromCurrentRequest()
+                .replaceQueryParam("page")
+                .replaceQueryParam("after")
+                .replaceQueryParam("before")
+                .replaceQueryParam(parameter, value)
+                .toUriString();
+        return Link.of(href, rel);
     }
 }
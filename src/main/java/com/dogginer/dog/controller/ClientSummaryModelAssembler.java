@@ -0,0 +1,40 @@
+package com.dogginer.dog.controller;
+
+import com.dogginer.dog.model.ClientSummary;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.hateoas.CollectionModel;
+import org.springframework.hateoas.server.RepresentationModelAssembler;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Adds the self link to client summaries, resolving the link templates once per collection
+ */
+@Component
+public class ClientSummaryModelAssembler implements RepresentationModelAssembler<ClientSummary, ClientSummary> {
+
+    private DogginerLinks links;
+
+    @Autowired public ClientSummaryModelAssembler(DogginerLinks links) {
+        this.links = links;
+    }
+
+    @Override
+    public ClientSummary toModel(ClientSummary client) {
+        return toModel(client, links.current());
+    }
+
+    @Override
+    public CollectionModel<ClientSummary> toCollectionModel(Iterable<? extends ClientSummary> clients) {
+        DogginerLinks.Templates templates = links.current();
+        List<ClientSummary> models = new ArrayList<>();
+        for (ClientSummary client : clients) models.add(toModel(client, templates));
+        return CollectionModel.of(models);
+    }
+
+    private ClientSummary toModel(ClientSummary client, DogginerLinks.Templates templates) {
+        return client.add(templates.client(client.getClientId()));
+    }
+}
@@ -0,0 +1,83 @@
+package com.dogginer.dog.controller;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.hateoas.IanaLinkRelations;
+import org.springframework.hateoas.Link;
+import org.springframework.hateoas.LinkRelation;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+
+import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.linkTo;
+import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.methodOn;
+
+/**
+ * Builds the links of the dogginer resources without a {@code linkTo(methodOn(...))} proxy per entity.
+ * The resource URIs are resolved from the controller mappings once per base URI and then
+ * concatenated with the ids. Base URIs come from the Host header, so only a few are kept.
+ */
+@Component
+public class DogginerLinks {
+    public static final LinkRelation ALL_EVENTS = LinkRelation.of("all-events");
+    public static final LinkRelation ALL_CLIENTS = LinkRelation.of("all-clients");
+
+    private final Cache<String, Templates> templates = Caffeine.newBuilder()
+            .maximumSize(64)
+            .build();
+
+    /**
+     * Get the link templates of the current request, it must be called on the request thread
+     * @return the link templates for the base URI of the current request
+     */
+    public Templates current() {
+        String baseUri = ServletUriComponentsBuilder.fromCurrentServletMapping().toUriString();
+        return templates.get(baseUri, uri -> new Templates(
+                linkTo(EventController.class).toUri().toString(),
+                linkTo(methodOn(EventController.class).getAllEvents(null, null, null, null, null))
+                        .withRel(ALL_EVENTS).expand(),
+                linkTo(ClientController.class).toUri().toString(),
+                linkTo(methodOn(ClientController.class).getAllClients(null, null, null, null, null))
+                        .withRel(ALL_CLIENTS).expand()));
+    }
+
+    /**
+     * Resource URIs for one base URI. It holds no request state, so it can be used off the request thread
+     */
+    public static final class Templates {
+        private final String events;
+        private final Link allEvents;
+        private final String clients;
+        private final Link allClients;
+
+        Templates(String events, Link allEvents, String clients, Link allClients) {
+            this.events = events;
+            this.allEvents = allEvents;
+            this.clients = clients;
+            this.allClients = allClients;
+        }
+
+        public Link allEvents() {
+            return allEvents;
+        }
+
+        public Link event(int eventId) {
+            return event(eventId, IanaLinkRelations.SELF);
+        }
+
+        public Link event(int eventId, LinkRelation rel) {
+            return Link.of(events + '/' + eventId, rel);
+        }
+
+        public Link allClients() {
+            return allClients;
+        }
+
+        public Link client(int clientId) {
+            return client(clientId, IanaLinkRelations.SELF);
+        }
+
+        public Link client(int clientId, LinkRelation rel) {
+            return Link.of(clients + '/' + clientId, rel);
+        }
+    }
+}
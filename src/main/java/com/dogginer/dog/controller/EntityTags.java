@@ -0,0 +1,87 @@
+package com.dogginer.dog.controller;
+
+import com.dogginer.dog.exception.BadRequestException;
+import com.dogginer.dog.exception.PreconditionFailedException;
+import com.dogginer.dog.model.Event;
+import com.dogginer.dog.query.KeysetPage;
+import org.springframework.http.HttpHeaders;
+
+import java.time.Instant;
+
+/**
+ * ETag and Last-Modified handling of the versioned events and clients.
+ * A single resource has the strong ETag "version", a page of events a weak ETag over the
+ * ids and versions of its rows.
+ */
+final class EntityTags {
+    private static final String ANY = "*";
+
+    private EntityTags() {
+    }
+
+    /**
+     * @return the strong ETag of a version, null if there is no version
+     */
+    static String eTag(Integer version) {
+        return version == null ? null : "\"" + version + "\"";
+    }
+
+    /**
+     * @return the epoch millis of a modification time, -1 if there is none
+     */
+    static long lastModified(Instant updatedAt) {
+        return updatedAt == null ? -1 : updatedAt.toEpochMilli();
+    }
+
+    /**
+     * @return the ETag and Last-Modified headers of a single resource
+     */
+    static HttpHeaders headers(Integer version, Instant updatedAt) {
+        HttpHeaders headers = new HttpHeaders();
+        if (version != null) headers.setETag(eTag(version));
+        if (updatedAt != null) headers.setLastModified(updatedAt);
+        return headers;
+    }
+
+    /**
+     * @return the ETag and Last-Modified headers of a page of events, whose links depend on its neighbours
+     */
+    static HttpHeaders headers(KeysetPage<Event> page) {
+        long hash = 17;
+        Instant lastModified = null;
+        for (Event event : page.getContent()) {
+            hash = 31 * hash + event.getEventId();
+            hash = 31 * hash + (event.getVersion() == null ? 0 : event.getVersion());
+            if (event.getUpdatedAt() != null && (lastModified == null || event.getUpdatedAt().isAfter(lastModified)))
+                lastModified = event.getUpdatedAt();
+        }
+        hash = 31 * hash + (page.getNext() == null ? 0 : 1);
+        hash = 31 * hash + (page.getPrev() == null ? 0 : 1);
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.setETag("W/\"" + Long.toHexString(hash) + "\"");
+        if (lastModified != null) headers.setLastModified(lastModified);
+        return headers;
+    }
+
+    /**
+     * Parses the If-Match header of a conditional update
+     * @param ifMatch the header value, null if the update is unconditional
+     * @return the version the update is conditional on, null for any version
+     * @throws PreconditionFailedException if the ETag can never match, e.g. a weak one
+     * @throws BadRequestException if the header holds more than one ETag
+     */
+    static Integer ifMatchVersion(String ifMatch) {
+        if (ifMatch == null || ifMatch.trim().equals(ANY)) return null;
+        String eTag = ifMatch.trim();
+        if (eTag.contains(",")) throw new BadRequestException("If-Match:" + ifMatch + " must be a single ETag");
+        // weak ETags never match strongly, as required for If-Match
+        if (eTag.length() < 2 || !eTag.startsWith("\"") || !eTag.endsWith("\""))
+            throw new PreconditionFailedException("If-Match:" + ifMatch);
+        try {
+            return Integer.valueOf(eTag.substring(1, eTag.length() - 1));
+        } catch (NumberFormatException e) {
+            throw new PreconditionFailedException("If-Match:" + ifMatch);
+        }
+    }
+}
@@ -1,98 +1,175 @@
 package com.dogginer.dog.controller;
 
+import com.dogginer.dog.model.EntityVersion;
 import com.dogginer.dog.model.Event;
+import com.dogginer.dog.model.EventModel;
+import com.dogginer.dog.model.Suggestion;
+import com.dogginer.dog.query.Cursor;
+import com.dogginer.dog.query.EventFilter;
+import com.dogginer.dog.query.EventSort;
+import com.dogginer.dog.query.ExportFormat;
+import com.dogginer.dog.query.KeysetPage;
 import com.dogginer.dog.service.IEventService;
+import com.dogginer.dog.service.IExportService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.hateoas.CollectionModel;
+import org.springframework.hateoas.IanaLinkRelations;
+import org.springframework.hateoas.Link;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
 import java.util.List;
-import java.util.stream.Collectors;
-
-import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.linkTo;
-import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.methodOn;
 
 @RestController
 @RequestMapping("/v1/events")
 public class EventController {
 
     private IEventService eventService;
+    private IExportService exportService;
+    private EventModelAssembler eventAssembler;
+    private DogginerLinks links;
     private static Logger logger = LoggerFactory.getLogger(EventController.class);
 
-    @Autowired public EventController(IEventService eventService) {
+    @Autowired public EventController(IEventService eventService, IExportService exportService,
+                                      EventModelAssembler eventAssembler, DogginerLinks links) {
         this.eventService = eventService;
+        this.exportService = exportService;
+        this.eventAssembler = eventAssembler;
+        this.links = links;
     }
 
     @GetMapping("")
-    public CollectionModel<Event> getAllEvents() {
+    public ResponseEntity<CollectionModel<EventModel>> getAllEvents(EventFilter filter,
+                                                                   @RequestParam(required = false) String sort,
+                                                                   @RequestParam(required = false) String after,
+                                                                   @RequestParam(required = false) String before,
+                                                                   @RequestParam(required = false) Integer size) {
         logger.debug("Received GET request at endpoint v1/events");
 
-        List<Event> events = eventService.findAll()
-                .stream()
-                .map(event ->
-                        event.add(linkTo(methodOn(this.getClass()).getEvent(event.getEventId())).withSelfRel()))
-                .collect(Collectors.toList());
-        return CollectionModel.of(events);
+        KeysetPage<Event> page = eventService.findPage(filter,
+                sort == null ? EventSort.ID : EventSort.fromParameter(sort),
+                after, before, size == null ? KeysetPage.DEFAULT_SIZE : size);
+
+        CollectionModel<EventModel> model = eventAssembler.toCollectionModel(page.getContent());
+        model.add(Link.of(ServletUriComponentsBuilder.fromCurrentRequest().toUriString()).withSelfRel());
+        if (page.getNext() != null) model.add(pageLink("after", page.getNext(), IanaLinkRelations.NEXT.value()));
+        if (page.getPrev() != null) model.add(pageLink("before", page.getPrev(), IanaLinkRelations.PREV.value()));
+        // a matching If-None-Match is answered with 304 before the page is serialized
+        return ResponseEntity.ok().headers(EntityTags.headers(page)).body(model);
+    }
+
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportEvents(@RequestParam(required = false) String format) {
+        logger.debug("Received GET request at endpoint v1/events/export");
+
+        ExportFormat exportFormat = format == null ? ExportFormat.NDJSON : ExportFormat.fromParameter(format);
+        StreamingResponseBody body = out -> exportService.exportEvents(exportFormat, out);
+        return ResponseEntity.ok().contentType(exportFormat.getMediaType()).body(body);
+    }
+
+    @GetMapping("/search")
+    public CollectionModel<EventModel> searchEvents(@RequestParam(required = false) String q,
+                                                    @RequestParam(required = false) Integer size) {
+        logger.debug("Received GET request at endpoint v1/events/search");
+
+        List<Event> events = eventService.search(q, size == null ? KeysetPage.DEFAULT_SIZE : size);
+        return eventAssembler.toCollectionModel(events)
+                .add(Link.of(ServletUriComponentsBuilder.fromCurrentRequest().toUriString()).withSelfRel());
+    }
+
+    @GetMapping("/suggest")
+    public List<Suggestion> suggestEvents(@RequestParam(required = false) String prefix,
+                                          @RequestParam(required = false) Integer size) {
+        logger.debug("Received GET request at endpoint v1/events/suggest");
+
+        return eventService.suggest(prefix, size == null ? Suggestion.DEFAULT_SIZE : size);
     }
 
     @GetMapping("/{eventId}")
-    public Event getEvent(@PathVariable int eventId) {
+    public ResponseEntity<EventModel> getEvent(@PathVariable int eventId, WebRequest request) {
         logger.debug("Received GET request at endpoint v1/events/" + eventId);
 
+        // unchanged events are answered from their version, without loading or serializing them
+        EntityVersion version = eventService.findVersion(eventId);
+        if (request.checkNotModified(EntityTags.eTag(version.getVersion()),
+                EntityTags.lastModified(version.getUpdatedAt()))) return null;
+
         Event event = eventService.findById(eventId);
 
-        event.add(linkTo(methodOn(this.getClass()).getAllEvents()).withRel("all-events"));
-        return event;
+        return ResponseEntity.ok()
+                .headers(EntityTags.headers(event.getVersion(), event.getUpdatedAt()))
+                .body(EventModel.of(event).add(links.current().allEvents()));
     }
 
     @PostMapping("")
     @ResponseStatus(HttpStatus.CREATED)
-    public Event createEvent(@RequestBody Event event) {
+    public EventModel createEvent(@RequestBody Event event) {
         logger.debug("Received POST request at endpoint v1/events/");
 
         Event createdEvent = eventService.addEvent(event);
 
-        createdEvent.add(linkTo(methodOn(this.getClass()).getAllEvents()).withRel("all-events"));
-        createdEvent.add(linkTo(methodOn(this.getClass()).getEvent(createdEvent.getEventId())).withSelfRel());
-
-        return createdEvent;
+        DogginerLinks.Templates templates = links.current();
+        return EventModel.of(createdEvent)
+                .add(templates.allEvents())
+                .add(templates.event(createdEvent.getEventId()));
     }
 
     @PutMapping("/{eventId}")
-    public Event updateEvent(@PathVariable int eventId, @RequestBody Event event) {
+    public ResponseEntity<EventModel> updateEvent(@PathVariable int eventId, @RequestBody Event event,
+                                                  @RequestHeader(value = HttpHeaders.IF_MATCH, required = false)
+                                                          String ifMatch) {
         logger.debug("Received PUT request at endpoint v1/events/" + eventId);
 
+        event.setVersion(EntityTags.ifMatchVersion(ifMatch));
         Event updatedEvent = eventService.updateEvent(eventId, event);
 
-        updatedEvent.add(linkTo(methodOn(this.getClass()).getAllEvents()).withRel("all-events"));
-        updatedEvent.add(linkTo(methodOn(this.getClass()).getEvent(eventId)).withSelfRel());
-
-        return updatedEvent;
+        DogginerLinks.Templates templates = links.current();
+        return ResponseEntity.ok()
+                .headers(EntityTags.headers(updatedEvent.getVersion(), updatedEvent.getUpdatedAt()))
+                .body(EventModel.of(updatedEvent)
+                        .add(templates.allEvents())
+                        .add(templates.event(eventId)));
     }
 
     @PatchMapping("/{eventId}")
-    public Event partiallyUpdateEvent(@PathVariable int eventId, @RequestBody Event event) {
+    public ResponseEntity<EventModel> partiallyUpdateEvent(@PathVariable int eventId, @RequestBody Event event,
+                                                           @RequestHeader(value = HttpHeaders.IF_MATCH,
+                                                                   required = false) String ifMatch) {
         logger.debug("Received PATCH request at endpoint v1/events/" + eventId);
 
+        event.setVersion(EntityTags.ifMatchVersion(ifMatch));
         Event updatedEvent = eventService.partiallyUpdateEvent(eventId, event);
 
-        updatedEvent.add(linkTo(methodOn(this.getClass()).getAllEvents()).withRel("all-events"));
-        updatedEvent.add(linkTo(methodOn(this.getClass()).getEvent(eventId)).withSelfRel());
-
-        return updatedEvent;
+        DogginerLinks.Templates templates = links.current();
+        return ResponseEntity.ok()
+                .headers(EntityTags.headers(updatedEvent.getVersion(), updatedEvent.getUpdatedAt()))
+                .body(EventModel.of(updatedEvent)
+                        .add(templates.allEvents())
+                        .add(templates.event(eventId)));
     }
 
     @DeleteMapping("/{eventId}")
-    public Event delete(@PathVariable int eventId) {
+    public EventModel delete(@PathVariable int eventId) {
         logger.debug("Received DELETE request at endpoint v1/events/" + eventId);
 
         Event deletedEvent = eventService.deleteById(eventId);
 
-        deletedEvent.add(linkTo(methodOn(this.getClass()).getAllEvents()).withRel("all-events"));
+        return EventModel.of(deletedEvent).add(links.current().allEvents());
+    }
 
-        return deletedEvent;
+    private Link pageLink(String cursorParameter, Cursor cursor, String rel) {
+        String href = ServletUriComponentsBuilder.fromCurrentRequest()
+                .replaceQueryParam("after")
+                .replaceQueryParam("before")
+                .replaceQueryParam(cursorParameter, cursor.encode())
+                .toUriString();
+        return Link.of(href, rel);
     }
 }
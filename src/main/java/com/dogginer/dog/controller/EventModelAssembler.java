@@ -0,0 +1,47 @@
+package com.dogginer.dog.controller;
+
+import com.dogginer.dog.model.Event;
+import com.dogginer.dog.model.EventModel;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.hateoas.CollectionModel;
+import org.springframework.hateoas.server.RepresentationModelAssembler;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Maps events to their response model with a self link, resolving the link templates once per collection
+ */
+@Component
+public class EventModelAssembler implements RepresentationModelAssembler<Event, EventModel> {
+
+    private DogginerLinks links;
+
+    @Autowired public EventModelAssembler(DogginerLinks links) {
+        this.links = links;
+    }
+
+    @Override
+    public EventModel toModel(Event event) {
+        return toModel(event, links.current());
+    }
+
+    @Override
+    public CollectionModel<EventModel> toCollectionModel(Iterable<? extends Event> events) {
+        DogginerLinks.Templates templates = links.current();
+        List<EventModel> models = new ArrayList<>();
+        for (Event event : events) models.add(toModel(event, templates));
+        return CollectionModel.of(models);
+    }
+
+    /**
+     * Map an event with the link templates already resolved, e.g. off the request thread
+     * @param event the event to be mapped
+     * @param templates the link templates of the request
+     * @return the response model with its self link
+     */
+    public EventModel toModel(Event event, DogginerLinks.Templates templates) {
+        return EventModel.of(event).add(templates.event(event.getEventId()));
+    }
+}
@@ -0,0 +1,46 @@
+package com.dogginer.dog.controller;
+
+import com.dogginer.dog.model.ImportResult;
+import com.dogginer.dog.service.IImportService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+@RestController
+@RequestMapping("/v1")
+public class ImportController {
+
+    private static final String NDJSON = "application/x-ndjson";
+
+    private IImportService importService;
+    private static Logger logger = LoggerFactory.getLogger(ImportController.class);
+
+    @Autowired public ImportController(IImportService importService) {
+        this.importService = importService;
+    }
+
+    @PostMapping(path = "/events:bulk",
+            consumes = {MediaType.APPLICATION_JSON_VALUE, NDJSON},
+            produces = MediaType.APPLICATION_JSON_VALUE)
+    public ImportResult importEvents(InputStream body) throws IOException {
+        logger.debug("Received POST request at endpoint v1/events:bulk");
+
+        return importService.importEvents(body);
+    }
+
+    @PostMapping(path = "/clients:bulk",
+            consumes = {MediaType.APPLICATION_JSON_VALUE, NDJSON},
+            produces = MediaType.APPLICATION_JSON_VALUE)
+    public ImportResult importClients(InputStream body) throws IOException {
+        logger.debug("Received POST request at endpoint v1/clients:bulk");
+
+        return importService.importClients(body);
+    }
+}
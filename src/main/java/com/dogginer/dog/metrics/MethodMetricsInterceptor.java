@@ -0,0 +1,131 @@
+package com.dogginer.dog.metrics;
+
+import com.dogginer.dog.query.KeysetPage;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.data.domain.Slice;
+
+import java.lang.reflect.Method;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Times the methods of one service or repository and counts the rows they return.
+ * The meters of a method are registered on its first call and looked up by method afterwards,
+ * so a call records without building tags or meter ids, and without allocating.
+ * Latencies are published as histograms, the percentiles are computed from their buckets at query time,
+ * e.g. with histogram_quantile in Prometheus, which is cheaper per call than client-side percentiles
+ */
+final class MethodMetricsInterceptor implements MethodInterceptor {
+    static final String TIMER = "dogginer.invocations";
+    static final String ROWS = "dogginer.invocations.rows";
+
+    private final ObjectProvider<MeterRegistry> meterRegistry;
+    private final String layer;
+    private final String type;
+    private final ConcurrentMap<Method, MethodMeters> meters = new ConcurrentHashMap<>();
+
+    /**
+     * @param meterRegistry the registry, resolved on the first call
+     * @param layer the layer tag, e.g. service
+     * @param type the name of the instrumented type, the first part of the operation tag
+     */
+    MethodMetricsInterceptor(ObjectProvider<MeterRegistry> meterRegistry, String layer, String type) {
+        this.meterRegistry = meterRegistry;
+        this.layer = layer;
+        this.type = type;
+    }
+
+    @Override
+    public Object invoke(MethodInvocation invocation) throws Throwable {
+        Method method = invocation.getMethod();
+        MethodMeters methodMeters = meters.computeIfAbsent(method, this::register);
+
+        long start = System.nanoTime();
+        Object result;
+        try {
+            result = invocation.proceed();
+        } catch (Throwable e) {
+            methodMeters.failed(e, System.nanoTime() - start);
+            throw e;
+        }
+        methodMeters.succeeded(result, System.nanoTime() - start);
+        return result;
+    }
+
+    private MethodMeters register(Method method) {
+        MeterRegistry registry = meterRegistry.getObject();
+        Tags tags = Tags.of("layer", layer, "operation", type + "." + method.getName());
+        DistributionSummary rows = countable(method.getReturnType())
+                ? DistributionSummary.builder(ROWS)
+                        .description("Rows returned by a service or repository method")
+                        .tags(tags)
+                        .publishPercentileHistogram()
+                        .maximumExpectedValue((double) KeysetPage.MAX_SIZE * 10)
+                        .register(registry)
+                : null;
+        return new MethodMeters(registry, tags, rows);
+    }
+
+    private static final class MethodMeters {
+        private final MeterRegistry registry;
+        private final Tags tags;
+        private final Timer succeeded;
+        private final DistributionSummary rows;
+        private final ConcurrentMap<Class<?>, Timer> failed = new ConcurrentHashMap<>();
+
+        private MethodMeters(MeterRegistry registry, Tags tags, DistributionSummary rows) {
+            this.registry = registry;
+            this.tags = tags;
+            this.succeeded = timer("none");
+            this.rows = rows;
+        }
+
+        private void succeeded(Object result, long nanos) {
+            succeeded.record(nanos, TimeUnit.NANOSECONDS);
+            if (rows != null) {
+                int count = rowCount(result);
+                if (count >= 0) rows.record(count);
+            }
+        }
+
+        private void failed(Throwable e, long nanos) {
+            failed.computeIfAbsent(e.getClass(), type -> timer(type.getSimpleName()))
+                    .record(nanos, TimeUnit.NANOSECONDS);
+        }
+
+        private Timer timer(String exception) {
+            return Timer.builder(TIMER)
+                    .description("Latency of the service and repository methods")
+                    .tags(tags)
+                    .tag("exception", exception)
+                    .publishPercentileHistogram()
+                    .minimumExpectedValue(Duration.ofNanos(TimeUnit.MICROSECONDS.toNanos(10)))
+                    .maximumExpectedValue(Duration.ofSeconds(10))
+                    .register(registry);
+        }
+    }
+
+    private static boolean countable(Class<?> type) {
+        return Collection.class.isAssignableFrom(type) || KeysetPage.class.isAssignableFrom(type)
+                || Slice.class.isAssignableFrom(type) || Optional.class.isAssignableFrom(type);
+    }
+
+    // the number of rows in a result, -1 if it holds none
+    private static int rowCount(Object result) {
+        if (result instanceof Collection) return ((Collection<?>) result).size();
+        if (result instanceof KeysetPage) return ((KeysetPage<?>) result).getContent().size();
+        if (result instanceof Slice) return ((Slice<?>) result).getNumberOfElements();
+        if (result instanceof Optional) return ((Optional<?>) result).isPresent() ? 1 : 0;
+        return -1;
+    }
+}
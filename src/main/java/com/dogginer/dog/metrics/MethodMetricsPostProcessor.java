@@ -0,0 +1,66 @@
+package com.dogginer.dog.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.aop.framework.Advised;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.aop.support.AopUtils;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.stereotype.Component;
+import org.springframework.util.ClassUtils;
+
+/**
+ * Instruments every service and repository bean with a {@link MethodMetricsInterceptor}.
+ * Each call is timed as dogginer.invocations and the rows it returns are counted as dogginer.invocations.rows,
+ * both tagged with the layer and the operation, e.g. layer=service, operation=IEventService.findPage.
+ * The interceptor is added in front of the advice the bean already has, so service timings include their
+ * transaction. Spring Data repositories are tagged with their repository interface.
+ * This post processor is not ordered, so it runs after the ones that create the proxies
+ */
+@Component
+public class MethodMetricsPostProcessor implements BeanPostProcessor {
+    private static final String BASE_PACKAGE = "com.dogginer.dog.";
+    private static final String[] LAYERS = {"service", "repository"};
+
+    private final ObjectProvider<MeterRegistry> meterRegistry;
+
+    // the registry is resolved lazily, a post processor must not initialise it early
+    public MethodMetricsPostProcessor(ObjectProvider<MeterRegistry> meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        Class<?> type = instrumentedType(bean);
+        if (type == null) return bean;
+        MethodMetricsInterceptor interceptor = new MethodMetricsInterceptor(meterRegistry, layerOf(type),
+                type.getSimpleName());
+
+        if (bean instanceof Advised && !((Advised) bean).isFrozen()) {
+            ((Advised) bean).addAdvice(0, interceptor);
+            return bean;
+        }
+        ProxyFactory proxyFactory = new ProxyFactory(bean);
+        proxyFactory.setProxyTargetClass(true);
+        proxyFactory.addAdvice(interceptor);
+        return proxyFactory.getProxy(ClassUtils.getDefaultClassLoader());
+    }
+
+    // the first service or repository interface of the bean, e.g. the interface of a Spring Data repository,
+    // otherwise its class if it is a service or repository
+    private static Class<?> instrumentedType(Object bean) {
+        for (Class<?> type : ClassUtils.getAllInterfaces(bean)) {
+            if (layerOf(type) != null) return type;
+        }
+        Class<?> targetClass = AopUtils.getTargetClass(bean);
+        return layerOf(targetClass) != null ? targetClass : null;
+    }
+
+    private static String layerOf(Class<?> type) {
+        String packageName = ClassUtils.getPackageName(type);
+        for (String layer : LAYERS) {
+            if (packageName.equals(BASE_PACKAGE + layer)) return layer;
+        }
+        return null;
+    }
+}
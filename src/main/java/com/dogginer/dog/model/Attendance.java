@@ -0,0 +1,23 @@
+package com.dogginer.dog.model;
+
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import org.springframework.hateoas.RepresentationModel;
+
+/**
+ * A client attending an event, i.e. a row of the attendees table
+ */
+@EqualsAndHashCode(callSuper = false)
+public @Data class Attendance extends RepresentationModel<Attendance> {
+
+    private Integer eventId;
+    private Integer clientId;
+
+    public Attendance() {
+    }
+
+    public Attendance(Integer eventId, Integer clientId) {
+        this.eventId = eventId;
+        this.clientId = clientId;
+    }
+}
@@ -0,0 +1,25 @@
+package com.dogginer.dog.model;
+
+/**
+ * Outcome of a bulk attendance request
+ */
+public class AttendanceBatchResult {
+
+    private final int requested;
+    private final int created;
+
+    public AttendanceBatchResult(int requested, int created) {
+        this.requested = requested;
+        this.created = created;
+    }
+
+    /** @return the number of attendances in the request */
+    public int getRequested() {
+        return requested;
+    }
+
+    /** @return the number of attendances that did not exist before */
+    public int getCreated() {
+        return created;
+    }
+}
@@ -1,20 +1,29 @@
 package com.dogginer.dog.model;
 
+import com.dogginer.dog.cache.DogginerCacheConfiguration;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.fasterxml.jackson.annotation.JsonProperty.Access;
 
 import lombok.Data;
-import org.springframework.hateoas.RepresentationModel;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.ColumnDefault;
+import org.hibernate.annotations.DynamicUpdate;
+import org.hibernate.annotations.UpdateTimestamp;
 
-import javax.persistence.*;
+import jakarta.persistence.*;
 import java.io.Serializable;
+import java.time.Instant;
 import java.util.*;
 
 @Entity
+@DynamicUpdate
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = DogginerCacheConfiguration.CLIENTS_REGION)
 @Table(name="clients")
 @NamedQuery(name="Client.findAll", query="SELECT c FROM Client c")
-public @Data class Client extends RepresentationModel<Client> implements Serializable {
+public @Data class Client implements Serializable {
     private static final long serialVersionUID = 1L;
 
     @Id
@@ -27,6 +36,19 @@ public @Data class Client extends RepresentationModel<Client> implements Seriali
     @JsonProperty(access = Access.WRITE_ONLY)
     private String password;
 
+    // incremented on every write and exposed as the ETag
+    @Version
+    @Column(nullable = false)
+    @ColumnDefault("0")
+    @JsonIgnore
+    private Integer version;
+
+    @UpdateTimestamp
+    @Column(nullable = false)
+    @ColumnDefault("CURRENT_TIMESTAMP")
+    @JsonIgnore
+    private Instant updatedAt;
+
     //uni-directional many-to-many association to Event
     @ManyToMany
     @JoinTable(
@@ -46,17 +68,18 @@ public @Data class Client extends RepresentationModel<Client> implements Seriali
     public Client() {
     }
 
+    // identity is the id alone, and the hash is constant so it survives the id being generated
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
         if (o == null || getClass() != o.getClass()) return false;
         Client client = (Client) o;
-        return getClientId().equals(client.getClientId());
+        return clientId != null && clientId.equals(client.getClientId());
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(getClientId());
+        return getClass().hashCode();
     }
 
     @Override
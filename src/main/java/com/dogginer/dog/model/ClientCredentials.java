@@ -0,0 +1,20 @@
+package com.dogginer.dog.model;
+
+import lombok.Data;
+
+/**
+ * Login projection of a client. It is read with a constructor expression,
+ * so only the id, the username and the password hash are loaded.
+ */
+public @Data class ClientCredentials {
+
+    private Integer clientId;
+    private String username;
+    private String password;
+
+    public ClientCredentials(Integer clientId, String username, String password) {
+        this.clientId = clientId;
+        this.username = username;
+        this.password = password;
+    }
+}
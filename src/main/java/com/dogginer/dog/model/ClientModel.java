@@ -0,0 +1,56 @@
+package com.dogginer.dog.model;
+
+import org.springframework.hateoas.RepresentationModel;
+import org.springframework.hateoas.server.core.Relation;
+
+import java.util.Objects;
+
+/**
+ * Response model of a client. It copies the public client fields, so the password hash and
+ * the lazy attended events are never serialized and links never reach the persistent instance.
+ */
+@Relation(collectionRelation = "clientList")
+public final class ClientModel extends RepresentationModel<ClientModel> {
+
+    private final Integer clientId;
+    private final String username;
+    private final String email;
+
+    private ClientModel(Client client) {
+        this.clientId = client.getClientId();
+        this.username = client.getUsername();
+        this.email = client.getEmail();
+    }
+
+    public static ClientModel of(Client client) {
+        return new ClientModel(client);
+    }
+
+    public Integer getClientId() {
+        return clientId;
+    }
+
+    public String getUsername() {
+        return username;
+    }
+
+    public String getEmail() {
+        return email;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        if (!super.equals(o)) return false;
+        ClientModel that = (ClientModel) o;
+        return Objects.equals(clientId, that.clientId) &&
+                Objects.equals(username, that.username) &&
+                Objects.equals(email, that.email);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(super.hashCode(), clientId, username, email);
+    }
+}
@@ -0,0 +1,25 @@
+package com.dogginer.dog.model;
+
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import org.springframework.hateoas.RepresentationModel;
+import org.springframework.hateoas.server.core.Relation;
+
+/**
+ * Listing projection of a client. It is read with a constructor expression,
+ * so the password hash and the attended events are never loaded.
+ */
+@Relation(collectionRelation = "clientList")
+@EqualsAndHashCode(callSuper = false)
+public @Data class ClientSummary extends RepresentationModel<ClientSummary> {
+
+    private Integer clientId;
+    private String username;
+    private String email;
+
+    public ClientSummary(Integer clientId, String username, String email) {
+        this.clientId = clientId;
+        this.username = username;
+        this.email = email;
+    }
+}
@@ -0,0 +1,25 @@
+package com.dogginer.dog.model;
+
+import java.time.Instant;
+
+/**
+ * Version and last modification of an event or a client, read without loading the entity
+ */
+public class EntityVersion {
+
+    private final Integer version;
+    private final Instant updatedAt;
+
+    public EntityVersion(Integer version, Instant updatedAt) {
+        this.version = version;
+        this.updatedAt = updatedAt;
+    }
+
+    public Integer getVersion() {
+        return version;
+    }
+
+    public Instant getUpdatedAt() {
+        return updatedAt;
+    }
+}
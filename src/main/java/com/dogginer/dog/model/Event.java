@@ -1,19 +1,34 @@
 package com.dogginer.dog.model;
 
 
+import com.dogginer.dog.cache.DogginerCacheConfiguration;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.annotation.JsonProperty.Access;
 import lombok.Data;
 import lombok.EqualsAndHashCode;
-import org.springframework.hateoas.RepresentationModel;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.ColumnDefault;
+import org.hibernate.annotations.DynamicUpdate;
+import org.hibernate.annotations.UpdateTimestamp;
 
-import javax.persistence.*;
+import jakarta.persistence.*;
 import java.io.Serializable;
+import java.time.Instant;
 import java.time.LocalDateTime;
-import java.util.Objects;
 
 @Entity
-@Table(name="events")
+@DynamicUpdate
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = DogginerCacheConfiguration.EVENTS_REGION)
+// the indexes mirror V4__event_window_indexes.sql, so that the schema hibernate builds for tests has them
+@Table(name="events", indexes = {
+        @Index(name = "idx_events_date_id", columnList = "date, eventId"),
+        @Index(name = "idx_events_date_price", columnList = "date, price")
+})
 @NamedQuery(name="Event.findAll", query="SELECT e FROM Event e")
-public  @Data class Event extends RepresentationModel<Event> implements Serializable{
+public  @Data class Event implements Serializable{
     private static final long serialVersionUID = 1L;
 
     public static final String DEFAULT_IMAGE_URL = "https://picsum.photos/id/237/300";
@@ -28,18 +43,39 @@ public  @Data class Event extends RepresentationModel<Event> implements Serializ
     private String imageUrl = DEFAULT_IMAGE_URL;
     private Double price;
 
+    // maximum number of attendees, null for no limit
+    private Integer capacity;
+
+    // maintained by the attendance writes, never by the entity
+    @Column(nullable = false, insertable = false, updatable = false)
+    @ColumnDefault("0")
+    @JsonProperty(access = Access.READ_ONLY)
+    private Integer attendeeCount = 0;
+
+    // incremented on every write, including the ones to the attendee count, and exposed as the ETag
+    @Version
+    @Column(nullable = false)
+    @ColumnDefault("0")
+    @JsonIgnore
+    private Integer version;
+
+    @UpdateTimestamp
+    @Column(nullable = false)
+    @ColumnDefault("CURRENT_TIMESTAMP")
+    @JsonIgnore
+    private Instant updatedAt;
+
+    // identity is the id alone, so the hash doesn't change when other fields are updated
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
         if (o == null || getClass() != o.getClass()) return false;
-        if (!super.equals(o)) return false;
         Event event = (Event) o;
-        return getEventId().equals(event.getEventId()) &&
-                getTitle().equals(event.getTitle());
+        return eventId != null && eventId.equals(event.getEventId());
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(super.hashCode(), getEventId(), getTitle());
+        return getClass().hashCode();
     }
 }
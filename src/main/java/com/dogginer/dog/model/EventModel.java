@@ -0,0 +1,93 @@
+package com.dogginer.dog.model;
+
+import org.springframework.hateoas.RepresentationModel;
+import org.springframework.hateoas.server.core.Relation;
+
+import java.time.LocalDateTime;
+import java.util.Objects;
+
+/**
+ * Response model of an event. It copies the event fields, so links are never added to the
+ * persistent instance and serialization never touches Hibernate state.
+ */
+@Relation(collectionRelation = "eventList")
+public final class EventModel extends RepresentationModel<EventModel> {
+
+    private final Integer eventId;
+    private final String title;
+    private final String description;
+    private final LocalDateTime date;
+    private final String imageUrl;
+    private final Double price;
+    private final Integer capacity;
+    private final Integer attendeeCount;
+
+    private EventModel(Event event) {
+        this.eventId = event.getEventId();
+        this.title = event.getTitle();
+        this.description = event.getDescription();
+        this.date = event.getDate();
+        this.imageUrl = event.getImageUrl();
+        this.price = event.getPrice();
+        this.capacity = event.getCapacity();
+        this.attendeeCount = event.getAttendeeCount();
+    }
+
+    public static EventModel of(Event event) {
+        return new EventModel(event);
+    }
+
+    public Integer getEventId() {
+        return eventId;
+    }
+
+    public String getTitle() {
+        return title;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    public LocalDateTime getDate() {
+        return date;
+    }
+
+    public String getImageUrl() {
+        return imageUrl;
+    }
+
+    public Double getPrice() {
+        return price;
+    }
+
+    public Integer getCapacity() {
+        return capacity;
+    }
+
+    public Integer getAttendeeCount() {
+        return attendeeCount;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        if (!super.equals(o)) return false;
+        EventModel that = (EventModel) o;
+        return Objects.equals(eventId, that.eventId) &&
+                Objects.equals(title, that.title) &&
+                Objects.equals(description, that.description) &&
+                Objects.equals(date, that.date) &&
+                Objects.equals(imageUrl, that.imageUrl) &&
+                Objects.equals(price, that.price) &&
+                Objects.equals(capacity, that.capacity) &&
+                Objects.equals(attendeeCount, that.attendeeCount);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(super.hashCode(), eventId, title, description, date, imageUrl, price, capacity,
+                attendeeCount);
+    }
+}
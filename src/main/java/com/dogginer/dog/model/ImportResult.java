@@ -0,0 +1,86 @@
+package com.dogginer.dog.model;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Outcome of a bulk import. Rows are identified by their position in the request, starting at 0.
+ * Only the first errors are reported in detail, the rest are only counted.
+ */
+public class ImportResult {
+
+    private final int maxErrors;
+    private int requested;
+    private int created;
+    private int failed;
+    private final List<RowError> errors = new ArrayList<>();
+
+    public ImportResult(int maxErrors) {
+        this.maxErrors = maxErrors;
+    }
+
+    /**
+     * Records rows that were inserted
+     * @param rows the number of rows
+     */
+    public void created(int rows) {
+        requested += rows;
+        created += rows;
+    }
+
+    /**
+     * Records a row that was rejected
+     * @param index the position of the row in the request
+     * @param message why the row was rejected
+     */
+    public void failed(int index, String message) {
+        requested++;
+        failed++;
+        if (errors.size() < maxErrors) errors.add(new RowError(index, message));
+    }
+
+    /** @return the number of rows in the request */
+    public int getRequested() {
+        return requested;
+    }
+
+    /** @return the number of rows that were inserted */
+    public int getCreated() {
+        return created;
+    }
+
+    /** @return the number of rows that were rejected */
+    public int getFailed() {
+        return failed;
+    }
+
+    /** @return the first rejected rows, in request order */
+    public List<RowError> getErrors() {
+        return Collections.unmodifiableList(errors);
+    }
+
+    /**
+     * A rejected row of a bulk import
+     */
+    public static class RowError {
+
+        private final int index;
+        private final String message;
+
+        public RowError(int index, String message) {
+            this.index = index;
+            this.message = message;
+        }
+
+        /** @return the position of the row in the request */
+        public int getIndex() {
+            return index;
+        }
+
+        /** @return why the row was rejected */
+        public String getMessage() {
+            return message;
+        }
+    }
+}
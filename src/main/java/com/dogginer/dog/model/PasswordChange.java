@@ -0,0 +1,11 @@
+package com.dogginer.dog.model;
+
+import lombok.Data;
+
+/**
+ * Request body of a client password change
+ */
+public @Data class PasswordChange {
+
+    private String password;
+}
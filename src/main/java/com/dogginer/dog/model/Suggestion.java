@@ -0,0 +1,13 @@
+package com.dogginer.dog.model;
+
+import lombok.Data;
+
+/**
+ * Autocomplete match: the id of a row and the value that starts with the typed prefix.
+ */
+public @Data class Suggestion {
+    public static final int DEFAULT_SIZE = 10;
+
+    private final int id;
+    private final String value;
+}
@@ -0,0 +1,15 @@
+package com.dogginer.dog.query;
+
+import lombok.Data;
+
+/**
+ * Optional filters for the client listing. Null fields are not applied.
+ */
+public @Data class ClientFilter {
+
+    /** username prefix */
+    private String username;
+
+    /** email prefix */
+    private String email;
+}
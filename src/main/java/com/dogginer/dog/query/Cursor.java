@@ -0,0 +1,99 @@
+package com.dogginer.dog.query;
+
+import com.dogginer.dog.exception.BadRequestException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.Objects;
+
+/**
+ * Opaque keyset cursor. It holds the sort key of the row a page starts after (or ends before)
+ * and travels to the client as a url safe base64 string.
+ */
+public final class Cursor {
+
+    private static final String SEPARATOR = "|";
+    private static final String PRICE_SEPARATOR = "~";
+
+    private final int id;
+    private final LocalDateTime date;
+    private final Double price;
+
+    public Cursor(int id, LocalDateTime date) {
+        this(id, date, null);
+    }
+
+    private Cursor(int id, LocalDateTime date, Double price) {
+        this.id = id;
+        this.date = date;
+        this.price = price;
+    }
+
+    public static Cursor of(int id) {
+        return new Cursor(id, null, null);
+    }
+
+    public static Cursor ofPrice(int id, Double price) {
+        return new Cursor(id, null, price);
+    }
+
+    public int getId() {
+        return id;
+    }
+
+    public LocalDateTime getDate() {
+        return date;
+    }
+
+    public Double getPrice() {
+        return price;
+    }
+
+    /**
+     * @return the cursor as an opaque string to be used as a query parameter
+     */
+    public String encode() {
+        String raw = date != null ? date + SEPARATOR + id
+                : price != null ? price + PRICE_SEPARATOR + id
+                : String.valueOf(id);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Parses a cursor previously returned by {@link #encode()}
+     * @param value the encoded cursor, may be null
+     * @return the cursor, or null if no value was given
+     * @throws BadRequestException if the value is not a valid cursor
+     */
+    public static Cursor decode(String value) {
+        if (value == null || value.isEmpty()) return null;
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(value), StandardCharsets.UTF_8);
+            int priceSeparator = raw.lastIndexOf(PRICE_SEPARATOR);
+            if (priceSeparator >= 0)
+                return ofPrice(Integer.parseInt(raw.substring(priceSeparator + 1)),
+                        Double.parseDouble(raw.substring(0, priceSeparator)));
+            int separator = raw.lastIndexOf(SEPARATOR);
+            if (separator < 0) return of(Integer.parseInt(raw));
+            return new Cursor(Integer.parseInt(raw.substring(separator + 1)),
+                    LocalDateTime.parse(raw.substring(0, separator)));
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            throw new BadRequestException("cursor:" + value);
+        }
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        Cursor cursor = (Cursor) o;
+        return id == cursor.id && Objects.equals(date, cursor.date) && Objects.equals(price, cursor.price);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(id, date, price);
+    }
+}
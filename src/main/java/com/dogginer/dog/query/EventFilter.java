@@ -0,0 +1,27 @@
+package com.dogginer.dog.query;
+
+import lombok.Data;
+import org.springframework.format.annotation.DateTimeFormat;
+
+import java.time.LocalDateTime;
+
+/**
+ * Optional filters for the event listing. Null fields are not applied.
+ */
+public @Data class EventFilter {
+
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+    private LocalDateTime from;
+
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+    private LocalDateTime to;
+
+    /** upcoming window, events from now until this many days ahead; from and to take precedence */
+    private Integer days;
+
+    private Double minPrice;
+    private Double maxPrice;
+
+    /** title prefix */
+    private String title;
+}
@@ -0,0 +1,29 @@
+package com.dogginer.dog.query;
+
+import com.dogginer.dog.exception.BadRequestException;
+
+/**
+ * Orderings supported by the keyset paginated event listing.
+ * Every ordering ends in event_id so that the sort key is unique.
+ */
+public enum EventSort {
+    /** order by event_id */
+    ID,
+    /** order by date, event_id */
+    DATE,
+    /** order by price, event_id, cheapest first */
+    PRICE;
+
+    /**
+     * Parses the value of the sort query parameter
+     * @param value the parameter value, case insensitive
+     * @return the matching ordering
+     * @throws BadRequestException if the value is not a known ordering
+     */
+    public static EventSort fromParameter(String value) {
+        for (EventSort sort : values()) {
+            if (sort.name().equalsIgnoreCase(value)) return sort;
+        }
+        throw new BadRequestException("sort:" + value);
+    }
+}
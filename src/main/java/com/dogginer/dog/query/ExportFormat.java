@@ -0,0 +1,41 @@
+package com.dogginer.dog.query;
+
+import com.dogginer.dog.exception.BadRequestException;
+import org.springframework.http.MediaType;
+
+/**
+ * Formats of the streamed exports. Both write one line per row, so a consumer can process
+ * the export while it is still being written.
+ */
+public enum ExportFormat {
+    /** one JSON object per line */
+    NDJSON(MediaType.parseMediaType("application/x-ndjson")),
+    /** comma separated values with a header line */
+    CSV(MediaType.parseMediaType("text/csv"));
+
+    /** rows fetched per round trip, and rows written between flushes of the response */
+    public static final String FETCH_SIZE = "500";
+
+    private final MediaType mediaType;
+
+    ExportFormat(MediaType mediaType) {
+        this.mediaType = mediaType;
+    }
+
+    public MediaType getMediaType() {
+        return mediaType;
+    }
+
+    /**
+     * Parses the value of the format query parameter
+     * @param value the parameter value, case insensitive
+     * @return the matching format
+     * @throws BadRequestException if the value is not a known format
+     */
+    public static ExportFormat fromParameter(String value) {
+        for (ExportFormat format : values()) {
+            if (format.name().equalsIgnoreCase(value)) return format;
+        }
+        throw new BadRequestException("format:" + value);
+    }
+}
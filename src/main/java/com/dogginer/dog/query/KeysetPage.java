@@ -0,0 +1,53 @@
+package com.dogginer.dog.query;
+
+import com.dogginer.dog.exception.BadRequestException;
+
+import java.util.List;
+
+/**
+ * A page of a keyset paginated listing
+ * @param <T> the type of the rows
+ */
+public class KeysetPage<T> {
+
+    public static final int DEFAULT_SIZE = 20;
+    public static final int MAX_SIZE = 100;
+
+    private final List<T> content;
+    private final Cursor next;
+    private final Cursor prev;
+
+    /**
+     * @param content the rows in the page
+     * @param next cursor to the following page, null if this is the last one
+     * @param prev cursor to the preceding page, null if this is the first one
+     */
+    public KeysetPage(List<T> content, Cursor next, Cursor prev) {
+        this.content = content;
+        this.next = next;
+        this.prev = prev;
+    }
+
+    public List<T> getContent() {
+        return content;
+    }
+
+    public Cursor getNext() {
+        return next;
+    }
+
+    public Cursor getPrev() {
+        return prev;
+    }
+
+    /**
+     * Clamps a requested page size to the allowed range
+     * @param size the requested size
+     * @return the size to be used
+     * @throws BadRequestException if the size is not positive
+     */
+    public static int boundedSize(int size) {
+        if (size < 1) throw new BadRequestException("size:" + size);
+        return Math.min(size, MAX_SIZE);
+    }
+}
@@ -0,0 +1,25 @@
+package com.dogginer.dog.query;
+
+import org.apache.commons.lang3.StringUtils;
+
+/**
+ * Builds LIKE patterns that match user input literally. Patterns use '\' as the escape character.
+ */
+public final class LikePattern {
+
+    public static final char ESCAPE = '\\';
+
+    private LikePattern() {
+    }
+
+    /**
+     * @param prefix the text the matched values start with
+     * @return a LIKE pattern for the prefix, or null if the prefix is empty
+     */
+    public static String startingWith(String prefix) {
+        if (StringUtils.isEmpty(prefix)) return null;
+        return prefix.replace("\\", "\\\\")
+                .replace("%", "\\%")
+                .replace("_", "\\_") + "%";
+    }
+}
@@ -0,0 +1,62 @@
+package com.dogginer.dog.repository;
+
+import com.dogginer.dog.model.Attendance;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Writes to the attendees join table and to the attendee counter of the events.
+ * Rows are inserted and deleted directly, without loading the attended events of the client.
+ */
+public interface IAttendanceRepository {
+
+    /**
+     * @return 1 if the attendance was created, 0 if it already existed
+     */
+    int addAttendee(int eventId, int clientId);
+
+    /**
+     * @return 1 if the attendance was deleted, 0 if it did not exist
+     */
+    int removeAttendee(int eventId, int clientId);
+
+    /**
+     * @return whether the client attends the event
+     */
+    boolean existsAttendee(int eventId, int clientId);
+
+    /**
+     * Inserts attendances in JDBC batches, skipping the ones that already exist.
+     * The created rows are counted in the table before and after the batch rather than read from the
+     * update counts, which the driver may report as SUCCESS_NO_INFO, e.g. with rewriteBatchedStatements.
+     * The events must be locked with {@link #lockEvents(Collection)} first, so the counts are exact
+     * @return the number of attendances created per event id in ascending order, events without new
+     * attendances are left out
+     */
+    Map<Integer, Integer> addAttendees(List<Attendance> attendances);
+
+    /**
+     * @return the ids of the events a client attends, in ascending order
+     */
+    List<Integer> findAttendedEventIds(int clientId);
+
+    /**
+     * Increments the attendee counter of an event unless that exceeds its capacity.
+     * The check and the increment are a single conditional UPDATE, so concurrent
+     * reservations only contend on the row of the event.
+     * @return 1 if the seats were reserved, 0 if the event is full or doesn't exist
+     */
+    int reserveSeats(int eventId, int seats);
+
+    /**
+     * Decrements the attendee counter of an event
+     */
+    int releaseSeats(int eventId, int seats);
+
+    /**
+     * Locks the rows of the given events until the end of the transaction, in id order
+     */
+    void lockEvents(Collection<Integer> eventIds);
+}
@@ -0,0 +1,23 @@
+package com.dogginer.dog.repository;
+
+import com.dogginer.dog.model.Client;
+import com.dogginer.dog.model.Event;
+
+import java.util.List;
+
+/**
+ * Inserts new events and clients as JDBC batches, one round trip per batch instead of per row.
+ * The generated ids are read back and set on the entities, which are not managed afterwards.
+ */
+public interface IBulkInsertRepository {
+
+    /**
+     * Inserts events in a single JDBC batch
+     */
+    void insertEvents(List<Event> events);
+
+    /**
+     * Inserts clients in a single JDBC batch. Passwords must already be hashed
+     */
+    void insertClients(List<Client> clients);
+}
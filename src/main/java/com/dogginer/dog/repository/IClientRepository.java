@@ -1,7 +1,89 @@
 package com.dogginer.dog.repository;
 
 import com.dogginer.dog.model.Client;
+import com.dogginer.dog.model.ClientCredentials;
+import com.dogginer.dog.model.ClientSummary;
+import com.dogginer.dog.model.EntityVersion;
+import com.dogginer.dog.query.ExportFormat;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+
+import jakarta.persistence.QueryHint;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 public interface IClientRepository extends JpaRepository<Client, Integer>{
+
+    String SUMMARY = "SELECT new com.dogginer.dog.model.ClientSummary(c.clientId, c.username, c.email) FROM Client c ";
+    String FILTERS = "(:username IS NULL OR c.username LIKE :username ESCAPE '\\') " +
+            "AND (:email IS NULL OR c.email LIKE :email ESCAPE '\\') ";
+
+    /**
+     * Reads a slice of client summaries by offset
+     * @param username LIKE pattern for the username, null to match all
+     * @param email LIKE pattern for the email, null to match all
+     */
+    @Query(SUMMARY + "WHERE " + FILTERS + "ORDER BY c.clientId")
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    Slice<ClientSummary> findSummaries(@Param("username") String username, @Param("email") String email,
+                                       Pageable pageable);
+
+    /**
+     * Reads the client summaries following a client id, in ascending order
+     */
+    @Query(SUMMARY + "WHERE c.clientId > :clientId AND " + FILTERS + "ORDER BY c.clientId ASC")
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    List<ClientSummary> findSummariesAfter(@Param("clientId") int clientId, @Param("username") String username,
+                                           @Param("email") String email, Pageable pageable);
+
+    /**
+     * Reads the client summaries preceding a client id, in descending order
+     */
+    @Query(SUMMARY + "WHERE c.clientId < :clientId AND " + FILTERS + "ORDER BY c.clientId DESC")
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    List<ClientSummary> findSummariesBefore(@Param("clientId") int clientId, @Param("username") String username,
+                                            @Param("email") String email, Pageable pageable);
+
+    /**
+     * Reads the summaries of the clients attending an event that follow a client id, in ascending order
+     */
+    @Query(SUMMARY + "JOIN c.attendedEvents e WHERE e.eventId = :eventId AND c.clientId > :clientId " +
+            "ORDER BY c.clientId ASC")
+    List<ClientSummary> findAttendeesAfter(@Param("eventId") int eventId, @Param("clientId") int clientId,
+                                           Pageable pageable);
+
+    Optional<Client> findByUsername(String username);
+
+    /**
+     * Reads the login credentials of a client
+     * @param username the exact username
+     */
+    @Query("SELECT new com.dogginer.dog.model.ClientCredentials(c.clientId, c.username, c.password) FROM Client c " +
+            "WHERE c.username = :username")
+    Optional<ClientCredentials> findCredentialsByUsername(@Param("username") String username);
+
+    /**
+     * Reads the version of a client without loading it
+     * @param clientId the id of the client
+     */
+    @Query("SELECT new com.dogginer.dog.model.EntityVersion(c.version, c.updatedAt) FROM Client c " +
+            "WHERE c.clientId = :clientId")
+    Optional<EntityVersion> findVersionById(@Param("clientId") int clientId);
+
+    /**
+     * Streams all clients in ascending order, fetched in chunks and bypassing the second-level cache.
+     * Must be consumed within a transaction, and the rows detached once written
+     */
+    @Query("SELECT c FROM Client c ORDER BY c.clientId ASC")
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = ExportFormat.FETCH_SIZE),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_MODE, value = "IGNORE")})
+    Stream<Client> streamAll();
 }
@@ -1,7 +1,46 @@
 package com.dogginer.dog.repository;
 
+import com.dogginer.dog.model.EntityVersion;
 import com.dogginer.dog.model.Event;
+import com.dogginer.dog.query.ExportFormat;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 
-public interface IEventRepository extends JpaRepository<Event, Integer> {
+import jakarta.persistence.QueryHint;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+public interface IEventRepository extends JpaRepository<Event, Integer>, IEventRepositoryCustom {
+
+    /**
+     * Reads the events attended by a client that follow an event id, in ascending order
+     */
+    @Query("SELECT e FROM Client c JOIN c.attendedEvents e WHERE c.clientId = :clientId AND e.eventId > :eventId " +
+            "ORDER BY e.eventId ASC")
+    List<Event> findAttendedEventsAfter(@Param("clientId") int clientId, @Param("eventId") int eventId,
+                                        Pageable pageable);
+
+    /**
+     * Reads the version of an event without loading it
+     * @param eventId the id of the event
+     */
+    @Query("SELECT new com.dogginer.dog.model.EntityVersion(e.version, e.updatedAt) FROM Event e " +
+            "WHERE e.eventId = :eventId")
+    Optional<EntityVersion> findVersionById(@Param("eventId") int eventId);
+
+    /**
+     * Streams all events in ascending order, fetched in chunks and bypassing the second-level cache.
+     * Must be consumed within a transaction, and the rows detached once written
+     */
+    @Query("SELECT e FROM Event e ORDER BY e.eventId ASC")
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = ExportFormat.FETCH_SIZE),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_MODE, value = "IGNORE")})
+    Stream<Event> streamAll();
 }
@@ -0,0 +1,22 @@
+package com.dogginer.dog.repository;
+
+import com.dogginer.dog.model.Event;
+import com.dogginer.dog.query.Cursor;
+import com.dogginer.dog.query.EventFilter;
+import com.dogginer.dog.query.EventSort;
+
+import java.util.List;
+
+public interface IEventRepositoryCustom {
+
+    /**
+     * Reads a keyset page of events, filtering and ordering in the database
+     * @param filter the filters to be applied
+     * @param sort the ordering of the rows
+     * @param cursor the sort key the page starts after (or ends before), null for the first page
+     * @param backwards whether to read the rows preceding the cursor, in reverse order
+     * @param limit the maximum number of rows to be read
+     * @return the events in the page
+     */
+    List<Event> findPage(EventFilter filter, EventSort sort, Cursor cursor, boolean backwards, int limit);
+}
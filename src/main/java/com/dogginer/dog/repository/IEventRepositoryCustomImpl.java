@@ -0,0 +1,86 @@
+package com.dogginer.dog.repository;
+
+import com.dogginer.dog.model.Event;
+import com.dogginer.dog.query.Cursor;
+import com.dogginer.dog.query.EventFilter;
+import com.dogginer.dog.query.EventSort;
+import com.dogginer.dog.query.LikePattern;
+import org.hibernate.jpa.HibernateHints;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.criteria.*;
+import java.util.ArrayList;
+import java.util.List;
+
+public class IEventRepositoryCustomImpl implements IEventRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<Event> findPage(EventFilter filter, EventSort sort, Cursor cursor, boolean backwards, int limit) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Event> query = cb.createQuery(Event.class);
+        Root<Event> event = query.from(Event.class);
+
+        List<Predicate> predicates = filterPredicates(cb, event, filter);
+        if (cursor != null) predicates.add(keysetPredicate(cb, event, sort, cursor, backwards));
+
+        query.select(event)
+                .where(predicates.toArray(new Predicate[0]))
+                .orderBy(ordering(cb, event, sort, backwards));
+
+        return entityManager.createQuery(query)
+                .setMaxResults(limit)
+                .setHint(HibernateHints.HINT_CACHEABLE, true)
+                .getResultList();
+    }
+
+    private List<Predicate> filterPredicates(CriteriaBuilder cb, Root<Event> event, EventFilter filter) {
+        List<Predicate> predicates = new ArrayList<>();
+        if (filter == null) return predicates;
+
+        if (filter.getFrom() != null)
+            predicates.add(cb.greaterThanOrEqualTo(event.get("date"), filter.getFrom()));
+        if (filter.getTo() != null)
+            predicates.add(cb.lessThan(event.get("date"), filter.getTo()));
+        if (filter.getMinPrice() != null)
+            predicates.add(cb.greaterThanOrEqualTo(event.get("price"), filter.getMinPrice()));
+        if (filter.getMaxPrice() != null)
+            predicates.add(cb.lessThanOrEqualTo(event.get("price"), filter.getMaxPrice()));
+        String titlePattern = LikePattern.startingWith(filter.getTitle());
+        if (titlePattern != null)
+            predicates.add(cb.like(event.get("title"), titlePattern, LikePattern.ESCAPE));
+        return predicates;
+    }
+
+    private Predicate keysetPredicate(CriteriaBuilder cb, Root<Event> event, EventSort sort,
+                                      Cursor cursor, boolean backwards) {
+        Path<Integer> id = event.get("eventId");
+        Predicate idPredicate = backwards ? cb.lessThan(id, cursor.getId()) : cb.greaterThan(id, cursor.getId());
+        if (sort == EventSort.ID) return idPredicate;
+        if (sort == EventSort.PRICE)
+            return keysetPredicate(cb, event.get("price"), cursor.getPrice(), idPredicate, backwards);
+        return keysetPredicate(cb, event.get("date"), cursor.getDate(), idPredicate, backwards);
+    }
+
+    // (key, event_id) > (:key, :id) spelled out, as row values are not portable
+    private <K extends Comparable<? super K>> Predicate keysetPredicate(CriteriaBuilder cb, Path<K> key, K value,
+                                                                        Predicate idPredicate, boolean backwards) {
+        Predicate keyPredicate = backwards ? cb.lessThan(key, value) : cb.greaterThan(key, value);
+        return cb.or(keyPredicate, cb.and(cb.equal(key, value), idPredicate));
+    }
+
+    private List<Order> ordering(CriteriaBuilder cb, Root<Event> event, EventSort sort, boolean backwards) {
+        List<Order> orders = new ArrayList<>();
+        if (sort == EventSort.DATE) orders.add(order(cb, event.get("date"), backwards));
+        if (sort == EventSort.PRICE) orders.add(order(cb, event.get("price"), backwards));
+        orders.add(order(cb, event.get("eventId"), backwards));
+        return orders;
+    }
+
+    private Order order(CriteriaBuilder cb, Path<?> path, boolean descending) {
+        return descending ? cb.desc(path) : cb.asc(path);
+    }
+}
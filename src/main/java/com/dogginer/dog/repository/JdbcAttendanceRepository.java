@@ -0,0 +1,118 @@
+package com.dogginer.dog.repository;
+
+import com.dogginer.dog.model.Attendance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+@Repository
+public class JdbcAttendanceRepository implements IAttendanceRepository {
+
+    // single statement insert that is a no-op when the client already attends the event
+    private static final String INSERT_ATTENDEE = "INSERT INTO attendees (event_id, client_id) " +
+            "SELECT ?, ? FROM DUAL WHERE NOT EXISTS " +
+            "(SELECT 1 FROM attendees WHERE event_id = ? AND client_id = ?)";
+    private static final String DELETE_ATTENDEE = "DELETE FROM attendees WHERE event_id = ? AND client_id = ?";
+    private static final String EXISTS_ATTENDEE = "SELECT COUNT(*) FROM attendees WHERE event_id = ? AND client_id = ?";
+    private static final String COUNT_ATTENDEES = "SELECT event_id, COUNT(*) FROM attendees WHERE event_id IN (%s) " +
+            "GROUP BY event_id";
+    private static final String FIND_ATTENDED_EVENT_IDS = "SELECT event_id FROM attendees WHERE client_id = ? " +
+            "ORDER BY event_id";
+    // the counter is part of the event, so changing it makes a new version of the event
+    private static final String RESERVE_SEATS = "UPDATE events SET attendee_count = attendee_count + ?, " +
+            "version = version + 1, updated_at = ? WHERE event_id = ? AND (capacity IS NULL OR attendee_count + ? <= capacity)";
+    private static final String RELEASE_SEATS = "UPDATE events SET attendee_count = attendee_count - ?, " +
+            "version = version + 1, updated_at = ? WHERE event_id = ? AND attendee_count >= ?";
+    private static final String LOCK_EVENTS = "SELECT event_id FROM events WHERE event_id IN (%s) " +
+            "ORDER BY event_id FOR UPDATE";
+
+    private JdbcTemplate jdbcTemplate;
+    private int batchSize;
+
+    @Autowired public JdbcAttendanceRepository(JdbcTemplate jdbcTemplate,
+                                               @Value("${dogginer.attendance.batch-size:500}") int batchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.batchSize = batchSize;
+    }
+
+    @Override
+    public int addAttendee(int eventId, int clientId) {
+        return jdbcTemplate.update(INSERT_ATTENDEE, eventId, clientId, eventId, clientId);
+    }
+
+    @Override
+    public int removeAttendee(int eventId, int clientId) {
+        return jdbcTemplate.update(DELETE_ATTENDEE, eventId, clientId);
+    }
+
+    @Override
+    public boolean existsAttendee(int eventId, int clientId) {
+        Integer count = jdbcTemplate.queryForObject(EXISTS_ATTENDEE, Integer.class, eventId, clientId);
+        return count != null && count > 0;
+    }
+
+    @Override
+    public Map<Integer, Integer> addAttendees(List<Attendance> attendances) {
+        Set<Integer> eventIds = new TreeSet<>();
+        attendances.forEach(attendance -> eventIds.add(attendance.getEventId()));
+        Map<Integer, Integer> before = countAttendees(eventIds);
+
+        // the update counts of the batch are not used: batched statements may report SUCCESS_NO_INFO
+        jdbcTemplate.batchUpdate(INSERT_ATTENDEE, attendances, batchSize, (ps, attendance) -> {
+            ps.setInt(1, attendance.getEventId());
+            ps.setInt(2, attendance.getClientId());
+            ps.setInt(3, attendance.getEventId());
+            ps.setInt(4, attendance.getClientId());
+        });
+
+        Map<Integer, Integer> created = new TreeMap<>();
+        countAttendees(eventIds).forEach((eventId, count) -> {
+            int added = count - before.getOrDefault(eventId, 0);
+            if (added > 0) created.put(eventId, added);
+        });
+        return created;
+    }
+
+    @Override
+    public List<Integer> findAttendedEventIds(int clientId) {
+        return jdbcTemplate.queryForList(FIND_ATTENDED_EVENT_IDS, Integer.class, clientId);
+    }
+
+    @Override
+    public int reserveSeats(int eventId, int seats) {
+        return jdbcTemplate.update(RESERVE_SEATS, seats, Timestamp.from(Instant.now()), eventId, seats);
+    }
+
+    @Override
+    public int releaseSeats(int eventId, int seats) {
+        return jdbcTemplate.update(RELEASE_SEATS, seats, Timestamp.from(Instant.now()), eventId, seats);
+    }
+
+    @Override
+    public void lockEvents(Collection<Integer> eventIds) {
+        if (eventIds.isEmpty()) return;
+        String placeholders = String.join(", ", Collections.nCopies(eventIds.size(), "?"));
+        jdbcTemplate.queryForList(String.format(LOCK_EVENTS, placeholders), Integer.class, eventIds.toArray());
+    }
+
+    private Map<Integer, Integer> countAttendees(Collection<Integer> eventIds) {
+        Map<Integer, Integer> counts = new HashMap<>();
+        if (eventIds.isEmpty()) return counts;
+        String placeholders = String.join(", ", Collections.nCopies(eventIds.size(), "?"));
+        jdbcTemplate.query(String.format(COUNT_ATTENDEES, placeholders),
+                rs -> { counts.put(rs.getInt(1), rs.getInt(2)); }, eventIds.toArray());
+        return counts;
+    }
+}
@@ -0,0 +1,88 @@
+package com.dogginer.dog.repository;
+
+import com.dogginer.dog.model.Client;
+import com.dogginer.dog.model.Event;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.Instant;
+import java.util.List;
+
+@Repository
+public class JdbcBulkInsertRepository implements IBulkInsertRepository {
+
+    private static final String INSERT_EVENT = "INSERT INTO events " +
+            "(title, description, date, image_url, price, capacity, version, updated_at) " +
+            "VALUES (?, ?, ?, ?, ?, ?, 0, ?)";
+    private static final String INSERT_CLIENT = "INSERT INTO clients " +
+            "(username, email, password, version, updated_at) VALUES (?, ?, ?, 0, ?)";
+
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired public JdbcBulkInsertRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public void insertEvents(List<Event> events) {
+        Timestamp now = Timestamp.from(Instant.now());
+        List<Integer> ids = batchInsert(INSERT_EVENT, "event_id", events.size(), (ps, i) -> {
+            Event event = events.get(i);
+            ps.setString(1, event.getTitle());
+            ps.setString(2, event.getDescription());
+            ps.setObject(3, event.getDate(), Types.TIMESTAMP);
+            ps.setString(4, event.getImageUrl());
+            ps.setObject(5, event.getPrice(), Types.DOUBLE);
+            ps.setObject(6, event.getCapacity(), Types.INTEGER);
+            ps.setTimestamp(7, now);
+        });
+        for (int i = 0; i < events.size(); i++) events.get(i).setEventId(ids.get(i));
+    }
+
+    @Override
+    public void insertClients(List<Client> clients) {
+        Timestamp now = Timestamp.from(Instant.now());
+        List<Integer> ids = batchInsert(INSERT_CLIENT, "client_id", clients.size(), (ps, i) -> {
+            Client client = clients.get(i);
+            ps.setString(1, client.getUsername());
+            ps.setString(2, client.getEmail());
+            ps.setString(3, client.getPassword());
+            ps.setTimestamp(4, now);
+        });
+        for (int i = 0; i < clients.size(); i++) clients.get(i).setClientId(ids.get(i));
+    }
+
+    // runs a batch and reads back the generated ids, in the order of the rows
+    private List<Integer> batchInsert(String sql, String idColumn, int size, RowSetter setter) {
+        KeyHolder keyHolder = new GeneratedKeyHolder();
+        jdbcTemplate.batchUpdate(con -> con.prepareStatement(sql, new String[] {idColumn}),
+                new BatchPreparedStatementSetter() {
+                    @Override
+                    public void setValues(PreparedStatement ps, int i) throws SQLException {
+                        setter.setValues(ps, i);
+                    }
+
+                    @Override
+                    public int getBatchSize() {
+                        return size;
+                    }
+                }, keyHolder);
+        // the key column is named after the id column by H2 and GENERATED_KEY by MySQL, so it is read by position
+        return keyHolder.getKeyList().stream()
+                .map(keys -> ((Number) keys.values().iterator().next()).intValue())
+                .toList();
+    }
+
+    @FunctionalInterface
+    private interface RowSetter {
+        void setValues(PreparedStatement ps, int i) throws SQLException;
+    }
+}
@@ -0,0 +1,192 @@
+package com.dogginer.dog.search;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+
+/**
+ * In-memory index of a table that is built in the background when the application starts and
+ * kept up to date by the writes, which are applied once their transaction commits.
+ * Writes that commit during a rebuild are replayed onto the new index before it replaces the old one,
+ * so they are never lost.
+ * @param <T> the indexed entity
+ * @param <I> the index
+ */
+abstract class AbstractRebuildableIndex<T, I> {
+    private static final Logger logger = LoggerFactory.getLogger(AbstractRebuildableIndex.class);
+
+    private final String name;
+    private final TransactionTemplate readOnlyTransaction;
+    private final ExecutorService rebuilder;
+    private final boolean rebuildOnStartup;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private volatile I index;
+    private volatile boolean ready;
+    // guards the swap and the pending changes; a lock rather than a monitor, because writers wait on
+    // the index locks while holding it, which would pin the carrier of a virtual request thread
+    private final ReentrantLock changeLock = new ReentrantLock();
+    // changes committed while a rebuild runs, by id, null values are removals
+    private Map<Integer, T> pendingChanges;
+
+    protected AbstractRebuildableIndex(String name, PlatformTransactionManager transactionManager,
+                                       boolean rebuildOnStartup) {
+        this.name = name;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.rebuilder = Executors.newSingleThreadExecutor(new CustomizableThreadFactory(name + "-rebuild-"));
+        this.rebuildOnStartup = rebuildOnStartup;
+        this.index = newIndex();
+    }
+
+    /**
+     * @return an empty index
+     */
+    protected abstract I newIndex();
+
+    /**
+     * @return every row of the table, read within a read-only transaction
+     */
+    protected abstract Stream<T> streamAll();
+
+    /**
+     * Adds a row to an index, replacing its previous version
+     */
+    protected abstract void put(I index, T row);
+
+    /**
+     * Removes a row from an index
+     */
+    protected abstract void remove(I index, int id);
+
+    /**
+     * Adds a row to an index being rebuilt, where it can't be present yet
+     */
+    protected void load(I index, T row) {
+        put(index, row);
+    }
+
+    /**
+     * Completes an index once every row has been loaded, before the pending changes are applied
+     */
+    protected void loaded(I index) {
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        if (rebuildOnStartup) rebuild();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        rebuilder.shutdownNow();
+    }
+
+    /**
+     * @return true once the index has been built, lookups before that would miss rows
+     */
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * Builds a new index from the table in the background and swaps it in when done
+     * @return the future of the rebuild
+     */
+    public Future<?> rebuild() {
+        return rebuilder.submit(() -> {
+            changeLock.lock();
+            try {
+                pendingChanges = new LinkedHashMap<>();
+            } finally {
+                changeLock.unlock();
+            }
+            try {
+                I rebuilt = newIndex();
+                readOnlyTransaction.executeWithoutResult(status -> {
+                    try (Stream<T> rows = streamAll()) {
+                        rows.forEach(row -> {
+                            load(rebuilt, row);
+                            entityManager.detach(row);
+                        });
+                    }
+                });
+                loaded(rebuilt);
+                changeLock.lock();
+                try {
+                    pendingChanges.forEach((id, row) -> apply(rebuilt, id, row));
+                    index = rebuilt;
+                    ready = true;
+                } finally {
+                    changeLock.unlock();
+                }
+                logger.info("Index {} rebuilt", name);
+            } catch (RuntimeException e) {
+                logger.error("Index " + name + " rebuild failed", e);
+            } finally {
+                changeLock.lock();
+                try {
+                    pendingChanges = null;
+                } finally {
+                    changeLock.unlock();
+                }
+            }
+        });
+    }
+
+    protected I index() {
+        return index;
+    }
+
+    /**
+     * Applies a change once the running transaction commits, or now if there is none
+     * @param id the id of the row
+     * @param row a snapshot of the indexed fields of the row, null if it was deleted
+     */
+    protected void changeAfterCommit(int id, T row) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    change(id, row);
+                }
+            });
+        } else {
+            change(id, row);
+        }
+    }
+
+    private void change(int id, T row) {
+        changeLock.lock();
+        try {
+            if (pendingChanges != null) pendingChanges.put(id, row);
+            apply(index, id, row);
+        } finally {
+            changeLock.unlock();
+        }
+    }
+
+    private void apply(I index, int id, T row) {
+        if (row == null) remove(index, id);
+        else put(index, row);
+    }
+}
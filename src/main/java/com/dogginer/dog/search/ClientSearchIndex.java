@@ -0,0 +1,88 @@
+package com.dogginer.dog.search;
+
+import com.dogginer.dog.model.Client;
+import com.dogginer.dog.repository.IClientRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Prefix index of the client usernames.
+ * It is built in the background when the application starts and kept up to date by the client writes.
+ */
+@Component
+public class ClientSearchIndex extends AbstractRebuildableIndex<Client, PrefixIndex> {
+
+    private final IClientRepository clientRepository;
+
+    @Autowired public ClientSearchIndex(IClientRepository clientRepository,
+                                        PlatformTransactionManager transactionManager,
+                                        @Value("${dogginer.search.rebuild-on-startup:true}") boolean rebuildOnStartup) {
+        super("client-search", transactionManager, rebuildOnStartup);
+        this.clientRepository = clientRepository;
+    }
+
+    /**
+     * Finds the clients whose username starts with a prefix, ignoring case
+     * @param prefix the typed prefix
+     * @param limit the maximum number of matches
+     * @return the ids and usernames of the matching clients in alphabetical order
+     */
+    public List<PrefixIndex.Match> suggest(String prefix, int limit) {
+        return index().suggest(prefix, limit);
+    }
+
+    /**
+     * Indexes the username of a client once the running transaction commits, or now if there is none
+     * @param client the created or updated client
+     */
+    public void index(Client client) {
+        // only the indexed fields are kept, never the password hash
+        Client indexed = new Client();
+        indexed.setClientId(client.getClientId());
+        indexed.setUsername(client.getUsername());
+        changeAfterCommit(client.getClientId(), indexed);
+    }
+
+    /**
+     * Removes a client once the running transaction commits, or now if there is none
+     * @param clientId the id of the deleted client
+     */
+    public void remove(int clientId) {
+        changeAfterCommit(clientId, null);
+    }
+
+    @Override
+    protected PrefixIndex newIndex() {
+        return new PrefixIndex();
+    }
+
+    @Override
+    protected Stream<Client> streamAll() {
+        return clientRepository.streamAll();
+    }
+
+    @Override
+    protected void put(PrefixIndex index, Client client) {
+        index.put(client.getClientId(), client.getUsername());
+    }
+
+    @Override
+    protected void remove(PrefixIndex index, int clientId) {
+        index.remove(clientId);
+    }
+
+    @Override
+    protected void load(PrefixIndex index, Client client) {
+        index.append(client.getClientId(), client.getUsername());
+    }
+
+    @Override
+    protected void loaded(PrefixIndex index) {
+        index.sort();
+    }
+}
@@ -0,0 +1,106 @@
+package com.dogginer.dog.search;
+
+import com.dogginer.dog.model.Event;
+import com.dogginer.dog.repository.IEventRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Full-text index of the title and description of the events, and prefix index of their titles.
+ * It is built in the background when the application starts and kept up to date by the event writes.
+ */
+@Component
+public class EventSearchIndex extends AbstractRebuildableIndex<Event, EventSearchIndex.Indexes> {
+
+    private final IEventRepository eventRepository;
+
+    @Autowired public EventSearchIndex(IEventRepository eventRepository,
+                                       PlatformTransactionManager transactionManager,
+                                       @Value("${dogginer.search.rebuild-on-startup:true}") boolean rebuildOnStartup) {
+        super("event-search", transactionManager, rebuildOnStartup);
+        this.eventRepository = eventRepository;
+    }
+
+    /**
+     * Finds the events whose title or description contain any of the terms of a query
+     * @param query the text to search for
+     * @param limit the maximum number of hits
+     * @return the ids and scores of the matching events, best matches first
+     */
+    public List<InvertedIndex.Hit> search(String query, int limit) {
+        return index().text.search(query, limit);
+    }
+
+    /**
+     * Finds the events whose title starts with a prefix, ignoring case
+     * @param prefix the typed prefix
+     * @param limit the maximum number of matches
+     * @return the ids and titles of the matching events in alphabetical order
+     */
+    public List<PrefixIndex.Match> suggest(String prefix, int limit) {
+        return index().titles.suggest(prefix, limit);
+    }
+
+    /**
+     * Indexes the current state of an event once the running transaction commits, or now if there is none
+     * @param event the created or updated event
+     */
+    public void index(Event event) {
+        Event indexed = new Event();
+        indexed.setEventId(event.getEventId());
+        indexed.setTitle(event.getTitle());
+        indexed.setDescription(event.getDescription());
+        changeAfterCommit(event.getEventId(), indexed);
+    }
+
+    /**
+     * Removes an event once the running transaction commits, or now if there is none
+     * @param eventId the id of the deleted event
+     */
+    public void remove(int eventId) {
+        changeAfterCommit(eventId, null);
+    }
+
+    @Override
+    protected Indexes newIndex() {
+        return new Indexes();
+    }
+
+    @Override
+    protected Stream<Event> streamAll() {
+        return eventRepository.streamAll();
+    }
+
+    @Override
+    protected void put(Indexes index, Event event) {
+        index.text.put(event.getEventId(), event.getTitle(), event.getDescription());
+        index.titles.put(event.getEventId(), event.getTitle());
+    }
+
+    @Override
+    protected void remove(Indexes index, int eventId) {
+        index.text.remove(eventId);
+        index.titles.remove(eventId);
+    }
+
+    @Override
+    protected void load(Indexes index, Event event) {
+        index.text.put(event.getEventId(), event.getTitle(), event.getDescription());
+        index.titles.append(event.getEventId(), event.getTitle());
+    }
+
+    @Override
+    protected void loaded(Indexes index) {
+        index.titles.sort();
+    }
+
+    static final class Indexes {
+        private final InvertedIndex text = new InvertedIndex();
+        private final PrefixIndex titles = new PrefixIndex();
+    }
+}
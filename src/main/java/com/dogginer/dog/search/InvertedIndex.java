@@ -0,0 +1,266 @@
+package com.dogginer.dog.search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory inverted index over a title and a description, ranked with BM25.
+ * Every term keeps its postings as parallel primitive arrays sorted by document id, so that a query
+ * is a merge of a few sorted arrays without boxing or hashing per posting.
+ * Searches run concurrently, writes are exclusive.
+ */
+public final class InvertedIndex {
+    // BM25 term frequency saturation and length normalisation
+    private static final float K1 = 1.2f;
+    private static final float B = 0.75f;
+    // a term in the title counts as this many occurrences in the description
+    static final int TITLE_WEIGHT = 2;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<String, Postings> postings = new HashMap<>();
+    private final Map<Integer, Document> documents = new HashMap<>();
+    private long totalLength;
+
+    /**
+     * Adds a document, replacing the previous version of it if there is one
+     * @param id the document id
+     * @param title the title, may be null
+     * @param description the description, may be null
+     */
+    public void put(int id, String title, String description) {
+        Map<String, Integer> frequencies = new LinkedHashMap<>();
+        for (String term : tokenize(title)) frequencies.merge(term, TITLE_WEIGHT, Integer::sum);
+        for (String term : tokenize(description)) frequencies.merge(term, 1, Integer::sum);
+        int length = 0;
+        for (int frequency : frequencies.values()) length += frequency;
+
+        lock.writeLock().lock();
+        try {
+            removeDocument(id);
+            for (Map.Entry<String, Integer> entry : frequencies.entrySet()) {
+                postings.computeIfAbsent(entry.getKey(), term -> new Postings())
+                        .add(id, entry.getValue(), length);
+            }
+            documents.put(id, new Document(frequencies.keySet().toArray(new String[0]), length));
+            totalLength += length;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Removes a document, if it is indexed
+     * @param id the document id
+     */
+    public void remove(int id) {
+        lock.writeLock().lock();
+        try {
+            removeDocument(id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Finds the documents that contain any of the terms of a query, best matches first
+     * @param query the text to search for
+     * @param limit the maximum number of hits
+     * @return the hits ordered by descending score, then ascending id
+     */
+    public List<Hit> search(String query, int limit) {
+        Set<String> terms = new LinkedHashSet<>(tokenize(query));
+        if (terms.isEmpty() || limit < 1) return Collections.emptyList();
+
+        lock.readLock().lock();
+        try {
+            int documentCount = documents.size();
+            if (documentCount == 0) return Collections.emptyList();
+            float averageLength = (float) totalLength / documentCount;
+
+            Postings[] lists = new Postings[terms.size()];
+            float[] idfs = new float[terms.size()];
+            int count = 0;
+            for (String term : terms) {
+                Postings list = postings.get(term);
+                if (list == null) continue;
+                lists[count] = list;
+                idfs[count++] = idf(documentCount, list.size);
+            }
+            return topHits(Arrays.copyOf(lists, count), idfs, averageLength, limit);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @return the number of indexed documents
+     */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return documents.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Splits a text into lower case terms of letters and digits
+     * @param text the text, may be null
+     * @return the terms in the order they appear
+     */
+    static List<String> tokenize(String text) {
+        if (text == null || text.isEmpty()) return Collections.emptyList();
+        List<String> terms = new ArrayList<>();
+        int start = -1;
+        for (int i = 0; i <= text.length(); i++) {
+            boolean termChar = i < text.length() && Character.isLetterOrDigit(text.charAt(i));
+            if (termChar && start < 0) start = i;
+            if (!termChar && start >= 0) {
+                terms.add(text.substring(start, i).toLowerCase(Locale.ROOT));
+                start = -1;
+            }
+        }
+        return terms;
+    }
+
+    // merges the postings by document id, summing the score of every document over the query terms
+    private static List<Hit> topHits(Postings[] lists, float[] idfs, float averageLength, int limit) {
+        PriorityQueue<Hit> top = new PriorityQueue<>(limit + 1, Hit.WORST_FIRST);
+        int[] positions = new int[lists.length];
+        while (true) {
+            int id = Integer.MAX_VALUE;
+            for (int i = 0; i < lists.length; i++) {
+                if (positions[i] < lists[i].size) id = Math.min(id, lists[i].ids[positions[i]]);
+            }
+            if (id == Integer.MAX_VALUE) break;
+
+            float score = 0;
+            for (int i = 0; i < lists.length; i++) {
+                Postings list = lists[i];
+                int position = positions[i];
+                if (position < list.size && list.ids[position] == id) {
+                    score += idfs[i] * termScore(list.frequencies[position], list.lengths[position], averageLength);
+                    positions[i]++;
+                }
+            }
+            if (top.size() < limit) {
+                top.add(new Hit(id, score));
+            } else if (score > top.peek().score) {
+                top.poll();
+                top.add(new Hit(id, score));
+            }
+        }
+
+        Hit[] hits = top.toArray(new Hit[0]);
+        Arrays.sort(hits, Hit.WORST_FIRST.reversed());
+        return Arrays.asList(hits);
+    }
+
+    private static float idf(int documentCount, int documentFrequency) {
+        return (float) Math.log(1 + (documentCount - documentFrequency + 0.5) / (documentFrequency + 0.5));
+    }
+
+    private static float termScore(int frequency, int length, float averageLength) {
+        return frequency * (K1 + 1) / (frequency + K1 * (1 - B + B * length / averageLength));
+    }
+
+    private void removeDocument(int id) {
+        Document document = documents.remove(id);
+        if (document == null) return;
+        for (String term : document.terms) {
+            Postings list = postings.get(term);
+            if (list.remove(id) && list.size == 0) postings.remove(term);
+        }
+        totalLength -= document.length;
+    }
+
+    /**
+     * A matching document and its relevance
+     */
+    public static final class Hit {
+        // lower scores first, and among equal scores the higher ids, which rank last
+        static final Comparator<Hit> WORST_FIRST = Comparator.comparingDouble((Hit hit) -> hit.score)
+                .thenComparing(Comparator.comparingInt((Hit hit) -> hit.id).reversed());
+
+        private final int id;
+        private final float score;
+
+        Hit(int id, float score) {
+            this.id = id;
+            this.score = score;
+        }
+
+        public int getId() {
+            return id;
+        }
+
+        public float getScore() {
+            return score;
+        }
+    }
+
+    private static final class Document {
+        private final String[] terms;
+        private final int length;
+
+        private Document(String[] terms, int length) {
+            this.terms = terms;
+            this.length = length;
+        }
+    }
+
+    // document ids, term frequencies and document lengths of a term, sorted by document id
+    private static final class Postings {
+        private int[] ids = new int[4];
+        private int[] frequencies = new int[4];
+        private int[] lengths = new int[4];
+        private int size;
+
+        private void add(int id, int frequency, int length) {
+            int position = Arrays.binarySearch(ids, 0, size, id);
+            if (position >= 0) {
+                frequencies[position] = frequency;
+                lengths[position] = length;
+                return;
+            }
+            position = -position - 1;
+            if (size == ids.length) {
+                int capacity = size + (size >> 1);
+                ids = Arrays.copyOf(ids, capacity);
+                frequencies = Arrays.copyOf(frequencies, capacity);
+                lengths = Arrays.copyOf(lengths, capacity);
+            }
+            // ids mostly grow, so this is usually an append
+            System.arraycopy(ids, position, ids, position + 1, size - position);
+            System.arraycopy(frequencies, position, frequencies, position + 1, size - position);
+            System.arraycopy(lengths, position, lengths, position + 1, size - position);
+            ids[position] = id;
+            frequencies[position] = frequency;
+            lengths[position] = length;
+            size++;
+        }
+
+        private boolean remove(int id) {
+            int position = Arrays.binarySearch(ids, 0, size, id);
+            if (position < 0) return false;
+            System.arraycopy(ids, position + 1, ids, position, size - position - 1);
+            System.arraycopy(frequencies, position + 1, frequencies, position, size - position - 1);
+            System.arraycopy(lengths, position + 1, lengths, position, size - position - 1);
+            size--;
+            return true;
+        }
+    }
+}
@@ -0,0 +1,202 @@
+package com.dogginer.dog.search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory prefix index over a unique text column, for search-as-you-type.
+ * The lower cased keys are kept sorted in an array next to the original values and the ids,
+ * so a lookup is a binary search followed by a scan of the matching run. Keys that are already
+ * lower case share the instance of their value.
+ * Lookups run concurrently, writes are exclusive and shift the arrays, which suits columns
+ * that are read far more often than they are written.
+ */
+public final class PrefixIndex {
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private String[] keys = new String[16];
+    private String[] values = new String[16];
+    private int[] ids = new int[16];
+    private int size;
+
+    /**
+     * Adds a value, replacing the previous value of the same id if there is one
+     * @param id the id of the row
+     * @param value the indexed text, null only removes the previous value
+     */
+    public void put(int id, String value) {
+        lock.writeLock().lock();
+        try {
+            removeId(id);
+            if (value == null) return;
+            String key = value.toLowerCase(Locale.ROOT);
+            int position = insertionPoint(key, id);
+            if (size == ids.length) grow();
+            System.arraycopy(keys, position, keys, position + 1, size - position);
+            System.arraycopy(values, position, values, position + 1, size - position);
+            System.arraycopy(ids, position, ids, position + 1, size - position);
+            keys[position] = key;
+            values[position] = value;
+            ids[position] = id;
+            size++;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Appends values of new ids without keeping the order, for loading a new index in bulk.
+     * {@link #sort()} must be called before the index is used
+     * @param id the id of the row, not indexed yet
+     * @param value the indexed text, may be null
+     */
+    void append(int id, String value) {
+        if (value == null) return;
+        lock.writeLock().lock();
+        try {
+            if (size == ids.length) grow();
+            keys[size] = value.toLowerCase(Locale.ROOT);
+            values[size] = value;
+            ids[size] = id;
+            size++;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Sorts the appended values, once instead of shifting the arrays for every value
+     */
+    void sort() {
+        lock.writeLock().lock();
+        try {
+            Integer[] order = new Integer[size];
+            for (int i = 0; i < size; i++) order[i] = i;
+            Arrays.sort(order, (a, b) -> {
+                int comparison = keys[a].compareTo(keys[b]);
+                return comparison != 0 ? comparison : Integer.compare(ids[a], ids[b]);
+            });
+            String[] sortedKeys = new String[keys.length];
+            String[] sortedValues = new String[values.length];
+            int[] sortedIds = new int[ids.length];
+            for (int i = 0; i < size; i++) {
+                sortedKeys[i] = keys[order[i]];
+                sortedValues[i] = values[order[i]];
+                sortedIds[i] = ids[order[i]];
+            }
+            keys = sortedKeys;
+            values = sortedValues;
+            ids = sortedIds;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Removes the value of an id, if it is indexed
+     * @param id the id of the row
+     */
+    public void remove(int id) {
+        lock.writeLock().lock();
+        try {
+            removeId(id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Finds the values starting with a prefix, ignoring case
+     * @param prefix the typed prefix
+     * @param limit the maximum number of matches
+     * @return the matches in alphabetical order
+     */
+    public List<Match> suggest(String prefix, int limit) {
+        if (prefix == null || prefix.isEmpty() || limit < 1) return Collections.emptyList();
+        String key = prefix.toLowerCase(Locale.ROOT);
+
+        lock.readLock().lock();
+        try {
+            List<Match> matches = new ArrayList<>(Math.min(limit, 16));
+            for (int i = insertionPoint(key, Integer.MIN_VALUE); i < size && matches.size() < limit; i++) {
+                if (!keys[i].startsWith(key)) break;
+                matches.add(new Match(ids[i], values[i]));
+            }
+            return matches;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @return the number of indexed values
+     */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return size;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // first position whose (key, id) is not below the given one
+    private int insertionPoint(String key, int id) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            int comparison = keys[middle].compareTo(key);
+            if (comparison < 0 || comparison == 0 && ids[middle] < id) low = middle + 1;
+            else high = middle;
+        }
+        return low;
+    }
+
+    // the ids are not sorted, but a scan of the int array is cheap next to the shift that follows
+    private void removeId(int id) {
+        for (int i = 0; i < size; i++) {
+            if (ids[i] != id) continue;
+            System.arraycopy(keys, i + 1, keys, i, size - i - 1);
+            System.arraycopy(values, i + 1, values, i, size - i - 1);
+            System.arraycopy(ids, i + 1, ids, i, size - i - 1);
+            size--;
+            keys[size] = null;
+            values[size] = null;
+            return;
+        }
+    }
+
+    private void grow() {
+        int capacity = size + (size >> 1);
+        keys = Arrays.copyOf(keys, capacity);
+        values = Arrays.copyOf(values, capacity);
+        ids = Arrays.copyOf(ids, capacity);
+    }
+
+    /**
+     * A value starting with the prefix and the id of its row
+     */
+    public static final class Match {
+        private final int id;
+        private final String value;
+
+        Match(int id, String value) {
+            this.id = id;
+            this.value = value;
+        }
+
+        public int getId() {
+            return id;
+        }
+
+        public String getValue() {
+            return value;
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package com.dogginer.dog.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.security.authentication.AuthenticationProvider;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.AuthenticationException;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.time.Duration;
+
+/**
+ * Authentication provider that remembers verified credentials for a short time, so that
+ * repeated HTTP Basic requests don't pay a BCrypt verification each.
+ * The cache holds, per username, an HMAC of the last verified password under a key that
+ * only lives in this process, never the password itself. Failed attempts are not cached.
+ */
+public class CachingAuthenticationProvider implements AuthenticationProvider {
+    private static final String HMAC_ALGORITHM = "HmacSHA256";
+
+    private final AuthenticationProvider delegate;
+    private final SecretKeySpec key;
+    private final Cache<String, VerifiedCredentials> cache;
+
+    public CachingAuthenticationProvider(AuthenticationProvider delegate, Duration ttl, long maximumSize) {
+        this.delegate = delegate;
+        byte[] secret = new byte[32];
+        new SecureRandom().nextBytes(secret);
+        this.key = new SecretKeySpec(secret, HMAC_ALGORITHM);
+        this.cache = Caffeine.newBuilder()
+                .expireAfterWrite(ttl)
+                .maximumSize(maximumSize)
+                .recordStats()
+                .build();
+    }
+
+    /**
+     * Authenticate from the cache when the presented credentials match the last verified ones,
+     * otherwise delegate and cache the result
+     * @param authentication the presented username and password
+     * @return the authenticated token
+     * @throws AuthenticationException if the delegate rejects the credentials
+     */
+    @Override
+    public Authentication authenticate(Authentication authentication) throws AuthenticationException {
+        String username = authentication.getName();
+        Object credentials = authentication.getCredentials();
+        if (username == null || credentials == null) return delegate.authenticate(authentication);
+
+        byte[] digest = digest(username, credentials.toString());
+        VerifiedCredentials verified = cache.getIfPresent(username);
+        if (verified != null && MessageDigest.isEqual(verified.digest, digest)) return verified.authentication;
+
+        Authentication result = delegate.authenticate(authentication);
+        if (result != null && result.isAuthenticated()) cache.put(username, new VerifiedCredentials(digest, result));
+        return result;
+    }
+
+    @Override
+    public boolean supports(Class<?> authentication) {
+        return UsernamePasswordAuthenticationToken.class.isAssignableFrom(authentication)
+                && delegate.supports(authentication);
+    }
+
+    /**
+     * Forget the verified credentials of a user, e.g. after a password change or deletion
+     * @param username the username of the user
+     */
+    public void evict(String username) {
+        cache.invalidate(username);
+    }
+
+    /**
+     * Forget all verified credentials
+     */
+    public void evictAll() {
+        cache.invalidateAll();
+    }
+
+    Cache<String, VerifiedCredentials> getCache() {
+        return cache;
+    }
+
+    private byte[] digest(String username, String password) {
+        try {
+            Mac mac = Mac.getInstance(HMAC_ALGORITHM);
+            mac.init(key);
+            mac.update(username.getBytes(StandardCharsets.UTF_8));
+            mac.update((byte) 0);
+            return mac.doFinal(password.getBytes(StandardCharsets.UTF_8));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(HMAC_ALGORITHM + " is not available", e);
+        }
+    }
+
+    static final class VerifiedCredentials {
+        private final byte[] digest;
+        private final Authentication authentication;
+
+        private VerifiedCredentials(byte[] digest, Authentication authentication) {
+            this.digest = digest;
+            this.authentication = authentication;
+        }
+    }
+}
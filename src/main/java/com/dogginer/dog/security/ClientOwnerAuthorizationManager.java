@@ -0,0 +1,48 @@
+package com.dogginer.dog.security;
+
+import org.springframework.security.authentication.AuthenticationTrustResolver;
+import org.springframework.security.authentication.AuthenticationTrustResolverImpl;
+import org.springframework.security.authorization.AuthorizationDecision;
+import org.springframework.security.authorization.AuthorizationManager;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.web.access.intercept.RequestAuthorizationContext;
+
+import java.util.function.Supplier;
+
+/**
+ * Grants access to the resources of a client, matched with a {clientId} path variable, to admins
+ * and to the client itself. Clients are recognised by the client id of their {@link ClientUser} principal,
+ * which is cached with the credentials, so no query is made to authorize a request.
+ */
+public class ClientOwnerAuthorizationManager implements AuthorizationManager<RequestAuthorizationContext> {
+    public static final String CLIENT_ID_VARIABLE = "clientId";
+    private static final String ADMIN_AUTHORITY = "ROLE_" + DogginerSecurityConfiguration.ADMIN_ROLE;
+
+    private final AuthenticationTrustResolver trustResolver = new AuthenticationTrustResolverImpl();
+
+    /**
+     * @param authentication the authenticated user
+     * @param context the request, with the client id among its path variables
+     * @return granted if the user is an admin or the client of the path
+     */
+    @Override
+    public AuthorizationDecision check(Supplier<Authentication> authentication, RequestAuthorizationContext context) {
+        Authentication user = authentication.get();
+        if (user == null || !user.isAuthenticated() || trustResolver.isAnonymous(user))
+            return new AuthorizationDecision(false);
+        if (user.getAuthorities().stream().anyMatch(a -> ADMIN_AUTHORITY.equals(a.getAuthority())))
+            return new AuthorizationDecision(true);
+
+        Integer clientId = parseClientId(context.getVariables().get(CLIENT_ID_VARIABLE));
+        return new AuthorizationDecision(clientId != null && user.getPrincipal() instanceof ClientUser
+                && ((ClientUser) user.getPrincipal()).getClientId() == clientId);
+    }
+
+    private Integer parseClientId(String clientId) {
+        try {
+            return clientId == null ? null : Integer.valueOf(clientId);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+}
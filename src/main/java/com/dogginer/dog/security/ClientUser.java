@@ -0,0 +1,40 @@
+package com.dogginer.dog.security;
+
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.util.Collection;
+
+/**
+ * Principal of a client, carrying its client id, so that requests on its own resources are
+ * authorized without looking the client up again.
+ */
+public class ClientUser extends User {
+    private static final long serialVersionUID = 1L;
+
+    private final int clientId;
+
+    public ClientUser(int clientId, String username, String password,
+                      Collection<? extends GrantedAuthority> authorities) {
+        super(username, password, authorities);
+        this.clientId = clientId;
+    }
+
+    public int getClientId() {
+        return clientId;
+    }
+
+    /**
+     * Copy a user with another password, keeping the client id of clients
+     * @param user the user to be copied
+     * @param password the password of the copy
+     * @return the copy
+     */
+    static UserDetails copyOf(UserDetails user, String password) {
+        if (user instanceof ClientUser)
+            return new ClientUser(((ClientUser) user).getClientId(), user.getUsername(), password,
+                    user.getAuthorities());
+        return User.withUserDetails(user).password(password).build();
+    }
+}
@@ -0,0 +1,85 @@
+package com.dogginer.dog.security;
+
+import com.dogginer.dog.repository.IClientRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.core.userdetails.UserCache;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+
+/**
+ * Loads the users of the dogginer: the built-in users first, then the clients in the database.
+ * Clients are granted the CLIENT role and loaded as {@link ClientUser}s, which carry their client id.
+ * Password hashes are rewritten when the authentication provider upgrades them after a successful login.
+ */
+public class ClientUserDetailsService implements UserDetailsService, UserDetailsPasswordService {
+    public static final String CLIENT_ROLE = "CLIENT";
+    private static final Logger logger = LoggerFactory.getLogger(ClientUserDetailsService.class);
+
+    private final IClientRepository clientRepository;
+    private final UserDetailsService builtInUsers;
+    private final UserCache userCache;
+
+    public ClientUserDetailsService(IClientRepository clientRepository, UserDetailsService builtInUsers,
+                                    UserCache userCache) {
+        this.clientRepository = clientRepository;
+        this.builtInUsers = builtInUsers;
+        this.userCache = userCache;
+    }
+
+    /**
+     * Load a user by username
+     * @param username the username
+     * @return the user details with the password hash and roles
+     * @throws UsernameNotFoundException if neither a built-in user nor a client has that username
+     */
+    @Override
+    public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
+        try {
+            return builtInUsers.loadUserByUsername(username);
+        } catch (UsernameNotFoundException e) {
+            return clientRepository.findCredentialsByUsername(username)
+                    .map(credentials -> new ClientUser(credentials.getClientId(), credentials.getUsername(),
+                            credentials.getPassword(), AuthorityUtils.createAuthorityList("ROLE_" + CLIENT_ROLE)))
+                    .orElseThrow(() -> new UsernameNotFoundException(username));
+        }
+    }
+
+    /**
+     * Store an upgraded password hash
+     * @param user the user that just logged in
+     * @param newPassword the new password hash
+     * @return the user with the new password hash
+     */
+    @Override
+    public UserDetails updatePassword(UserDetails user, String newPassword) {
+        // the cached user still holds the old hash, which would be upgraded again on every login
+        userCache.removeUserFromCache(user.getUsername());
+        if (builtInUsers instanceof UserDetailsPasswordService && isBuiltIn(user.getUsername()))
+            return ((UserDetailsPasswordService) builtInUsers).updatePassword(user, newPassword);
+
+        try {
+            clientRepository.findByUsername(user.getUsername()).ifPresent(client -> {
+                client.setPassword(newPassword);
+                clientRepository.save(client);
+            });
+        } catch (OptimisticLockingFailureException e) {
+            // a concurrent write won, e.g. another login upgrading the same hash, the next login retries
+            logger.debug("Password upgrade of " + user.getUsername() + " skipped after a concurrent update");
+        }
+        return ClientUser.copyOf(user, newPassword);
+    }
+
+    private boolean isBuiltIn(String username) {
+        try {
+            builtInUsers.loadUserByUsername(username);
+            return true;
+        } catch (UsernameNotFoundException e) {
+            return false;
+        }
+    }
+}
@@ -1,22 +1,33 @@
 package com.dogginer.dog.security;
 
+import com.dogginer.dog.repository.IClientRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpMethod;
 import org.springframework.security.config.Customizer;
+import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
+import org.springframework.security.config.annotation.web.configurers.AbstractHttpConfigurer;
 import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserCache;
 import org.springframework.security.core.userdetails.UserDetails;
-import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.provisioning.InMemoryUserDetailsManager;
 import org.springframework.security.web.SecurityFilterChain;
 
+import jakarta.servlet.DispatcherType;
+import java.time.Duration;
+
 @Configuration
 public class DogginerSecurityConfiguration {
+    public static final String ADMIN_ROLE = "ADMIN";
 
     @Bean
-    public BCryptPasswordEncoder pwdEncoder() {
-        return new BCryptPasswordEncoder();
+    public BCryptPasswordEncoder pwdEncoder(@Value("${dogginer.security.bcrypt-strength:10}") int strength) {
+        return new BCryptPasswordEncoder(strength);
     }
 
 //    @Bean
@@ -29,30 +40,70 @@ public class DogginerSecurityConfiguration {
 //    }
 
     @Bean
-    public SecurityFilterChain filterChain(HttpSecurity http) throws Exception{
+    public CachingAuthenticationProvider authenticationProvider(
+            ClientUserDetailsService users, UserCache userCache, BCryptPasswordEncoder pwe, MeterRegistry meterRegistry,
+            @Value("${dogginer.security.credentials-cache.ttl:60s}") Duration ttl,
+            @Value("${dogginer.security.credentials-cache.max-size:10000}") long maximumSize) {
+
+        DaoAuthenticationProvider dao = new DaoAuthenticationProvider();
+        dao.setUserDetailsService(users);
+        dao.setPasswordEncoder(pwe);
+        dao.setUserCache(userCache);
+        // hashes weaker than the configured strength are upgraded on the next successful login
+        dao.setUserDetailsPasswordService(users);
 
-        // define authenticated paths
-        http.authorizeHttpRequests(
-                auth -> auth.anyRequest().authenticated()
+        CachingAuthenticationProvider provider = new CachingAuthenticationProvider(dao, ttl, maximumSize);
+        CaffeineCacheMetrics.monitor(meterRegistry, provider.getCache(), "credentials");
+        return provider;
+    }
+
+    @Bean
+    public SecurityFilterChain filterChain(HttpSecurity http, CachingAuthenticationProvider provider) throws Exception{
+        ClientOwnerAuthorizationManager clientOwner = new ClientOwnerAuthorizationManager();
+
+        // define authorized paths: clients read the events and manage their own account and attendances,
+        // everything else, including the actuator, the imports and the exports, is for admins
+        http.authorizeHttpRequests(auth -> auth
+                // asynchronous results and errors are dispatched again for a request that was already authorized
+                .dispatcherTypeMatchers(DispatcherType.ASYNC, DispatcherType.ERROR).permitAll()
+                .requestMatchers(HttpMethod.GET, "/v1/events/export", "/v1/events/{eventId}/attendees")
+                        .hasRole(ADMIN_ROLE)
+                .requestMatchers(HttpMethod.GET, "/v1/events", "/v1/events/**").authenticated()
+                .requestMatchers(HttpMethod.POST, "/v1/events/{eventId}/attendees/{clientId}").access(clientOwner)
+                .requestMatchers(HttpMethod.DELETE, "/v1/events/{eventId}/attendees/{clientId}").access(clientOwner)
+                .requestMatchers(HttpMethod.GET, "/v1/clients/export", "/v1/clients/suggest").hasRole(ADMIN_ROLE)
+                .requestMatchers("/v1/clients/{clientId}", "/v1/clients/{clientId}/**").access(clientOwner)
+                .anyRequest().hasRole(ADMIN_ROLE)
         );
 
-        // define authentication config
-        http.httpBasic();
+        // define authentication config, verified credentials are cached to skip BCrypt
+        http.authenticationProvider(provider);
+        http.httpBasic(Customizer.withDefaults());
 
         // disable csrf
-        http.csrf().disable();
+        http.csrf(AbstractHttpConfigurer::disable);
 
         return http.build();
     }
     @Bean
-    public UserDetailsService users(BCryptPasswordEncoder pwe) {
+    public UserCache userCache(MeterRegistry meterRegistry,
+                               @Value("${dogginer.security.user-cache.ttl:5m}") Duration ttl,
+                               @Value("${dogginer.security.user-cache.max-size:10000}") long maximumSize) {
+        CaffeineUserCache userCache = new CaffeineUserCache(ttl, maximumSize);
+        CaffeineCacheMetrics.monitor(meterRegistry, userCache.getCache(), "principals");
+        return userCache;
+    }
+
+    @Bean
+    public ClientUserDetailsService users(BCryptPasswordEncoder pwe, IClientRepository clientRepository,
+                                          UserCache userCache) {
 
         UserDetails admin = User.builder()
                 .username("admin")
                 .password(pwe.encode("admin123"))
-                .roles("ADMIN")
+                .roles(ADMIN_ROLE)
                 .build();
-        return new InMemoryUserDetailsManager(admin);
+        return new ClientUserDetailsService(clientRepository, new InMemoryUserDetailsManager(admin), userCache);
     }
 
 }
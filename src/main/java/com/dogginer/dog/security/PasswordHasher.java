@@ -0,0 +1,112 @@
+package com.dogginer.dog.security;
+
+import com.dogginer.dog.exception.ServiceUnavailableException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PreDestroy;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Hashes passwords on a dedicated, bounded pool, so that BCrypt doesn't tie up request threads.
+ * When every hashing thread is busy and the queue is full, new work is rejected instead of queued,
+ * and the request fails fast with 503.
+ * Queue depth is published by the executor metrics of the "password-hashing" pool, hash latency
+ * by the dogginer.password.hash timer.
+ * The pool keeps platform threads when requests run on virtual threads: hashing is CPU bound, and
+ * its bounded queue is what sheds the load.
+ */
+@Component
+public class PasswordHasher {
+    public static final String POOL_NAME = "password-hashing";
+
+    private final BCryptPasswordEncoder passwordEncoder;
+    private final ThreadPoolExecutor pool;
+    private final ExecutorService executor;
+    private final Timer hashTimer;
+
+    @Autowired public PasswordHasher(BCryptPasswordEncoder passwordEncoder, MeterRegistry meterRegistry,
+                                     @Value("${dogginer.security.hashing.threads:0}") int threads,
+                                     @Value("${dogginer.security.hashing.queue-capacity:64}") int queueCapacity) {
+        int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        this.passwordEncoder = passwordEncoder;
+        this.pool = new ThreadPoolExecutor(poolSize, poolSize, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), new CustomizableThreadFactory(POOL_NAME + "-"),
+                new ThreadPoolExecutor.AbortPolicy());
+        this.executor = ExecutorServiceMetrics.monitor(meterRegistry, pool, POOL_NAME);
+        this.hashTimer = Timer.builder("dogginer.password.hash")
+                .description("Time spent hashing a password")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Hash a password on the hashing pool
+     * @param rawPassword the password to be hashed
+     * @return a future completed with the hash on a hashing thread
+     * @throws ServiceUnavailableException if the hashing pool is saturated
+     */
+    public CompletableFuture<String> encode(CharSequence rawPassword) {
+        try {
+            return CompletableFuture.supplyAsync(
+                    () -> hashTimer.record(() -> passwordEncoder.encode(rawPassword)), executor);
+        } catch (RejectedExecutionException e) {
+            throw new ServiceUnavailableException("Password hashing is saturated, retry later");
+        }
+    }
+
+    /**
+     * Hash a batch of passwords in parallel, blocking until all are hashed.
+     * The batch is split into one slice per hashing thread, so it never takes more than a task
+     * per thread and leaves the queue to the passwords of single requests
+     * @param rawPasswords the passwords to be hashed
+     * @return the hashes, in the order of the passwords
+     * @throws ServiceUnavailableException if the hashing pool is saturated
+     */
+    public List<String> encodeAll(List<? extends CharSequence> rawPasswords) {
+        int size = rawPasswords.size();
+        int slices = Math.min(pool.getMaximumPoolSize(), size);
+        String[] hashes = new String[size];
+        CompletableFuture<?>[] tasks = new CompletableFuture<?>[slices];
+        try {
+            for (int slice = 0; slice < slices; slice++) {
+                int from = slice * size / slices;
+                int to = (slice + 1) * size / slices;
+                tasks[slice] = CompletableFuture.runAsync(() -> {
+                    for (int i = from; i < to; i++) {
+                        CharSequence rawPassword = rawPasswords.get(i);
+                        hashes[i] = hashTimer.record(() -> passwordEncoder.encode(rawPassword));
+                    }
+                }, executor);
+            }
+        } catch (RejectedExecutionException e) {
+            throw new ServiceUnavailableException("Password hashing is saturated, retry later");
+        }
+
+        try {
+            CompletableFuture.allOf(tasks).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) throw (RuntimeException) e.getCause();
+            throw e;
+        }
+        return Arrays.asList(hashes);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        pool.shutdown();
+    }
+}
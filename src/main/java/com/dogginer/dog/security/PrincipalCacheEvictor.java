@@ -0,0 +1,45 @@
+package com.dogginer.dog.security;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.security.core.userdetails.UserCache;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Forgets the cached principal and verified credentials of a user whose account changed.
+ */
+@Component
+public class PrincipalCacheEvictor {
+
+    private UserCache userCache;
+    private CachingAuthenticationProvider authenticationProvider;
+
+    @Autowired public PrincipalCacheEvictor(UserCache userCache, CachingAuthenticationProvider authenticationProvider) {
+        this.userCache = userCache;
+        this.authenticationProvider = authenticationProvider;
+    }
+
+    /**
+     * Evicts a user now and, if a transaction is active, again once it completes, so that
+     * a concurrent login can't put the pre-commit account back in the cache
+     * @param username the username of the user
+     */
+    public void evict(String username) {
+        if (username == null) return;
+        evictNow(username);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    evictNow(username);
+                }
+            });
+        }
+    }
+
+    private void evictNow(String username) {
+        userCache.removeUserFromCache(username);
+        authenticationProvider.evict(username);
+    }
+}
@@ -0,0 +1,180 @@
+package com.dogginer.dog.service;
+
+import com.dogginer.dog.cache.EntityCacheEvictor;
+import com.dogginer.dog.exception.BadRequestException;
+import com.dogginer.dog.exception.ConflictException;
+import com.dogginer.dog.exception.ResourceNotFoundException;
+import com.dogginer.dog.model.Attendance;
+import com.dogginer.dog.model.AttendanceBatchResult;
+import com.dogginer.dog.model.ClientSummary;
+import com.dogginer.dog.model.Event;
+import com.dogginer.dog.query.Cursor;
+import com.dogginer.dog.query.KeysetPage;
+import com.dogginer.dog.repository.IAttendanceRepository;
+import com.dogginer.dog.repository.IClientRepository;
+import com.dogginer.dog.repository.IEventRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+
+import jakarta.transaction.Transactional;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.function.ToIntFunction;
+
+/**
+ * Service for the clients attending the events in the dogginer
+ */
+@Service
+public class AttendanceServiceImpl implements IAttendanceService {
+
+    private IAttendanceRepository attendanceRepository;
+    private IEventRepository eventRepository;
+    private IClientRepository clientRepository;
+    private EntityCacheEvictor cacheEvictor;
+    private int maxBulkSize;
+
+    @Autowired public AttendanceServiceImpl(IAttendanceRepository attendanceRepository,
+                                            IEventRepository eventRepository,
+                                            IClientRepository clientRepository,
+                                            EntityCacheEvictor cacheEvictor,
+                                            @Value("${dogginer.attendance.max-bulk-size:10000}") int maxBulkSize) {
+        this.attendanceRepository = attendanceRepository;
+        this.eventRepository = eventRepository;
+        this.clientRepository = clientRepository;
+        this.cacheEvictor = cacheEvictor;
+        this.maxBulkSize = maxBulkSize;
+    }
+
+    /**
+     * Registers a client as attendee of an event
+     * @param eventId the id of the event
+     * @param clientId the id of the client
+     * @return true if the attendance was created, false if it already existed
+     * @throws ResourceNotFoundException if the event or the client don't exist
+     * @throws ConflictException if the event is full
+     */
+    @Override
+    @Transactional
+    public boolean addAttendee(int eventId, int clientId) {
+        // reserving first takes the lock on the event row before the insert checks its foreign key,
+        // so concurrent signups queue on that row instead of deadlocking
+        if (attendanceRepository.reserveSeats(eventId, 1) == 0) {
+            if (!eventRepository.existsById(eventId)) throw new ResourceNotFoundException("eventId:" + eventId);
+            if (attendanceRepository.existsAttendee(eventId, clientId)) return false;
+            throw new ConflictException("eventId:" + eventId + " is full");
+        }
+        // the attendee counter is written through JDBC, behind the back of the entity cache
+        cacheEvictor.evict(Event.class, eventId);
+
+        int created;
+        try {
+            created = attendanceRepository.addAttendee(eventId, clientId);
+        } catch (DataIntegrityViolationException e) {
+            throw new ResourceNotFoundException("clientId:" + clientId);
+        }
+        if (created == 0) attendanceRepository.releaseSeats(eventId, 1);
+        return created > 0;
+    }
+
+    /**
+     * Registers many attendances at once, skipping the ones that already exist
+     * @param attendances the attendances to be created
+     * @return the number of attendances requested and created
+     * @throws BadRequestException if the request is too large or references missing events or clients
+     * @throws ConflictException if any of the events doesn't have enough free seats, nothing is created then
+     */
+    @Override
+    @Transactional
+    public AttendanceBatchResult addAttendees(List<Attendance> attendances) {
+        if (attendances.size() > maxBulkSize)
+            throw new BadRequestException("Too many attendances, the maximum is " + maxBulkSize);
+        for (Attendance attendance : attendances) {
+            if (attendance == null || attendance.getEventId() == null || attendance.getClientId() == null)
+                throw new BadRequestException("eventId and clientId are required");
+        }
+
+        TreeSet<Integer> eventIds = new TreeSet<>();
+        attendances.forEach(attendance -> eventIds.add(attendance.getEventId()));
+        attendanceRepository.lockEvents(eventIds);
+
+        Map<Integer, Integer> seats;
+        try {
+            seats = attendanceRepository.addAttendees(attendances);
+        } catch (DataIntegrityViolationException e) {
+            throw new BadRequestException("Attendances reference missing events or clients");
+        }
+
+        int total = seats.values().stream().mapToInt(Integer::intValue).sum();
+        seats.forEach((eventId, count) -> {
+            if (attendanceRepository.reserveSeats(eventId, count) == 0)
+                throw new ConflictException("eventId:" + eventId + " doesn't have " + count + " free seats");
+            cacheEvictor.evict(Event.class, eventId);
+        });
+        return new AttendanceBatchResult(attendances.size(), total);
+    }
+
+    /**
+     * Removes a client from the attendees of an event
+     * @param eventId the id of the event
+     * @param clientId the id of the client
+     * @throws ResourceNotFoundException if the client doesn't attend the event
+     */
+    @Override
+    @Transactional
+    public void removeAttendee(int eventId, int clientId) {
+        if (attendanceRepository.removeAttendee(eventId, clientId) == 0)
+            throw new ResourceNotFoundException("eventId:" + eventId + ", clientId:" + clientId);
+        attendanceRepository.releaseSeats(eventId, 1);
+        cacheEvictor.evict(Event.class, eventId);
+    }
+
+    /**
+     * Get a keyset page of the clients attending an event
+     * @param eventId the id of the event
+     * @param after cursor of the client the page starts after, null for the first page
+     * @param size the requested page size, clamped to {@link KeysetPage#MAX_SIZE}
+     * @throws ResourceNotFoundException if the event doesn't exist
+     */
+    @Override
+    public KeysetPage<ClientSummary> findAttendees(int eventId, String after, int size) {
+        int pageSize = KeysetPage.boundedSize(size);
+        Cursor cursor = Cursor.decode(after);
+        List<ClientSummary> attendees = clientRepository.findAttendeesAfter(eventId,
+                cursor == null ? 0 : cursor.getId(), PageRequest.of(0, pageSize + 1));
+
+        // an empty first page is the only case where the event may not exist
+        if (attendees.isEmpty() && cursor == null && !eventRepository.existsById(eventId))
+            throw new ResourceNotFoundException("eventId:" + eventId);
+        return page(attendees, pageSize, ClientSummary::getClientId);
+    }
+
+    /**
+     * Get a keyset page of the events attended by a client
+     * @param clientId the id of the client
+     * @param after cursor of the event the page starts after, null for the first page
+     * @param size the requested page size, clamped to {@link KeysetPage#MAX_SIZE}
+     * @throws ResourceNotFoundException if the client doesn't exist
+     */
+    @Override
+    public KeysetPage<Event> findAttendedEvents(int clientId, String after, int size) {
+        int pageSize = KeysetPage.boundedSize(size);
+        Cursor cursor = Cursor.decode(after);
+        List<Event> events = eventRepository.findAttendedEventsAfter(clientId,
+                cursor == null ? 0 : cursor.getId(), PageRequest.of(0, pageSize + 1));
+
+        // an empty first page is the only case where the client may not exist
+        if (events.isEmpty() && cursor == null && !clientRepository.existsById(clientId))
+            throw new ResourceNotFoundException("clientId:" + clientId);
+        return page(events, pageSize, Event::getEventId);
+    }
+
+    private <T> KeysetPage<T> page(List<T> rows, int pageSize, ToIntFunction<T> id) {
+        if (rows.size() <= pageSize) return new KeysetPage<>(rows, null, null);
+        List<T> content = rows.subList(0, pageSize);
+        return new KeysetPage<>(content, Cursor.of(id.applyAsInt(content.get(pageSize - 1))), null);
+    }
+}
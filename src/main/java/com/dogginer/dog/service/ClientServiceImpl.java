@@ -1,19 +1,48 @@
 package com.dogginer.dog.service;
 
+import com.dogginer.dog.cache.EntityCacheEvictor;
 import com.dogginer.dog.exception.BadRequestException;
+import com.dogginer.dog.exception.PreconditionFailedException;
 import com.dogginer.dog.exception.ResourceNotFoundException;
+import com.dogginer.dog.exception.ServiceUnavailableException;
+import com.dogginer.dog.repository.IAttendanceRepository;
 import com.dogginer.dog.repository.IClientRepository;
 import com.dogginer.dog.model.Client;
+import com.dogginer.dog.model.ClientSummary;
+import com.dogginer.dog.model.EntityVersion;
+import com.dogginer.dog.model.Event;
+import com.dogginer.dog.model.Suggestion;
+import com.dogginer.dog.query.ClientFilter;
+import com.dogginer.dog.query.Cursor;
+import com.dogginer.dog.query.KeysetPage;
+import com.dogginer.dog.query.LikePattern;
+import com.dogginer.dog.search.ClientSearchIndex;
+import com.dogginer.dog.security.PasswordHasher;
+import com.dogginer.dog.security.PrincipalCacheEvictor;
 import org.apache.commons.lang3.StringUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
+import org.springframework.core.NestedExceptionUtils;
 import org.springframework.dao.DataIntegrityViolationException;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
-import javax.transaction.Transactional;
+import jakarta.transaction.Transactional;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.stream.Collectors;
 
 /**
  * Service for the Clients in the dogginer
@@ -24,12 +53,32 @@ import java.util.List;
 @Service
 public class ClientServiceImpl implements IClientService{
     private IClientRepository clientRepository;
-    private BCryptPasswordEncoder passwordEncoder;
+    private IAttendanceRepository attendanceRepository;
+    private EntityCacheEvictor cacheEvictor;
+    private PasswordHasher passwordHasher;
+    private PrincipalCacheEvictor principalCacheEvictor;
+    private ClientSearchIndex searchIndex;
+    private Executor taskExecutor;
+    private MergeRetry mergeRetry;
     private Logger logger = LoggerFactory.getLogger(ClientServiceImpl.class);
 
-    @Autowired public ClientServiceImpl(IClientRepository clientRepository, BCryptPasswordEncoder passwordEncoder) {
+    @Autowired public ClientServiceImpl(IClientRepository clientRepository,
+                                        IAttendanceRepository attendanceRepository,
+                                        EntityCacheEvictor cacheEvictor, PasswordHasher passwordHasher,
+                                        PrincipalCacheEvictor principalCacheEvictor,
+                                        ClientSearchIndex searchIndex,
+                                        @Qualifier(TaskExecutionAutoConfiguration.APPLICATION_TASK_EXECUTOR_BEAN_NAME)
+                                                Executor taskExecutor,
+                                        PlatformTransactionManager transactionManager,
+                                        @Value("${dogginer.patch.max-attempts:3}") int maxPatchAttempts) {
         this.clientRepository = clientRepository;
-        this.passwordEncoder = passwordEncoder;
+        this.attendanceRepository = attendanceRepository;
+        this.cacheEvictor = cacheEvictor;
+        this.passwordHasher = passwordHasher;
+        this.principalCacheEvictor = principalCacheEvictor;
+        this.searchIndex = searchIndex;
+        this.taskExecutor = taskExecutor;
+        this.mergeRetry = new MergeRetry(new TransactionTemplate(transactionManager), maxPatchAttempts);
     }
 
     /**
@@ -41,6 +90,61 @@ public class ClientServiceImpl implements IClientService{
         return clientRepository.findAll();
     }
 
+    /**
+     * Get a keyset page of client summaries
+     * @param filter the username and email prefixes to be matched
+     * @param after cursor of the client the page starts after, null for the first page
+     * @param before cursor of the client the page ends before, takes precedence over after
+     * @param size the requested page size, clamped to {@link KeysetPage#MAX_SIZE}
+     * @return the page of clients with the cursors to its neighbours
+     * @throws BadRequestException if a cursor or the size are not valid
+     */
+    @Override
+    public KeysetPage<ClientSummary> findPage(ClientFilter filter, String after, String before, int size) {
+        int pageSize = KeysetPage.boundedSize(size);
+        boolean backwards = StringUtils.isNotEmpty(before);
+        Cursor cursor = Cursor.decode(backwards ? before : after);
+        String username = LikePattern.startingWith(filter.getUsername());
+        String email = LikePattern.startingWith(filter.getEmail());
+
+        // one extra row tells whether there is a page beyond this one
+        PageRequest limit = PageRequest.of(0, pageSize + 1);
+        List<ClientSummary> clients = backwards
+                ? clientRepository.findSummariesBefore(cursor.getId(), username, email, limit)
+                : clientRepository.findSummariesAfter(cursor == null ? 0 : cursor.getId(), username, email, limit);
+
+        boolean hasMore = clients.size() > pageSize;
+        if (hasMore) clients = clients.subList(0, pageSize);
+        if (backwards) {
+            clients = new ArrayList<>(clients);
+            Collections.reverse(clients);
+        }
+        if (clients.isEmpty()) return new KeysetPage<>(clients, null, null);
+
+        boolean hasNext = backwards || hasMore;
+        boolean hasPrev = backwards ? hasMore : cursor != null;
+        return new KeysetPage<>(clients,
+                hasNext ? Cursor.of(clients.get(clients.size() - 1).getClientId()) : null,
+                hasPrev ? Cursor.of(clients.get(0).getClientId()) : null);
+    }
+
+    /**
+     * Get a slice of client summaries by page number
+     * @param filter the username and email prefixes to be matched
+     * @param page the zero based page number
+     * @param size the requested page size, clamped to {@link KeysetPage#MAX_SIZE}
+     * @return the slice of clients
+     * @throws BadRequestException if the page or the size are not valid
+     */
+    @Override
+    public Slice<ClientSummary> findSlice(ClientFilter filter, int page, int size) {
+        if (page < 0) throw new BadRequestException("page:" + page);
+        return clientRepository.findSummaries(
+                LikePattern.startingWith(filter.getUsername()),
+                LikePattern.startingWith(filter.getEmail()),
+                PageRequest.of(page, KeysetPage.boundedSize(size)));
+    }
+
     /**
      * Search for a client by clientId
      * @param clientId
@@ -53,6 +157,38 @@ public class ClientServiceImpl implements IClientService{
                 .orElseThrow(() -> new ResourceNotFoundException("clientId:" + clientId));
     }
 
+    /**
+     * Reads the version of a client without loading it, to answer conditional requests
+     * @param clientId the id of the client
+     * @return the version and last modification of the client
+     * @throws ResourceNotFoundException if the client doesn't exist
+     */
+    @Override
+    public EntityVersion findVersion(int clientId) {
+        return clientRepository.findVersionById(clientId)
+                .orElseThrow(() -> new ResourceNotFoundException("clientId:" + clientId));
+    }
+
+    /**
+     * Completes a typed prefix with the usernames of the clients
+     * @param prefix the start of the username, case insensitive
+     * @param size the maximum number of suggestions, clamped to {@link KeysetPage#MAX_SIZE}
+     * @return the ids and usernames of the matching clients in alphabetical order
+     * @throws BadRequestException if the prefix is empty or the size is not valid
+     * @throws ServiceUnavailableException if the search index is still being built
+     */
+    @Override
+    public List<Suggestion> suggest(String prefix, int size) {
+        int limit = KeysetPage.boundedSize(size);
+        if (StringUtils.isEmpty(prefix)) throw new BadRequestException("prefix:" + prefix);
+        if (!searchIndex.isReady())
+            throw new ServiceUnavailableException("The search index is being built, retry later");
+
+        return searchIndex.suggest(prefix, limit).stream()
+                .map(match -> new Suggestion(match.getId(), match.getValue()))
+                .collect(Collectors.toList());
+    }
+
     /**
      * Creates a new client
      * @param client an object with all client data
@@ -60,13 +196,30 @@ public class ClientServiceImpl implements IClientService{
      */
     @Override
     public Client addClient(Client client) {
-        client.setClientId(0);
-        client.setPassword(passwordEncoder.encode(client.getPassword()));
-        return this.saveClient(client);
+        return await(addClientAsync(client));
+    }
+
+    /**
+     * Creates a new client, hashing its password on the hashing pool. The client is saved on the
+     * application task executor, so the hashing threads aren't held while the database is slow
+     * @param client an object with all client data
+     * @return a future completed with the created client object
+     * @throws com.dogginer.dog.exception.ServiceUnavailableException if the hashing pool is saturated
+     */
+    @Override
+    public CompletableFuture<Client> addClientAsync(Client client) {
+        client.setClientId(null);
+        return passwordHasher.encode(client.getPassword()).thenApplyAsync(hash -> {
+            client.setPassword(hash);
+            Client createdClient = this.saveClient(client);
+            searchIndex.index(createdClient);
+            return createdClient;
+        }, taskExecutor);
     }
 
     /**
-     * Delete an existing client
+     * Delete an existing client. The seats it held are released, since hibernate deletes
+     * its attendances without going through the attendee counters of the events
      * @param clientId
      * @return the deleted object if the operation was successful, null otherwise
      * @throws ResourceNotFoundException
@@ -76,56 +229,140 @@ public class ClientServiceImpl implements IClientService{
     public Client deleteById(int clientId) {
         Client deletedClient = clientRepository.findById(clientId)
                 .orElseThrow(() -> new ResourceNotFoundException("clientId:" + clientId));
-        clientRepository.deleteById(clientId);
+        // in event id order, like the bulk attendances lock them
+        for (int eventId : attendanceRepository.findAttendedEventIds(clientId)) {
+            attendanceRepository.releaseSeats(eventId, 1);
+            cacheEvictor.evict(Event.class, eventId);
+        }
+        // deleting the loaded entity avoids the second lookup of deleteById
+        clientRepository.delete(deletedClient);
+        clientRepository.flush();
+        principalCacheEvictor.evict(deletedClient.getUsername());
+        searchIndex.remove(clientId);
         return deletedClient;
     }
 
     /**
-     * Replaces an existing client object with another one
+     * Replaces an existing client object with another one. The password and the attended events are kept,
+     * the password can only be changed with {@link #changePasswordAsync(int, String)}.
+     * The fields are copied onto the loaded client, so only the changed columns are updated
      * @param clientId the id of the client to be replaced
-     * @param client the new client object
+     * @param client the new client object, with the version it was read at if the update is conditional
      * @throws ResourceNotFoundException
+     * @throws PreconditionFailedException if the client has been modified since that version
      */
     @Override
+    @Transactional
     public Client updateClient(int clientId, Client client) {
         Client existingClient = clientRepository.findById(clientId)
                 .orElseThrow(() -> new ResourceNotFoundException("clientId:" + clientId));
+        checkVersion(client, existingClient);
+        String username = existingClient.getUsername();
 
-        client.setClientId(existingClient.getClientId());
-        client.setPassword(passwordEncoder.encode(client.getPassword()));
-        return this.saveClient(client);
+        existingClient.setUsername(client.getUsername());
+        existingClient.setEmail(client.getEmail());
+        Client updatedClient = this.saveClient(existingClient);
+        principalCacheEvictor.evict(username);
+        searchIndex.index(updatedClient);
+        return updatedClient;
     }
 
     /**
-     * Makes partial updates to an existing client
+     * Makes partial updates to an existing client. The password is kept,
+     * it can only be changed with {@link #changePasswordAsync(int, String)}
      * @param clientId the id of the client to be replaced
-     * @param clientUpdates an object with the fields to be modified
+     * @param clientUpdates an object with the fields to be modified, with the version it was read at
+     *                      if the update is conditional
      * @throws ResourceNotFoundException
+     * @throws PreconditionFailedException if the client has been modified since that version
+     * @throws OptimisticLockingFailureException if a concurrent write conflicts with a conditional patch,
+     *                                           or keeps conflicting with an unconditional one
      */
     @Override
     public Client partiallyUpdateClient(int clientId, Client clientUpdates) {
-        Client updatedClient = clientRepository.findById(clientId)
-                .map(existingClient -> copyNonNullFields(clientUpdates, existingClient))
+        // unconditional patches are merged with concurrent writes, conditional ones must fail
+        return mergeRetry.execute(clientUpdates.getVersion() == null, status -> {
+            Client existingClient = clientRepository.findById(clientId)
+                    .orElseThrow(() -> new ResourceNotFoundException("clientId:" + clientId));
+            checkVersion(clientUpdates, existingClient);
+            String username = existingClient.getUsername();
+
+            Client updatedClient = this.saveClient(copyNonNullFields(clientUpdates, existingClient));
+            principalCacheEvictor.evict(username);
+            searchIndex.index(updatedClient);
+            return updatedClient;
+        });
+    }
+
+    /**
+     * Changes the password of an existing client
+     * @param clientId the id of the client
+     * @param password the new password
+     * @throws ResourceNotFoundException
+     * @throws BadRequestException if the password is empty
+     */
+    @Override
+    public void changePassword(int clientId, String password) {
+        await(changePasswordAsync(clientId, password));
+    }
+
+    /**
+     * Changes the password of an existing client, hashing it on the hashing pool and storing it
+     * on the application task executor
+     * @param clientId the id of the client
+     * @param password the new password
+     * @return a future completed once the new hash is stored
+     * @throws ResourceNotFoundException
+     * @throws BadRequestException if the password is empty
+     * @throws com.dogginer.dog.exception.ServiceUnavailableException if the hashing pool is saturated
+     */
+    @Override
+    public CompletableFuture<Void> changePasswordAsync(int clientId, String password) {
+        if (StringUtils.isEmpty(password)) throw new BadRequestException("password");
+        Client existingClient = clientRepository.findById(clientId)
                 .orElseThrow(() -> new ResourceNotFoundException("clientId:" + clientId));
-        return this.saveClient(updatedClient);
+
+        return passwordHasher.encode(password).thenAcceptAsync(hash -> {
+            existingClient.setPassword(hash);
+            this.saveClient(existingClient);
+            principalCacheEvictor.evict(existingClient.getUsername());
+        }, taskExecutor);
+    }
+
+    // the version of the loaded client also guards the UPDATE, so a concurrent write can't slip in
+    private void checkVersion(Client update, Client existingClient) {
+        if (update.getVersion() != null && !update.getVersion().equals(existingClient.getVersion()))
+            throw new PreconditionFailedException("clientId:" + existingClient.getClientId() + " has been modified");
     }
 
-    private Client copyNonNullFields(Client origin, Client destination) {
+    // package-private for MergeBenchmark
+    Client copyNonNullFields(Client origin, Client destination) {
         if (StringUtils.isNotEmpty(origin.getUsername()))
             destination.setUsername(origin.getUsername());
         if (StringUtils.isNotEmpty(origin.getEmail()))
             destination.setEmail(origin.getEmail());
-        if (StringUtils.isNotEmpty(origin.getPassword()))
-            destination.setPassword(passwordEncoder.encode(origin.getPassword()));
         return destination;
     }
 
+    private static <T> T await(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) throw (RuntimeException) e.getCause();
+            throw e;
+        }
+    }
+
     private Client saveClient(Client client) {
         Client updatedClient = null;
         try {
             updatedClient = clientRepository.save(client);
+            // flush within the try, so constraint violations are reported as bad requests
+            clientRepository.flush();
         } catch (DataIntegrityViolationException e) {
-            throw new BadRequestException(e.getCause().getCause().getLocalizedMessage());
+            throw new BadRequestException(NestedExceptionUtils.getMostSpecificCause(e).getLocalizedMessage());
+        } catch (OptimisticLockingFailureException e) {
+            throw e;
         } catch (Exception e) {
             throw new BadRequestException("Bad request");
         }
@@ -1,23 +1,54 @@
 package com.dogginer.dog.service;
 
 import com.dogginer.dog.exception.BadRequestException;
+import com.dogginer.dog.exception.PreconditionFailedException;
 import com.dogginer.dog.exception.ResourceNotFoundException;
+import com.dogginer.dog.exception.ServiceUnavailableException;
+import com.dogginer.dog.model.EntityVersion;
 import com.dogginer.dog.model.Event;
+import com.dogginer.dog.model.Suggestion;
+import com.dogginer.dog.query.Cursor;
+import com.dogginer.dog.query.EventFilter;
+import com.dogginer.dog.query.EventSort;
+import com.dogginer.dog.query.KeysetPage;
 import com.dogginer.dog.repository.IEventRepository;
+import com.dogginer.dog.search.EventSearchIndex;
+import com.dogginer.dog.search.InvertedIndex;
 import org.apache.commons.lang3.StringUtils;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.NestedExceptionUtils;
 import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import jakarta.transaction.Transactional;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 public class EventServiceImpl implements IEventService {
 
     private IEventRepository eventRepository;
+    private EventSearchIndex searchIndex;
+    private MergeRetry mergeRetry;
 
-    @Autowired public EventServiceImpl(IEventRepository eventRepository) {
+    @Autowired public EventServiceImpl(IEventRepository eventRepository,
+                                       EventSearchIndex searchIndex,
+                                       PlatformTransactionManager transactionManager,
+                                       @Value("${dogginer.patch.max-attempts:3}") int maxPatchAttempts) {
         this.eventRepository = eventRepository;
+        this.searchIndex = searchIndex;
+        this.mergeRetry = new MergeRetry(new TransactionTemplate(transactionManager), maxPatchAttempts);
     }
 
     /**
@@ -29,6 +60,88 @@ public class EventServiceImpl implements IEventService {
         return eventRepository.findAll();
     }
 
+    /**
+     * Retrieves a keyset page of events
+     * @param filter the filters to be applied
+     * @param sort the ordering of the events
+     * @param after cursor of the row the page starts after, null for the first page
+     * @param before cursor of the row the page ends before, takes precedence over after
+     * @param size the requested page size, clamped to {@link KeysetPage#MAX_SIZE}
+     * @return the page of events with the cursors to its neighbours
+     * @throws BadRequestException if a cursor, the window or the size are not valid
+     */
+    @Override
+    public KeysetPage<Event> findPage(EventFilter filter, EventSort sort, String after, String before, int size) {
+        int pageSize = KeysetPage.boundedSize(size);
+        boolean backwards = StringUtils.isNotEmpty(before);
+        Cursor cursor = Cursor.decode(backwards ? before : after);
+        if (cursor != null && (sort == EventSort.DATE && cursor.getDate() == null
+                || sort == EventSort.PRICE && cursor.getPrice() == null))
+            throw new BadRequestException("cursor:" + (backwards ? before : after));
+        applyWindow(filter);
+
+        // one extra row tells whether there is a page beyond this one
+        List<Event> events = eventRepository.findPage(filter, sort, cursor, backwards, pageSize + 1);
+        boolean hasMore = events.size() > pageSize;
+        if (hasMore) events = events.subList(0, pageSize);
+        if (backwards) {
+            events = new ArrayList<>(events);
+            Collections.reverse(events);
+        }
+        if (events.isEmpty()) return new KeysetPage<>(events, null, null);
+
+        boolean hasNext = backwards || hasMore;
+        boolean hasPrev = backwards ? hasMore : cursor != null;
+        return new KeysetPage<>(events,
+                hasNext ? cursorOf(events.get(events.size() - 1), sort) : null,
+                hasPrev ? cursorOf(events.get(0), sort) : null);
+    }
+
+    /**
+     * Searches the title and description of the events, best matches first
+     * @param query the keywords to search for
+     * @param size the maximum number of events, clamped to {@link KeysetPage#MAX_SIZE}
+     * @return the matching events, ordered by relevance
+     * @throws BadRequestException if the query is blank or the size is not valid
+     * @throws ServiceUnavailableException if the search index is still being built
+     */
+    @Override
+    public List<Event> search(String query, int size) {
+        int limit = KeysetPage.boundedSize(size);
+        if (StringUtils.isBlank(query)) throw new BadRequestException("q:" + query);
+        if (!searchIndex.isReady())
+            throw new ServiceUnavailableException("The search index is being built, retry later");
+
+        List<Integer> eventIds = searchIndex.search(query, limit).stream()
+                .map(InvertedIndex.Hit::getId)
+                .collect(Collectors.toList());
+        if (eventIds.isEmpty()) return new ArrayList<>();
+        Map<Integer, Event> events = eventRepository.findAllById(eventIds).stream()
+                .collect(Collectors.toMap(Event::getEventId, Function.identity()));
+        // back in the order of the hits, skipping events deleted since they were read
+        return eventIds.stream().map(events::get).filter(Objects::nonNull).collect(Collectors.toList());
+    }
+
+    /**
+     * Completes a typed prefix with the titles of the events
+     * @param prefix the start of the title, case insensitive
+     * @param size the maximum number of suggestions, clamped to {@link KeysetPage#MAX_SIZE}
+     * @return the ids and titles of the matching events in alphabetical order
+     * @throws BadRequestException if the prefix is empty or the size is not valid
+     * @throws ServiceUnavailableException if the search index is still being built
+     */
+    @Override
+    public List<Suggestion> suggest(String prefix, int size) {
+        int limit = KeysetPage.boundedSize(size);
+        if (StringUtils.isEmpty(prefix)) throw new BadRequestException("prefix:" + prefix);
+        if (!searchIndex.isReady())
+            throw new ServiceUnavailableException("The search index is being built, retry later");
+
+        return searchIndex.suggest(prefix, limit).stream()
+                .map(match -> new Suggestion(match.getId(), match.getValue()))
+                .collect(Collectors.toList());
+    }
+
     /**
      * Searches for an event by id
      * @param eventId the id of the event to be deleted
@@ -40,6 +153,18 @@ public class EventServiceImpl implements IEventService {
                 .orElseThrow(() -> new ResourceNotFoundException("eventId:" + eventId));
     }
 
+    /**
+     * Reads the version of an event without loading it, to answer conditional requests
+     * @param eventId the id of the event
+     * @return the version and last modification of the event
+     * @throws ResourceNotFoundException if the event doesn't exist
+     */
+    @Override
+    public EntityVersion findVersion(int eventId) {
+        return eventRepository.findVersionById(eventId)
+                .orElseThrow(() -> new ResourceNotFoundException("eventId:" + eventId));
+    }
+
     /**
      * Creates a new event
      * @param event an object with all event data
@@ -47,36 +172,51 @@ public class EventServiceImpl implements IEventService {
      */
     @Override
     public Event addEvent(Event event) {
-        event.setEventId(0);
-        return this.saveEvent(event);
+        event.setEventId(null);
+        Event createdEvent = this.saveEvent(event);
+        searchIndex.index(createdEvent);
+        return createdEvent;
     }
 
     /**
-     * Replaces an existing event with a new one
+     * Replaces an existing event with a new one.
+     * The fields are copied onto the loaded event, so only the changed columns are updated
      * @param eventId the id of the event to be replaced
-     * @param event the new event object
+     * @param event the new event object, with the version it was read at if the update is conditional
+     * @throws PreconditionFailedException if the event has been modified since that version
      */
     @Override
+    @Transactional
     public Event updateEvent(int eventId, Event event) {
         Event existingEvent =  eventRepository.findById(eventId)
                 .orElseThrow(() -> new ResourceNotFoundException("eventId:" + eventId));
-        event.setEventId(existingEvent.getEventId());
-        return this.saveEvent(event);
-
+        checkVersion(event, existingEvent);
+        Event updatedEvent = this.saveEvent(copyAllFields(event, existingEvent));
+        searchIndex.index(updatedEvent);
+        return updatedEvent;
     }
 
     /**
      * Makes partial updates to an existing event
      * @param eventId the id of the event to be updated
-     * @param eventUpdates an object with the fields to be modified
+     * @param eventUpdates an object with the fields to be modified, with the version it was read at
+     *                     if the update is conditional
      * @return the updated event object
+     * @throws PreconditionFailedException if the event has been modified since that version
+     * @throws OptimisticLockingFailureException if a concurrent write conflicts with a conditional patch,
+     *                                           or keeps conflicting with an unconditional one
      */
     @Override
     public Event partiallyUpdateEvent(int eventId, Event eventUpdates) {
-        Event updatedEvent =  eventRepository.findById(eventId)
-                .map(existingEvent -> copyNonNullFields(eventUpdates, existingEvent))
-                .orElseThrow(() -> new ResourceNotFoundException("eventId:" + eventId));
-        return this.saveEvent(updatedEvent);
+        // unconditional patches are merged with concurrent writes, conditional ones must fail
+        return mergeRetry.execute(eventUpdates.getVersion() == null, status -> {
+            Event existingEvent =  eventRepository.findById(eventId)
+                    .orElseThrow(() -> new ResourceNotFoundException("eventId:" + eventId));
+            checkVersion(eventUpdates, existingEvent);
+            Event updatedEvent = this.saveEvent(copyNonNullFields(eventUpdates, existingEvent));
+            searchIndex.index(updatedEvent);
+            return updatedEvent;
+        });
     }
 
     /**
@@ -85,15 +225,30 @@ public class EventServiceImpl implements IEventService {
      * @return the deleted event
      */
     @Override
+    @Transactional
     public Event deleteById(int eventId) {
         Event deletedEvent = eventRepository.findById(eventId)
                 .orElseThrow(() -> new ResourceNotFoundException("eventId:" + eventId));
-        eventRepository.deleteById(eventId);
+        // deleting the loaded entity avoids the second lookup of deleteById
+        eventRepository.delete(deletedEvent);
+        eventRepository.flush();
+        searchIndex.remove(eventId);
         return deletedEvent;
     }
 
 
-    private Event copyNonNullFields(Event origin, Event destination) {
+    private Event copyAllFields(Event origin, Event destination) {
+        destination.setTitle(origin.getTitle());
+        destination.setDescription(origin.getDescription());
+        destination.setDate(origin.getDate());
+        destination.setImageUrl(origin.getImageUrl());
+        destination.setPrice(origin.getPrice());
+        destination.setCapacity(origin.getCapacity());
+        return destination;
+    }
+
+    // package-private for MergeBenchmark
+    Event copyNonNullFields(Event origin, Event destination) {
         if (origin.getDate() != null) destination.setDate(origin.getDate());
         if (StringUtils.isNotEmpty(origin.getDescription()))
             destination.setDescription(origin.getDescription());
@@ -102,15 +257,44 @@ public class EventServiceImpl implements IEventService {
             destination.setImageUrl(origin.getImageUrl());
         if (origin.getPrice() != null) destination.setPrice(origin.getPrice());
         if (StringUtils.isNotEmpty(origin.getTitle())) destination.setTitle(origin.getTitle());
+        if (origin.getCapacity() != null) destination.setCapacity(origin.getCapacity());
         return destination;
     }
 
+    // the version of the loaded event also guards the UPDATE, so a concurrent write can't slip in
+    private void checkVersion(Event update, Event existingEvent) {
+        if (update.getVersion() != null && !update.getVersion().equals(existingEvent.getVersion()))
+            throw new PreconditionFailedException("eventId:" + existingEvent.getEventId() + " has been modified");
+    }
+
+    private Cursor cursorOf(Event event, EventSort sort) {
+        if (sort == EventSort.DATE) return new Cursor(event.getEventId(), event.getDate());
+        if (sort == EventSort.PRICE) return Cursor.ofPrice(event.getEventId(), event.getPrice());
+        return Cursor.of(event.getEventId());
+    }
+
+    // turns the days window into a date range; now is truncated to the minute so that
+    // the cached query result can be reused by the requests of the same minute
+    private void applyWindow(EventFilter filter) {
+        if (filter == null || filter.getDays() == null) return;
+        if (filter.getDays() <= 0) throw new BadRequestException("days:" + filter.getDays());
+        if (filter.getFrom() == null) filter.setFrom(LocalDateTime.now().truncatedTo(ChronoUnit.MINUTES));
+        if (filter.getTo() == null) filter.setTo(filter.getFrom().plusDays(filter.getDays()));
+    }
+
     private Event saveEvent(Event event) {
+        if (event.getCapacity() != null && event.getAttendeeCount() != null
+                && event.getCapacity() < event.getAttendeeCount())
+            throw new BadRequestException("capacity:" + event.getCapacity() + " is below the attendee count");
         Event updatedEvent;
         try {
             updatedEvent = eventRepository.save(event);
+            // flush within the try, so constraint violations are reported as bad requests
+            eventRepository.flush();
         } catch (DataIntegrityViolationException e) {
-            throw new BadRequestException(e.getCause().getCause().getLocalizedMessage());
+            throw new BadRequestException(NestedExceptionUtils.getMostSpecificCause(e).getLocalizedMessage());
+        } catch (OptimisticLockingFailureException e) {
+            throw e;
         } catch (Exception e) {
             throw new BadRequestException("Bad request");
         }
@@ -0,0 +1,123 @@
+package com.dogginer.dog.service;
+
+import com.dogginer.dog.model.Client;
+import com.dogginer.dog.model.Event;
+import com.dogginer.dog.query.ExportFormat;
+import com.dogginer.dog.repository.IClientRepository;
+import com.dogginer.dog.repository.IEventRepository;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.MapperFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.dataformat.csv.CsvMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.Iterator;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/**
+ * Service for the streamed exports of the dogginer tables.
+ * Rows are read through a forward-only stream in a read-only transaction and written as they
+ * arrive, so memory use doesn't depend on the size of the table.
+ */
+@Service
+public class ExportServiceImpl implements IExportService {
+    private static final int FLUSH_INTERVAL = Integer.parseInt(ExportFormat.FETCH_SIZE);
+
+    private IEventRepository eventRepository;
+    private IClientRepository clientRepository;
+    private TransactionTemplate readOnlyTransaction;
+    private ObjectMapper objectMapper;
+    private CsvMapper csvMapper;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Autowired public ExportServiceImpl(IEventRepository eventRepository,
+                                        IClientRepository clientRepository,
+                                        PlatformTransactionManager transactionManager,
+                                        ObjectMapper objectMapper) {
+        this.eventRepository = eventRepository;
+        this.clientRepository = clientRepository;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.objectMapper = objectMapper;
+        // columns follow the declaration order of the fields, starting with the id
+        this.csvMapper = CsvMapper.builder()
+                .disable(MapperFeature.SORT_PROPERTIES_ALPHABETICALLY)
+                .addModule(new JavaTimeModule())
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .build();
+    }
+
+    /**
+     * Writes all events in ascending id order
+     * @param format the format of the export
+     * @param out the stream the export is written to, left open
+     * @throws IOException if the stream can't be written, e.g. the client went away
+     */
+    @Override
+    public void exportEvents(ExportFormat format, OutputStream out) throws IOException {
+        export(eventRepository::streamAll, Event.class, format, out);
+    }
+
+    /**
+     * Writes all clients in ascending id order. Passwords are never exported
+     * @param format the format of the export
+     * @param out the stream the export is written to, left open
+     * @throws IOException if the stream can't be written, e.g. the client went away
+     */
+    @Override
+    public void exportClients(ExportFormat format, OutputStream out) throws IOException {
+        export(clientRepository::streamAll, Client.class, format, out);
+    }
+
+    private <T> void export(Supplier<Stream<T>> rows, Class<T> type, ExportFormat format, OutputStream out)
+            throws IOException {
+        try {
+            int written = readOnlyTransaction.execute(status -> {
+                int count = 0;
+                try (Stream<T> stream = rows.get(); SequenceWriter writer = writer(type, format).writeValues(out)) {
+                    Iterator<T> iterator = stream.iterator();
+                    while (iterator.hasNext()) {
+                        T row = iterator.next();
+                        writer.write(row);
+                        // written rows must not pile up in the persistence context
+                        entityManager.detach(row);
+                        // the first row goes out at once, then one flush per fetched chunk
+                        if (++count == 1 || count % FLUSH_INTERVAL == 0) writer.flush();
+                    }
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                return count;
+            });
+            // every line of NDJSON is terminated, including the last one
+            if (format == ExportFormat.NDJSON && written > 0) out.write('\n');
+            out.flush();
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    private ObjectWriter writer(Class<?> type, ExportFormat format) {
+        ObjectWriter writer = format == ExportFormat.CSV
+                ? csvMapper.writer(csvMapper.schemaFor(type).withHeader())
+                : objectMapper.writerFor(type).withRootValueSeparator("\n");
+        // flushing is paced by the export, and the response stream is closed by the container
+        return writer.without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE)
+                .without(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+    }
+}
@@ -0,0 +1,21 @@
+package com.dogginer.dog.service;
+
+import com.dogginer.dog.model.Attendance;
+import com.dogginer.dog.model.AttendanceBatchResult;
+import com.dogginer.dog.model.ClientSummary;
+import com.dogginer.dog.model.Event;
+import com.dogginer.dog.query.KeysetPage;
+
+import java.util.List;
+
+public interface IAttendanceService {
+    boolean addAttendee(int eventId, int clientId);
+
+    AttendanceBatchResult addAttendees(List<Attendance> attendances);
+
+    void removeAttendee(int eventId, int clientId);
+
+    KeysetPage<ClientSummary> findAttendees(int eventId, String after, int size);
+
+    KeysetPage<Event> findAttendedEvents(int clientId, String after, int size);
+}
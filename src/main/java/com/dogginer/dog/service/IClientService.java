@@ -2,19 +2,40 @@ package com.dogginer.dog.service;
 
 import com.dogginer.dog.exception.ResourceNotFoundException;
 import com.dogginer.dog.model.Client;
+import com.dogginer.dog.model.ClientSummary;
+import com.dogginer.dog.model.EntityVersion;
+import com.dogginer.dog.model.Suggestion;
+import com.dogginer.dog.query.ClientFilter;
+import com.dogginer.dog.query.KeysetPage;
+import org.springframework.data.domain.Slice;
 
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 public interface IClientService {
     List<Client> findAll();
 
+    KeysetPage<ClientSummary> findPage(ClientFilter filter, String after, String before, int size);
+
+    Slice<ClientSummary> findSlice(ClientFilter filter, int page, int size);
+
+    List<Suggestion> suggest(String prefix, int size);
+
     Client findById(int clientId);
 
+    EntityVersion findVersion(int clientId);
+
     Client addClient(Client client);
 
+    CompletableFuture<Client> addClientAsync(Client client);
+
     Client deleteById(int clientId) throws ResourceNotFoundException;
 
     Client updateClient(int clientId, Client client);
 
     Client partiallyUpdateClient(int clientId, Client client);
+
+    void changePassword(int clientId, String password);
+
+    CompletableFuture<Void> changePasswordAsync(int clientId, String password);
 }
@@ -1,14 +1,27 @@
 package com.dogginer.dog.service;
 
+import com.dogginer.dog.model.EntityVersion;
 import com.dogginer.dog.model.Event;
+import com.dogginer.dog.model.Suggestion;
+import com.dogginer.dog.query.EventFilter;
+import com.dogginer.dog.query.EventSort;
+import com.dogginer.dog.query.KeysetPage;
 
 import java.util.List;
 
 public interface IEventService {
     List<Event> findAll();
 
+    KeysetPage<Event> findPage(EventFilter filter, EventSort sort, String after, String before, int size);
+
+    List<Event> search(String query, int size);
+
+    List<Suggestion> suggest(String prefix, int size);
+
     Event findById(int eventId);
 
+    EntityVersion findVersion(int eventId);
+
     Event addEvent(Event event);
 
     Event updateEvent(int eventId, Event event);
@@ -0,0 +1,12 @@
+package com.dogginer.dog.service;
+
+import com.dogginer.dog.query.ExportFormat;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+public interface IExportService {
+    void exportEvents(ExportFormat format, OutputStream out) throws IOException;
+
+    void exportClients(ExportFormat format, OutputStream out) throws IOException;
+}
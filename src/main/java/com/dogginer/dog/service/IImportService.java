@@ -0,0 +1,12 @@
+package com.dogginer.dog.service;
+
+import com.dogginer.dog.model.ImportResult;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+public interface IImportService {
+    ImportResult importEvents(InputStream in) throws IOException;
+
+    ImportResult importClients(InputStream in) throws IOException;
+}
@@ -0,0 +1,187 @@
+package com.dogginer.dog.service;
+
+import com.dogginer.dog.cache.EntityCacheEvictor;
+import com.dogginer.dog.model.Client;
+import com.dogginer.dog.model.Event;
+import com.dogginer.dog.model.ImportResult;
+import com.dogginer.dog.repository.IBulkInsertRepository;
+import com.dogginer.dog.search.ClientSearchIndex;
+import com.dogginer.dog.search.EventSearchIndex;
+import com.dogginer.dog.security.PasswordHasher;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Service for the bulk imports of events and clients.
+ * The body is parsed row by row, either as a JSON array or as NDJSON, and the valid rows are
+ * inserted in JDBC batches, so memory use is bounded by the batch size and not by the request.
+ * Every batch commits on its own: rows that fail are reported and don't undo the others.
+ * The created rows are added to the search indexes once their batch commits.
+ */
+@Service
+public class ImportServiceImpl implements IImportService {
+
+    private IBulkInsertRepository bulkInsertRepository;
+    private PasswordHasher passwordHasher;
+    private EntityCacheEvictor cacheEvictor;
+    private EventSearchIndex eventSearchIndex;
+    private ClientSearchIndex clientSearchIndex;
+    private ObjectMapper objectMapper;
+    private TransactionTemplate transactionTemplate;
+    private int batchSize;
+    private int maxErrors;
+
+    @Autowired public ImportServiceImpl(IBulkInsertRepository bulkInsertRepository,
+                                        PasswordHasher passwordHasher,
+                                        EntityCacheEvictor cacheEvictor,
+                                        EventSearchIndex eventSearchIndex,
+                                        ClientSearchIndex clientSearchIndex,
+                                        ObjectMapper objectMapper,
+                                        PlatformTransactionManager transactionManager,
+                                        @Value("${dogginer.import.batch-size:500}") int batchSize,
+                                        @Value("${dogginer.import.max-errors:100}") int maxErrors) {
+        this.bulkInsertRepository = bulkInsertRepository;
+        this.passwordHasher = passwordHasher;
+        this.cacheEvictor = cacheEvictor;
+        this.eventSearchIndex = eventSearchIndex;
+        this.clientSearchIndex = clientSearchIndex;
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.batchSize = batchSize;
+        this.maxErrors = maxErrors;
+    }
+
+    /**
+     * Creates the events of a JSON array or NDJSON body
+     * @param in the request body
+     * @return the number of created events and the rejected rows
+     * @throws IOException if the body can't be read
+     */
+    @Override
+    public ImportResult importEvents(InputStream in) throws IOException {
+        return importRows(in, Event.class, this::validateEvent, events -> {}, events -> {
+            bulkInsertRepository.insertEvents(events);
+            events.forEach(eventSearchIndex::index);
+        });
+    }
+
+    /**
+     * Creates the clients of a JSON array or NDJSON body.
+     * The passwords of every batch are hashed in parallel on the hashing pool
+     * @param in the request body
+     * @return the number of created clients and the rejected rows
+     * @throws IOException if the body can't be read
+     */
+    @Override
+    public ImportResult importClients(InputStream in) throws IOException {
+        return importRows(in, Client.class, this::validateClient, this::hashPasswords, clients -> {
+            bulkInsertRepository.insertClients(clients);
+            clients.forEach(clientSearchIndex::index);
+        });
+    }
+
+    private <T> ImportResult importRows(InputStream in, Class<T> type, Function<T, String> validator,
+                                        Consumer<List<T>> prepare, Consumer<List<T>> insert) throws IOException {
+        ImportResult result = new ImportResult(maxErrors);
+        List<T> batch = new ArrayList<>(batchSize);
+        List<Integer> indexes = new ArrayList<>(batchSize);
+        int index = 0;
+        try (MappingIterator<T> rows = objectMapper.readerFor(type).readValues(in)) {
+            while (true) {
+                T row;
+                try {
+                    if (!rows.hasNextValue()) break;
+                    row = rows.nextValue();
+                } catch (JsonMappingException e) {
+                    // the row is well formed but doesn't map, the next row can still be read
+                    result.failed(index++, e.getOriginalMessage());
+                    continue;
+                } catch (JsonProcessingException e) {
+                    // malformed JSON, nothing after it can be trusted
+                    result.failed(index, e.getOriginalMessage());
+                    break;
+                }
+
+                String error = row == null ? "Empty row" : validator.apply(row);
+                if (error != null) {
+                    result.failed(index++, error);
+                    continue;
+                }
+                batch.add(row);
+                indexes.add(index++);
+                if (batch.size() == batchSize) {
+                    insertBatch(batch, indexes, prepare, insert, result);
+                    batch.clear();
+                    indexes.clear();
+                }
+            }
+        }
+        if (!batch.isEmpty()) insertBatch(batch, indexes, prepare, insert, result);
+        return result;
+    }
+
+    private <T> void insertBatch(List<T> batch, List<Integer> indexes, Consumer<List<T>> prepare,
+                                 Consumer<List<T>> insert, ImportResult result) {
+        prepare.accept(batch);
+        try {
+            transactionTemplate.executeWithoutResult(status -> insert.accept(batch));
+            result.created(batch.size());
+        } catch (DataAccessException e) {
+            // the batch was rolled back, so it is retried row by row to find the rows that fail
+            for (int i = 0; i < batch.size(); i++) {
+                try {
+                    insert.accept(Collections.singletonList(batch.get(i)));
+                    result.created(1);
+                } catch (DataAccessException rowException) {
+                    result.failed(indexes.get(i), rowException.getMostSpecificCause().getLocalizedMessage());
+                }
+            }
+        }
+        // the inserts bypass Hibernate, so cached pages don't know about them
+        cacheEvictor.evictQueries();
+    }
+
+    private void hashPasswords(List<Client> clients) {
+        List<String> passwords = new ArrayList<>(clients.size());
+        clients.forEach(client -> passwords.add(client.getPassword()));
+        List<String> hashes = passwordHasher.encodeAll(passwords);
+        for (int i = 0; i < clients.size(); i++) clients.get(i).setPassword(hashes.get(i));
+    }
+
+    // the columns the schema requires are checked here, a row the database rejects fails its whole batch
+    // and makes it retried row by row
+    private String validateEvent(Event event) {
+        if (StringUtils.isEmpty(event.getTitle())) return "title is required";
+        if (event.getDescription() == null) return "description is required";
+        if (event.getDate() == null) return "date is required";
+        if (event.getPrice() == null) return "price is required";
+        if (event.getPrice() < 0) return "price:" + event.getPrice() + " must not be negative";
+        if (event.getCapacity() != null && event.getCapacity() < 0)
+            return "capacity:" + event.getCapacity() + " must not be negative";
+        return null;
+    }
+
+    private String validateClient(Client client) {
+        if (StringUtils.isEmpty(client.getUsername())) return "username is required";
+        if (StringUtils.isEmpty(client.getEmail())) return "email is required";
+        if (StringUtils.isEmpty(client.getPassword())) return "password is required";
+        return null;
+    }
+}
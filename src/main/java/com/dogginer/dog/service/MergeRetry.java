@@ -0,0 +1,41 @@
+package com.dogginer.dog.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Runs a partial update in its own transaction, and runs it again in a new one when a concurrent
+ * write bumped the version in between. A partial update only writes the fields it carries, so
+ * running it again on the fresh state merges it with the concurrent write, without any lock.
+ */
+class MergeRetry {
+    private static final Logger logger = LoggerFactory.getLogger(MergeRetry.class);
+
+    private final TransactionTemplate transactionTemplate;
+    private final int maxAttempts;
+
+    MergeRetry(TransactionTemplate transactionTemplate, int maxAttempts) {
+        this.transactionTemplate = transactionTemplate;
+        this.maxAttempts = Math.max(1, maxAttempts);
+    }
+
+    /**
+     * @param merge whether the update may be applied again on a newer version, false for conditional updates
+     * @param update the update, which must load the entity it writes
+     * @return the result of the first attempt that commits
+     * @throws OptimisticLockingFailureException if every attempt conflicted, or the first one when not merging
+     */
+    <T> T execute(boolean merge, TransactionCallback<T> update) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return transactionTemplate.execute(update);
+            } catch (OptimisticLockingFailureException e) {
+                if (!merge || attempt >= maxAttempts) throw e;
+                logger.debug("Concurrent update, merging again (attempt " + (attempt + 1) + ")");
+            }
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package com.dogginer.dog.sql;
+
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+
+/**
+ * Counts the statements of every HTTP request, the authentication included, by endpoint.
+ * The count of a request is left in its {@link #STATEMENTS_ATTRIBUTE} attribute, where tests can check it.
+ * It is registered by {@link StatementStatisticsConfiguration}
+ */
+public class StatementCountingFilter extends OncePerRequestFilter {
+    public static final String STATEMENTS_ATTRIBUTE = StatementCountingFilter.class.getName() + ".statements";
+    // requests that matched no handler, e.g. the ones rejected by the security filters
+    static final String UNMAPPED = "unmapped";
+
+    private final StatementStatistics statistics;
+
+    public StatementCountingFilter(StatementStatistics statistics) {
+        this.statistics = statistics;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        statistics.begin();
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            // the path pattern rather than the path, so the endpoints stay few
+            Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+            String endpoint = pattern == null ? UNMAPPED : request.getMethod() + " " + pattern;
+            request.setAttribute(STATEMENTS_ATTRIBUTE, statistics.end(endpoint));
+        }
+    }
+}
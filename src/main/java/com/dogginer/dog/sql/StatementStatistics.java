@@ -0,0 +1,171 @@
+package com.dogginer.dog.sql;
+
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+import net.ttddyy.dsproxy.proxy.ParameterSetOperation;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+
+/**
+ * Counts the statements sent to the database per HTTP request and per endpoint, and logs the slow ones
+ * with their bound parameters. Statements are attributed to the request running on the same thread,
+ * the ones run by background threads, e.g. the hashing pool, only show in the slow query log.
+ * A statement is one round trip, a JDBC batch counts once
+ */
+@Component
+public class StatementStatistics implements QueryExecutionListener {
+    private static final Logger logger = LoggerFactory.getLogger(StatementStatistics.class);
+
+    private final long slowQueryThresholdMillis;
+    private final ThreadLocal<RequestStatements> current = new ThreadLocal<>();
+    private final ConcurrentMap<String, EndpointStatements> endpoints = new ConcurrentHashMap<>();
+
+    @Autowired public StatementStatistics(@Value("${dogginer.sql.slow-query-threshold:200ms}") Duration slowQueryThreshold) {
+        this.slowQueryThresholdMillis = slowQueryThreshold.toMillis();
+    }
+
+    /**
+     * Starts counting the statements of the request running on this thread
+     */
+    public void begin() {
+        current.set(new RequestStatements());
+    }
+
+    /**
+     * Stops counting the statements of the request running on this thread and adds them to its endpoint
+     * @param endpoint the method and path pattern of the request, e.g. GET /v1/events/{eventId}
+     * @return the number of statements sent by the request, 0 if the counting hadn't begun
+     */
+    public int end(String endpoint) {
+        RequestStatements request = current.get();
+        if (request == null) return 0;
+        current.remove();
+        endpoints.computeIfAbsent(endpoint, key -> new EndpointStatements()).add(request);
+        return request.statements;
+    }
+
+    /**
+     * @return the statement counts of every endpoint requested since the last reset, by endpoint
+     */
+    public Map<String, EndpointSummary> summaries() {
+        return endpoints.entrySet().stream()
+                .sorted(Map.Entry.comparingByKey())
+                .collect(Collectors.toMap(Map.Entry::getKey, entry -> entry.getValue().summary(),
+                        (first, second) -> first, LinkedHashMap::new));
+    }
+
+    /**
+     * Forgets the counts of every endpoint
+     */
+    public void reset() {
+        endpoints.clear();
+    }
+
+    @Override
+    public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+    }
+
+    @Override
+    public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        boolean slow = execInfo.getElapsedTime() >= slowQueryThresholdMillis;
+        RequestStatements request = current.get();
+        if (request != null) {
+            request.statements++;
+            if (slow) request.slowStatements++;
+        }
+        if (slow && logger.isWarnEnabled()) {
+            for (QueryInfo queryInfo : queryInfoList) {
+                logger.warn("Slow query took {} ms: {} {}", execInfo.getElapsedTime(), queryInfo.getQuery(),
+                        parameters(queryInfo));
+            }
+        }
+    }
+
+    // the bound parameters of every execution of a query, masked if the query reads or writes passwords
+    private static String parameters(QueryInfo queryInfo) {
+        boolean masked = queryInfo.getQuery().toLowerCase(Locale.ROOT).contains("password");
+        List<String> executions = new ArrayList<>();
+        for (List<ParameterSetOperation> operations : queryInfo.getParametersList()) {
+            executions.add(operations.stream()
+                    .map(operation -> operation.getArgs()[0] + "=" + (masked ? "***" : operation.getArgs()[1]))
+                    .collect(Collectors.joining(", ", "[", "]")));
+        }
+        return String.join(" ", executions);
+    }
+
+    private static final class RequestStatements {
+        private int statements;
+        private int slowStatements;
+    }
+
+    private static final class EndpointStatements {
+        private final LongAdder requests = new LongAdder();
+        private final LongAdder statements = new LongAdder();
+        private final LongAdder slowStatements = new LongAdder();
+        private final AtomicInteger maxStatements = new AtomicInteger();
+
+        private void add(RequestStatements request) {
+            requests.increment();
+            statements.add(request.statements);
+            slowStatements.add(request.slowStatements);
+            maxStatements.accumulateAndGet(request.statements, Math::max);
+        }
+
+        private EndpointSummary summary() {
+            return new EndpointSummary(requests.sum(), statements.sum(), maxStatements.get(), slowStatements.sum());
+        }
+    }
+
+    /**
+     * Statement counts of the requests to an endpoint
+     */
+    public static final class EndpointSummary {
+        private final long requests;
+        private final long statements;
+        private final int maxStatements;
+        private final long slowStatements;
+
+        EndpointSummary(long requests, long statements, int maxStatements, long slowStatements) {
+            this.requests = requests;
+            this.statements = statements;
+            this.maxStatements = maxStatements;
+            this.slowStatements = slowStatements;
+        }
+
+        public long getRequests() {
+            return requests;
+        }
+
+        public long getStatements() {
+            return statements;
+        }
+
+        public int getMaxStatements() {
+            return maxStatements;
+        }
+
+        public double getMeanStatements() {
+            return requests == 0 ? 0 : (double) statements / requests;
+        }
+
+        public long getSlowStatements() {
+            return slowStatements;
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package com.dogginer.dog.sql;
+
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+import javax.sql.DataSource;
+
+/**
+ * Routes the statements of the data source through datasource-proxy, which reports them to the
+ * {@link StatementStatistics}, and counts them per HTTP request
+ */
+@Configuration
+public class StatementStatisticsConfiguration {
+
+    // static and lazy, so the post processor doesn't initialise the statistics before the other beans
+    @Bean
+    public static BeanPostProcessor statementCountingDataSource(ObjectProvider<StatementStatistics> statistics) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (!(bean instanceof DataSource)) return bean;
+                return ProxyDataSourceBuilder.create(beanName, (DataSource) bean)
+                        .listener(statistics.getObject())
+                        .build();
+            }
+        };
+    }
+
+    // ahead of the security filters, so the statements of the authentication are counted too,
+    // only the concurrency limit comes first
+    @Bean
+    public FilterRegistrationBean<StatementCountingFilter> statementCountingFilter(StatementStatistics statistics) {
+        FilterRegistrationBean<StatementCountingFilter> registration =
+                new FilterRegistrationBean<>(new StatementCountingFilter(statistics));
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 1);
+        return registration;
+    }
+}
@@ -0,0 +1,34 @@
+package com.dogginer.dog.sql;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/**
+ * Actuator endpoint at /actuator/statements with the statement counts per endpoint, to spot N+1 queries.
+ * A DELETE resets the counts, e.g. before exercising an endpoint
+ */
+@Component
+@Endpoint(id = "statements")
+public class StatementsEndpoint {
+
+    private final StatementStatistics statistics;
+
+    @Autowired public StatementsEndpoint(StatementStatistics statistics) {
+        this.statistics = statistics;
+    }
+
+    @ReadOperation
+    public Map<String, StatementStatistics.EndpointSummary> statements() {
+        return statistics.summaries();
+    }
+
+    @DeleteOperation
+    public void reset() {
+        statistics.reset();
+    }
+}
@@ -0,0 +1,31 @@
+package com.dogginer.dog.web;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+import java.time.Duration;
+
+/**
+ * Registers the {@link ConcurrencyLimitFilter}, unless dogginer.requests.max-concurrent is 0
+ */
+@Configuration
+public class ConcurrencyLimitConfiguration {
+
+    // ahead of every other filter, so shed requests cost neither an authentication nor a statement count
+    @Bean
+    public FilterRegistrationBean<ConcurrencyLimitFilter> concurrencyLimitFilter(
+            @Value("${dogginer.requests.max-concurrent:200}") int maxConcurrent,
+            @Value("${dogginer.requests.queue-timeout:1s}") Duration queueTimeout,
+            ObjectMapper objectMapper, MeterRegistry meterRegistry) {
+        FilterRegistrationBean<ConcurrencyLimitFilter> registration = new FilterRegistrationBean<>(
+                new ConcurrencyLimitFilter(Math.max(maxConcurrent, 1), queueTimeout, objectMapper, meterRegistry));
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE);
+        registration.setEnabled(maxConcurrent > 0);
+        return registration;
+    }
+}
@@ -0,0 +1,92 @@
+package com.dogginer.dog.web;
+
+import com.dogginer.dog.exception.ErrorDetails;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Bounds the requests in flight. Requests beyond the limit wait up to the queue timeout for a slot,
+ * then fail fast with 503, like the password hashing does when its pool is saturated.
+ * On platform threads the tomcat pool bounds them already, on virtual threads nothing else does, and an
+ * overloaded instance would otherwise share its CPU among every open request until all of them time out.
+ * Shed requests are counted by the dogginer.requests.shed counter, the requests in flight by the
+ * dogginer.requests.active gauge. It is registered by {@link ConcurrencyLimitConfiguration}
+ */
+public class ConcurrencyLimitFilter extends OncePerRequestFilter {
+    private final Semaphore slots;
+    private final int maxConcurrent;
+    private final long queueTimeoutNanos;
+    private final ObjectMapper objectMapper;
+    private final Counter shed;
+
+    public ConcurrencyLimitFilter(int maxConcurrent, Duration queueTimeout, ObjectMapper objectMapper,
+                                  MeterRegistry meterRegistry) {
+        // fair, so the waiting requests get the slots in the order they arrived
+        this.slots = new Semaphore(maxConcurrent, true);
+        this.maxConcurrent = maxConcurrent;
+        this.queueTimeoutNanos = queueTimeout.toNanos();
+        this.objectMapper = objectMapper;
+        this.shed = Counter.builder("dogginer.requests.shed")
+                .description("Requests answered with 503 because too many were in flight")
+                .register(meterRegistry);
+        Gauge.builder("dogginer.requests.active", this, ConcurrencyLimitFilter::getActive)
+                .description("Requests in flight")
+                .register(meterRegistry);
+    }
+
+    /**
+     * @return the number of requests in flight
+     */
+    public int getActive() {
+        return maxConcurrent - slots.availablePermits();
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        boolean acquired;
+        try {
+            acquired = slots.tryAcquire(queueTimeoutNanos, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            acquired = false;
+        }
+        if (!acquired) {
+            reject(request, response);
+            return;
+        }
+
+        // released when the request thread leaves, asynchronous requests keep their slot until they go async
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            slots.release();
+        }
+    }
+
+    // written here rather than with sendError, whose error dispatch would go through the security filters
+    private void reject(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        shed.increment();
+        response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, "1");
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        objectMapper.writeValue(response.getOutputStream(), new ErrorDetails(LocalDateTime.now(),
+                "Too many requests in flight, retry later", "uri=" + request.getRequestURI()));
+    }
+}
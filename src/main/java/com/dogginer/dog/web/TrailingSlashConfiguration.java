@@ -0,0 +1,22 @@
+package com.dogginer.dog.web;
+
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+/**
+ * Registers the {@link TrailingSlashRedirectFilter}
+ */
+@Configuration
+public class TrailingSlashConfiguration {
+
+    // after the concurrency limit and the statement counts, ahead of the authentication
+    @Bean
+    public FilterRegistrationBean<TrailingSlashRedirectFilter> trailingSlashRedirectFilter() {
+        FilterRegistrationBean<TrailingSlashRedirectFilter> registration =
+                new FilterRegistrationBean<>(new TrailingSlashRedirectFilter());
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 2);
+        return registration;
+    }
+}
@@ -0,0 +1,42 @@
+package com.dogginer.dog.web;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+
+/**
+ * Redirects paths with a trailing slash to the same path without it. Spring 6 no longer matches them,
+ * and the links advertised before it, e.g. /v1/events/, would otherwise answer 404.
+ * The redirect is a 308, so clients repeat the method and the body.
+ * The filter runs before the firewall of Spring Security, so paths with empty segments or backslashes,
+ * which a browser could follow to another host, e.g. //evil.example/, are left to the firewall to reject.
+ */
+public class TrailingSlashRedirectFilter extends OncePerRequestFilter {
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String contextPath = request.getContextPath();
+        String path = request.getRequestURI().substring(contextPath.length());
+        if (path.length() <= 1 || !path.endsWith("/") || !isRedirectable(path)) {
+            chain.doFilter(request, response);
+            return;
+        }
+
+        String location = contextPath + path.substring(0, path.length() - 1);
+        if (request.getQueryString() != null) location += "?" + request.getQueryString();
+        response.setStatus(HttpStatus.PERMANENT_REDIRECT.value());
+        response.setHeader(HttpHeaders.LOCATION, location);
+    }
+
+    // the location must stay a path of this host
+    private static boolean isRedirectable(String path) {
+        return path.startsWith("/") && !path.contains("//") && !path.contains("\\");
+    }
+}
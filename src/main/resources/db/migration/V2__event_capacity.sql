@@ -0,0 +1,8 @@
+-- The /*! */ clauses only run on MySQL: they make it fail instead of locking the table
+-- when the change can't be applied online.
+
+ALTER TABLE events ADD COLUMN capacity INT NULL /*!80000 , ALGORITHM=INPLACE, LOCK=NONE */;
+ALTER TABLE events ADD COLUMN attendee_count INT NOT NULL DEFAULT 0 /*!80000 , ALGORITHM=INPLACE, LOCK=NONE */;
+
+-- attendee_count <= capacity is not a CHECK constraint, adding one copies the table on MySQL.
+-- It is kept by the conditional UPDATE that reserves the seats, and by the versioned capacity updates.
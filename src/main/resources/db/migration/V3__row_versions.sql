@@ -0,0 +1,9 @@
+-- optimistic lock version and last modification time, exposed as ETag and Last-Modified
+
+ALTER TABLE clients ADD COLUMN version INT NOT NULL DEFAULT 0 /*!80000 , ALGORITHM=INPLACE, LOCK=NONE */;
+ALTER TABLE clients ADD COLUMN updated_at TIMESTAMP(6) NOT NULL DEFAULT CURRENT_TIMESTAMP(6)
+    /*!80000 , ALGORITHM=INPLACE, LOCK=NONE */;
+
+ALTER TABLE events ADD COLUMN version INT NOT NULL DEFAULT 0 /*!80000 , ALGORITHM=INPLACE, LOCK=NONE */;
+ALTER TABLE events ADD COLUMN updated_at TIMESTAMP(6) NOT NULL DEFAULT CURRENT_TIMESTAMP(6)
+    /*!80000 , ALGORITHM=INPLACE, LOCK=NONE */;
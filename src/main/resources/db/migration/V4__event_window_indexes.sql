@@ -0,0 +1,5 @@
+-- (date, event_id) drives the date windows and the date keyset, (date, price) the cheapest-first windows.
+-- Secondary indexes are built in place on MySQL while reads and writes go on.
+
+CREATE INDEX idx_events_date_id ON events (date, event_id) /*!80000 ALGORITHM=INPLACE LOCK=NONE */;
+CREATE INDEX idx_events_date_price ON events (date, price) /*!80000 ALGORITHM=INPLACE LOCK=NONE */;
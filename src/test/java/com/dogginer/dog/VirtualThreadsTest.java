@@ -0,0 +1,39 @@
+package com.dogginer.dog;
+
+import com.dogginer.dog.exception.ResourceNotFoundException;
+import com.dogginer.dog.service.IEventService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.when;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = "spring.threads.virtual.enabled=true")
+class VirtualThreadsTest {
+
+    @Autowired private TestRestTemplate restTemplate;
+    @MockBean private IEventService eventService;
+
+    @Test
+    void requestsRunOnVirtualThreads() {
+        AtomicReference<Thread> serviceThread = new AtomicReference<>();
+        when(eventService.findVersion(1)).then(invocation -> {
+            serviceThread.set(Thread.currentThread());
+            throw new ResourceNotFoundException("eventId:1");
+        });
+
+        ResponseEntity<String> response = restTemplate.withBasicAuth("admin", "admin123")
+                .getForEntity("/v1/events/1", String.class);
+        assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode(), "request is handled");
+        assertNotNull(serviceThread.get(), "service is called");
+        assertTrue(serviceThread.get().isVirtual(), "service runs on the virtual request thread");
+    }
+}
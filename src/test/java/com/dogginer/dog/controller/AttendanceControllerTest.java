@@ -0,0 +1,140 @@
+package com.dogginer.dog.controller;
+
+import com.dogginer.dog.exception.BadRequestException;
+import com.dogginer.dog.exception.ResourceNotFoundException;
+import com.dogginer.dog.model.Attendance;
+import com.dogginer.dog.model.AttendanceBatchResult;
+import com.dogginer.dog.model.ClientSummary;
+import com.dogginer.dog.model.Event;
+import com.dogginer.dog.query.Cursor;
+import com.dogginer.dog.query.KeysetPage;
+import com.dogginer.dog.service.IAttendanceService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.security.servlet.SecurityAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@Import({DogginerLinks.class, EventModelAssembler.class, ClientSummaryModelAssembler.class})
+@WebMvcTest(value = AttendanceController.class, excludeAutoConfiguration = {SecurityAutoConfiguration.class})
+@AutoConfigureMockMvc
+class AttendanceControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private IAttendanceService attendanceService;
+
+    private ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void getAttendees() throws Exception {
+        when(attendanceService.findAttendees(eq(1), isNull(), eq(2))).thenReturn(new KeysetPage<>(
+                Arrays.asList(new ClientSummary(1, "client1", "email1"), new ClientSummary(2, "client2", "email2")),
+                Cursor.of(2), null));
+        when(attendanceService.findAttendees(eq(73), isNull(), anyInt()))
+                .thenThrow(new ResourceNotFoundException("eventId:73"));
+
+        mockMvc.perform(get("/v1/events/1/attendees?size=2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$._embedded.clientList", hasSize(2)))
+                .andExpect(jsonPath("$._embedded.clientList[0].username", is("client1")))
+                .andExpect(jsonPath("$._embedded.clientList[0].password").doesNotExist())
+                .andExpect(jsonPath("$._embedded.clientList[0]._links.self.href", is("http://localhost/v1/clients/1")))
+                .andExpect(jsonPath("$._links.next.href",
+                        is("http://localhost/v1/events/1/attendees?size=2&after=" + Cursor.of(2).encode())));
+
+        mockMvc.perform(get("/v1/events/73/attendees"))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void getAttendedEvents() throws Exception {
+        Event event = new Event();
+        event.setEventId(3);
+        event.setTitle("eventTitle3");
+        when(attendanceService.findAttendedEvents(eq(1), isNull(), eq(20)))
+                .thenReturn(new KeysetPage<>(Collections.singletonList(event), null, null));
+
+        mockMvc.perform(get("/v1/clients/1/events"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$._embedded.eventList", hasSize(1)))
+                .andExpect(jsonPath("$._embedded.eventList[0].title", is("eventTitle3")))
+                .andExpect(jsonPath("$._embedded.eventList[0]._links.self.href", is("http://localhost/v1/events/3")))
+                .andExpect(jsonPath("$._links.next").doesNotExist());
+    }
+
+    @Test
+    void addAttendee() throws Exception {
+        when(attendanceService.addAttendee(1, 2)).thenReturn(true);
+        when(attendanceService.addAttendee(1, 3)).thenReturn(false);
+        when(attendanceService.addAttendee(73, 2)).thenThrow(new ResourceNotFoundException("eventId:73"));
+
+        mockMvc.perform(post("/v1/events/1/attendees/2"))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.eventId", is(1)))
+                .andExpect(jsonPath("$.clientId", is(2)))
+                .andExpect(jsonPath("$._links.event.href", is("http://localhost/v1/events/1")))
+                .andExpect(jsonPath("$._links.client.href", is("http://localhost/v1/clients/2")));
+
+        mockMvc.perform(post("/v1/events/1/attendees/3"))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(post("/v1/events/73/attendees/2"))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void addAttendees() throws Exception {
+        when(attendanceService.addAttendees(anyList())).then(invocation -> {
+            int requested = invocation.<List<Attendance>>getArgument(0).size();
+            if (requested > 2) throw new BadRequestException("Too many attendances");
+            return new AttendanceBatchResult(requested, 1);
+        });
+
+        mockMvc.perform(post("/v1/events/attendees")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(Arrays.asList(new Attendance(1, 1), new Attendance(1, 2)))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.requested", is(2)))
+                .andExpect(jsonPath("$.created", is(1)));
+
+        mockMvc.perform(post("/v1/events/attendees")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(Arrays.asList(
+                        new Attendance(1, 1), new Attendance(1, 2), new Attendance(1, 3)))))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void removeAttendee() throws Exception {
+        doThrow(new ResourceNotFoundException("eventId:1, clientId:3")).when(attendanceService).removeAttendee(1, 3);
+
+        mockMvc.perform(delete("/v1/events/1/attendees/2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.eventId", is(1)))
+                .andExpect(jsonPath("$.clientId", is(2)));
+
+        mockMvc.perform(delete("/v1/events/1/attendees/3"))
+                .andExpect(status().isNotFound());
+    }
+}
@@ -2,9 +2,18 @@ package com.dogginer.dog.controller;
 
 import com.dogginer.dog.exception.BadRequestException;
 import com.dogginer.dog.exception.ResourceNotFoundException;
+import com.dogginer.dog.exception.ServiceUnavailableException;
 import com.dogginer.dog.model.Client;
+import com.dogginer.dog.model.ClientSummary;
+import com.dogginer.dog.model.EntityVersion;
+import com.dogginer.dog.model.PasswordChange;
+import com.dogginer.dog.model.Suggestion;
+import com.dogginer.dog.query.ClientFilter;
+import com.dogginer.dog.query.Cursor;
+import com.dogginer.dog.query.KeysetPage;
 import com.dogginer.dog.model.Event;
 import com.dogginer.dog.service.IClientService;
+import com.dogginer.dog.service.IExportService;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.apache.commons.lang3.StringUtils;
 import org.junit.jupiter.api.AfterEach;
@@ -16,22 +25,34 @@ import org.springframework.boot.autoconfigure.security.servlet.SecurityAutoConfi
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.RequestBuilder;
+import org.springframework.test.web.servlet.ResultActions;
 
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashSet;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 import static org.hamcrest.Matchers.hasSize;
 import static org.hamcrest.Matchers.is;
-import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
+@Import({DogginerLinks.class, EventModelAssembler.class, ClientSummaryModelAssembler.class})
 @WebMvcTest(value = ClientController.class, excludeAutoConfiguration = {SecurityAutoConfiguration.class})
 @AutoConfigureMockMvc
 class ClientControllerTest {
@@ -42,6 +63,9 @@ class ClientControllerTest {
     @MockBean
     private IClientService clientService;
 
+    @MockBean
+    private IExportService exportService;
+
     private ObjectMapper objectMapper;
 
     private List<Client> clientList = new ArrayList<>();
@@ -67,10 +91,13 @@ class ClientControllerTest {
 
     @Test
     void getAllClients() throws Exception {
-        when(clientService.findAll()).thenReturn(clientList);
+        when(clientService.findPage(any(ClientFilter.class), isNull(), isNull(), eq(20)))
+                .thenReturn(new KeysetPage<>(summaries(), null, null));
 
         mockMvc.perform(get("/v1/clients"))
                 .andExpect(status().isOk())
+                .andExpect(jsonPath("$._links.self.href").value("http://localhost/v1/clients"))
+                .andExpect(jsonPath("$._links.next").doesNotExist())
                 .andExpect(jsonPath("$._embedded.clientList", hasSize(3)))
                 .andExpect(jsonPath("$._embedded.clientList[0].clientId").value("1"))
                 .andExpect(jsonPath("$._embedded.clientList[0].username").value("client0"))
@@ -95,18 +122,66 @@ class ClientControllerTest {
                 .andExpect(jsonPath("$._embedded.clientList[2]._links.self.href").value("http://localhost/v1/clients/3"));
     }
 
+    @Test
+    void getAllClientsPage() throws Exception {
+        when(clientService.findPage(argThat(filter -> "client".equals(filter.getUsername())),
+                eq(Cursor.of(1).encode()), isNull(), eq(2)))
+                .thenReturn(new KeysetPage<>(summaries().subList(1, 3), Cursor.of(3), Cursor.of(2)));
+
+        mockMvc.perform(get("/v1/clients?username=client&size=2&after=" + Cursor.of(1).encode()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$._embedded.clientList", hasSize(2)))
+                .andExpect(jsonPath("$._embedded.clientList[0].clientId").value("2"))
+                .andExpect(jsonPath("$._links.next.href")
+                        .value("http://localhost/v1/clients?username=client&size=2&after=" + Cursor.of(3).encode()))
+                .andExpect(jsonPath("$._links.prev.href")
+                        .value("http://localhost/v1/clients?username=client&size=2&before=" + Cursor.of(2).encode()));
+
+        when(clientService.findSlice(any(ClientFilter.class), eq(1), eq(1)))
+                .thenReturn(new SliceImpl<>(summaries().subList(1, 2), PageRequest.of(1, 1), true));
+
+        mockMvc.perform(get("/v1/clients?page=1&size=1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$._embedded.clientList", hasSize(1)))
+                .andExpect(jsonPath("$._links.next.href").value("http://localhost/v1/clients?size=1&page=2"))
+                .andExpect(jsonPath("$._links.prev.href").value("http://localhost/v1/clients?size=1&page=0"));
+    }
+
+    @Test
+    void suggestClients() throws Exception {
+        when(clientService.suggest("test", Suggestion.DEFAULT_SIZE))
+                .thenReturn(Arrays.asList(new Suggestion(1, "testClient1"), new Suggestion(2, "testClient2")));
+
+        mockMvc.perform(get("/v1/clients/suggest").param("prefix", "test"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(2)))
+                .andExpect(jsonPath("$[0].id", is(1)))
+                .andExpect(jsonPath("$[0].value", is("testClient1")));
+
+        when(clientService.suggest(isNull(), anyInt())).thenThrow(new BadRequestException("prefix:null"));
+        mockMvc.perform(get("/v1/clients/suggest"))
+                .andExpect(status().isBadRequest());
+    }
+
     @Test
     void getClient() throws Exception {
         Client testClient = this.createTestClient();
         when(clientService.findById(1)).thenReturn(testClient);
         when(clientService.findById(0)).thenThrow(new ResourceNotFoundException("clientId:0"));
+        when(clientService.findVersion(1)).thenReturn(new EntityVersion(3, null));
+        when(clientService.findVersion(0)).thenThrow(new ResourceNotFoundException("clientId:0"));
+        testClient.setVersion(3);
 
         mockMvc.perform(get("/v1/clients/1"))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.username").value("testClient1"))
                 .andExpect(jsonPath("$.email").value("testClient1@email.com"))
                 .andExpect(jsonPath("$.password").doesNotExist())
-                .andExpect(jsonPath("$.attendedEvents").doesNotExist());
+                .andExpect(jsonPath("$.attendedEvents").doesNotExist())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"3\""));
+
+        mockMvc.perform(get("/v1/clients/1").header(HttpHeaders.IF_NONE_MATCH, "\"3\""))
+                .andExpect(status().isNotModified());
 
         mockMvc.perform(get("/v1/clients/0"))
                 .andExpect(status().isNotFound());
@@ -132,28 +207,36 @@ class ClientControllerTest {
         Client wrongClient = this.createTestClient();
         wrongClient.setClientId(0);
 
-        when(clientService.addClient(ArgumentMatchers.any())).then(invocation -> {
+        when(clientService.addClientAsync(ArgumentMatchers.any())).then(invocation -> {
             Client savedClient = invocation.getArgument(0);
             if (savedClient.getClientId() != null && savedClient.getClientId() == 0)
-                throw new BadRequestException("Bad request");
+                return failedFuture(new BadRequestException("Bad request"));
             savedClient.setClientId(1);
-            return savedClient;
+            return CompletableFuture.completedFuture(savedClient);
         });
 
-        mockMvc.perform(post("/v1/clients")
+        performAsync(post("/v1/clients")
                 .contentType(MediaType.APPLICATION_JSON)
                 .content(objectMapper.writeValueAsString(newClient)))
                 .andExpect(status().isCreated())
+                .andExpect(jsonPath("$._links.self.href", is("http://localhost/v1/clients/1")))
                 .andExpect(jsonPath("$.clientId", is(1)))
                 .andExpect(jsonPath("$.username", is("testClient1")))
                 .andExpect(jsonPath("$.email", is("testClient1@email.com")))
                 .andExpect(jsonPath("$.password").doesNotExist())
                 .andExpect(jsonPath("$.attendedEVents").doesNotExist());
 
-        mockMvc.perform(post("/v1/clients")
+        performAsync(post("/v1/clients")
                 .contentType(MediaType.APPLICATION_JSON)
                 .content(objectMapper.writeValueAsString(wrongClient)))
                 .andExpect(status().isBadRequest());
+
+        doThrow(new ServiceUnavailableException("Password hashing is saturated, retry later"))
+                .when(clientService).addClientAsync(ArgumentMatchers.any());
+        mockMvc.perform(post("/v1/clients")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(newClient)))
+                .andExpect(status().isServiceUnavailable());
     }
 
     @Test
@@ -259,6 +342,25 @@ class ClientControllerTest {
                 .andExpect(status().isNotFound());
     }
 
+    @Test
+    void changePassword() throws Exception {
+        PasswordChange passwordChange = new PasswordChange();
+        passwordChange.setPassword("newPassword");
+
+        when(clientService.changePasswordAsync(1, "newPassword")).thenReturn(CompletableFuture.completedFuture(null));
+        when(clientService.changePasswordAsync(0, "newPassword")).thenThrow(new ResourceNotFoundException("clientId:0"));
+
+        performAsync(put("/v1/clients/1/password")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(passwordChange)))
+                .andExpect(status().isNoContent());
+
+        mockMvc.perform(put("/v1/clients/0/password")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(passwordChange)))
+                .andExpect(status().isNotFound());
+    }
+
     @Test
     void deleteClient() throws Exception {
 
@@ -277,4 +379,24 @@ class ClientControllerTest {
                 .andExpect(status().isNotFound());
 
     }
-}
\ No newline at end of file
+
+    private ResultActions performAsync(RequestBuilder requestBuilder) throws Exception {
+        MvcResult result = mockMvc.perform(requestBuilder)
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        return mockMvc.perform(asyncDispatch(result));
+    }
+
+    private static <T> CompletableFuture<T> failedFuture(Throwable ex) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        future.completeExceptionally(ex);
+        return future;
+    }
+
+    private List<ClientSummary> summaries() {
+        List<ClientSummary> summaries = new ArrayList<>();
+        for (Client client : clientList)
+            summaries.add(new ClientSummary(client.getClientId(), client.getUsername(), client.getEmail()));
+        return summaries;
+    }
+}
@@ -0,0 +1,39 @@
+package com.dogginer.dog.controller;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DogginerLinksTest {
+
+    private final DogginerLinks links = new DogginerLinks();
+
+    @AfterEach
+    void afterEach() {
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    @Test
+    void current() {
+        onRequestTo("localhost");
+        DogginerLinks.Templates templates = links.current();
+        assertEquals("http://localhost/v1/events/7", templates.event(7).getHref(), "event self link is built");
+        assertEquals("http://localhost/v1/clients/7", templates.client(7).getHref(), "client self link is built");
+        assertEquals("all-events", templates.allEvents().getRel().value(), "all events link is built");
+        assertSame(templates, links.current(), "templates are resolved once per base URI");
+
+        onRequestTo("dogginer.com");
+        assertEquals("http://dogginer.com/v1/events/7", links.current().event(7).getHref(),
+                "templates follow the base URI of the request");
+    }
+
+    private static void onRequestTo(String host) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/v1/events");
+        request.setServerName(host);
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+    }
+}
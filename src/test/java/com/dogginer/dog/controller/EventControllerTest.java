@@ -1,9 +1,19 @@
 package com.dogginer.dog.controller;
 
 import com.dogginer.dog.exception.BadRequestException;
+import com.dogginer.dog.exception.PreconditionFailedException;
 import com.dogginer.dog.exception.ResourceNotFoundException;
+import com.dogginer.dog.exception.ServiceUnavailableException;
+import com.dogginer.dog.model.EntityVersion;
 import com.dogginer.dog.model.Event;
+import com.dogginer.dog.model.Suggestion;
+import com.dogginer.dog.query.Cursor;
+import com.dogginer.dog.query.EventFilter;
+import com.dogginer.dog.query.EventSort;
+import com.dogginer.dog.query.ExportFormat;
+import com.dogginer.dog.query.KeysetPage;
 import com.dogginer.dog.service.IEventService;
+import com.dogginer.dog.service.IExportService;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
@@ -14,20 +24,38 @@ import org.springframework.boot.autoconfigure.security.servlet.SecurityAutoConfi
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.transaction.CannotCreateTransactionException;
 
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 import static org.hamcrest.Matchers.hasSize;
 import static org.hamcrest.Matchers.is;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
+@Import({DogginerLinks.class, EventModelAssembler.class, ClientSummaryModelAssembler.class})
 @WebMvcTest(value = EventController.class, excludeAutoConfiguration = {SecurityAutoConfiguration.class})
 @AutoConfigureMockMvc
 class EventControllerTest {
@@ -40,8 +68,13 @@ class EventControllerTest {
     @MockBean
     private IEventService eventService;
 
+    @MockBean
+    private IExportService exportService;
+
     private List<Event> eventList = new ArrayList<>();
 
+    private static final Instant UPDATED_AT = Instant.parse("2022-10-23T10:15:30Z");
+
     @BeforeEach
     void generateEventList() {
         for (int i = 0; i < 3; i ++) {
@@ -53,6 +86,8 @@ class EventControllerTest {
             event.setPrice(0.01 * (i + 1));
             int imageId = 1000 + 3*i;
             event.setImageUrl("https://picsum.photos/id/" + imageId + "/300");
+            event.setVersion(i);
+            event.setUpdatedAt(UPDATED_AT);
             this.eventList.add(event);
         }
 
@@ -66,10 +101,14 @@ class EventControllerTest {
 
     @Test
     void getAllEvents() throws Exception {
-        when(eventService.findAll()).thenReturn(eventList);
+        when(eventService.findPage(any(EventFilter.class), eq(EventSort.ID), isNull(), isNull(), eq(20)))
+                .thenReturn(new KeysetPage<>(eventList, null, null));
 
         mockMvc.perform(get("/v1/events"))
                 .andExpect(status().isOk())
+                .andExpect(jsonPath("$._links.self.href", is("http://localhost/v1/events")))
+                .andExpect(jsonPath("$._links.next").doesNotExist())
+                .andExpect(jsonPath("$._links.prev").doesNotExist())
                 .andExpect(jsonPath("$._embedded.eventList", hasSize(3)))
                 .andExpect(jsonPath("$._embedded.eventList[0].eventId", is(1)))
                 .andExpect(jsonPath("$._embedded.eventList[0].title", is("eventTitle1")))
@@ -79,11 +118,143 @@ class EventControllerTest {
                 .andExpect(jsonPath("$._embedded.eventList[0]._links").exists())
                 .andExpect(jsonPath("$._embedded.eventList[0]._links.self.href", is("http://localhost/v1/events/1")))
                 .andExpect(jsonPath("$._embedded.eventList[1].eventId", is(2)))
-                .andExpect(jsonPath("$._embedded.eventList[2].eventId", is(3)));
+                .andExpect(jsonPath("$._embedded.eventList[2].eventId", is(3)))
+                .andExpect(header().exists(HttpHeaders.ETAG))
+                .andExpect(header().exists(HttpHeaders.LAST_MODIFIED));
+    }
+
+    @Test
+    void getAllEventsNotModified() throws Exception {
+        when(eventService.findPage(any(EventFilter.class), eq(EventSort.ID), isNull(), isNull(), eq(20)))
+                .thenReturn(new KeysetPage<>(eventList, null, null));
+
+        String eTag = mockMvc.perform(get("/v1/events"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        mockMvc.perform(get("/v1/events").header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+
+        eventList.get(1).setVersion(7);
+        mockMvc.perform(get("/v1/events").header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$._embedded.eventList", hasSize(3)));
+    }
+
+    @Test
+    void getAllEventsPage() throws Exception {
+        Cursor next = Cursor.of(3);
+        Cursor prev = Cursor.of(1);
+        when(eventService.findPage(any(EventFilter.class), eq(EventSort.DATE), eq("abc"), isNull(), eq(3)))
+                .thenReturn(new KeysetPage<>(eventList, next, prev));
+
+        mockMvc.perform(get("/v1/events?sort=date&after=abc&size=3&title=event&minPrice=0.01"
+                + "&from=2022-10-01T00:00:00"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$._embedded.eventList", hasSize(3)))
+                .andExpect(jsonPath("$._links.next.href", is("http://localhost/v1/events?sort=date&size=3"
+                        + "&title=event&minPrice=0.01&from=2022-10-01T00:00:00&after=" + next.encode())))
+                .andExpect(jsonPath("$._links.prev.href", is("http://localhost/v1/events?sort=date&size=3"
+                        + "&title=event&minPrice=0.01&from=2022-10-01T00:00:00&before=" + prev.encode())));
+
+        verify(eventService).findPage(argThat(filter -> "event".equals(filter.getTitle())
+                        && filter.getMinPrice() == 0.01
+                        && LocalDateTime.of(2022, 10, 1, 0, 0).equals(filter.getFrom())),
+                eq(EventSort.DATE), eq("abc"), isNull(), eq(3));
+
+        mockMvc.perform(get("/v1/events").param("sort", "popularity"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void getUpcomingEventsByPrice() throws Exception {
+        Cursor next = Cursor.ofPrice(3, 0.03);
+        when(eventService.findPage(any(EventFilter.class), eq(EventSort.PRICE), isNull(), isNull(), eq(3)))
+                .thenReturn(new KeysetPage<>(eventList, next, null));
+
+        mockMvc.perform(get("/v1/events?sort=price&days=7&size=3"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$._embedded.eventList", hasSize(3)))
+                .andExpect(jsonPath("$._links.next.href",
+                        is("http://localhost/v1/events?sort=price&days=7&size=3&after=" + next.encode())));
+
+        verify(eventService).findPage(argThat(filter -> filter.getDays() == 7),
+                eq(EventSort.PRICE), isNull(), isNull(), eq(3));
+    }
+
+    @Test
+    void searchEvents() throws Exception {
+        when(eventService.search("title description", 2)).thenReturn(eventList.subList(0, 2));
+
+        mockMvc.perform(get("/v1/events/search").param("q", "title description").param("size", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$._embedded.eventList", hasSize(2)))
+                .andExpect(jsonPath("$._embedded.eventList[0].eventId", is(eventList.get(0).getEventId())));
+
+        when(eventService.search(isNull(), eq(KeysetPage.DEFAULT_SIZE))).thenThrow(new BadRequestException("q:null"));
+        mockMvc.perform(get("/v1/events/search"))
+                .andExpect(status().isBadRequest());
+
+        when(eventService.search(eq("dogs"), anyInt()))
+                .thenThrow(new ServiceUnavailableException("The search index is being built, retry later"));
+        mockMvc.perform(get("/v1/events/search").param("q", "dogs"))
+                .andExpect(status().isServiceUnavailable());
+    }
+
+    @Test
+    void suggestEvents() throws Exception {
+        when(eventService.suggest("event", 5)).thenReturn(Arrays.asList(new Suggestion(1, "eventTitle1")));
+
+        mockMvc.perform(get("/v1/events/suggest").param("prefix", "event").param("size", "5"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].value", is("eventTitle1")));
+
+        when(eventService.suggest(eq("e"), anyInt()))
+                .thenThrow(new ServiceUnavailableException("The search index is being built, retry later"));
+        mockMvc.perform(get("/v1/events/suggest").param("prefix", "e"))
+                .andExpect(status().isServiceUnavailable());
+    }
+
+    @Test
+    void exportEvents() throws Exception {
+        doAnswer(invocation -> {
+            OutputStream out = invocation.getArgument(1);
+            out.write("{\"eventId\":1}\n".getBytes(StandardCharsets.UTF_8));
+            return null;
+        }).when(exportService).exportEvents(any(ExportFormat.class), any(OutputStream.class));
+
+        MvcResult result = mockMvc.perform(get("/v1/events/export"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("application/x-ndjson"))
+                .andExpect(content().string("{\"eventId\":1}\n"));
+        verify(exportService).exportEvents(eq(ExportFormat.NDJSON), any(OutputStream.class));
+
+        result = mockMvc.perform(get("/v1/events/export?format=csv"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("text/csv"));
+        verify(exportService).exportEvents(eq(ExportFormat.CSV), any(OutputStream.class));
+
+        mockMvc.perform(get("/v1/events/export?format=xls"))
+                .andExpect(status().isBadRequest());
     }
 
     @Test
     void getEvent() throws Exception {
+        when(eventService.findVersion(ArgumentMatchers.anyInt())).then(invocation -> {
+            int eventId = invocation.getArgument(0);
+            if (eventId > 3 || eventId < 1)
+                throw new ResourceNotFoundException("eventId:" + invocation.getArgument(0));
+            Event event = eventList.get(eventId - 1);
+            return new EntityVersion(event.getVersion(), event.getUpdatedAt());
+        });
         when(eventService.findById(ArgumentMatchers.anyInt())).then(invocation -> {
             int eventId = invocation.getArgument(0);
             if (eventId > 3 || eventId < 1)
@@ -98,8 +269,11 @@ class EventControllerTest {
                 .andExpect(jsonPath("$.description", is("eventDescription1")))
                 .andExpect(jsonPath("$.imageUrl", is("https://picsum.photos/id/1000/300")))
                 .andExpect(jsonPath("$.price", is(0.01)))
+                .andExpect(jsonPath("$.version").doesNotExist())
                 .andExpect(jsonPath("$._links").exists())
-                .andExpect(jsonPath("$._links.all-events.href", is("http://localhost/v1/events/")));
+                .andExpect(jsonPath("$._links.all-events.href", is("http://localhost/v1/events")))
+                .andExpect(header().string(HttpHeaders.ETAG, "\"0\""))
+                .andExpect(header().dateValue(HttpHeaders.LAST_MODIFIED, UPDATED_AT.toEpochMilli()));
 
         mockMvc.perform(get("/v1/events/2"))
                 .andExpect(status().isOk())
@@ -109,12 +283,26 @@ class EventControllerTest {
                 .andExpect(jsonPath("$.imageUrl", is("https://picsum.photos/id/1003/300")))
                 .andExpect(jsonPath("$.price", is(0.02)))
                 .andExpect(jsonPath("$._links").exists())
-                .andExpect(jsonPath("$._links.all-events.href", is("http://localhost/v1/events/")));
+                .andExpect(jsonPath("$._links.all-events.href", is("http://localhost/v1/events")));
 
         mockMvc.perform(get("/v1/events/73"))
                 .andExpect(status().isNotFound());
     }
 
+    @Test
+    void getEventWhenConnectionsAreExhausted() throws Exception {
+        // within a transaction, then from the connection opened in view
+        when(eventService.findVersion(1)).thenThrow(new CannotCreateTransactionException("Connection is not available"),
+                new DataAccessResourceFailureException("Unable to acquire JDBC Connection"));
+
+        for (int i = 0; i < 2; i++) {
+            mockMvc.perform(get("/v1/events/1"))
+                    .andExpect(status().isServiceUnavailable())
+                    .andExpect(header().string(HttpHeaders.RETRY_AFTER, "1"))
+                    .andExpect(jsonPath("$.message", is("The database is busy, retry later")));
+        }
+    }
+
     @Test
     void createEvent() throws Exception {
         when(eventService.addEvent(ArgumentMatchers.any(Event.class))).then(invocation -> {
@@ -140,7 +328,7 @@ class EventControllerTest {
                 .andExpect(jsonPath("$.imageUrl", is("https://picsum.photos/id/237/300")))
                 .andExpect(jsonPath("$.price", is(10.00)))
                 .andExpect(jsonPath("$._links").exists())
-                .andExpect(jsonPath("$._links.all-events.href", is("http://localhost/v1/events/")))
+                .andExpect(jsonPath("$._links.all-events.href", is("http://localhost/v1/events")))
                 .andExpect(jsonPath("$._links.self.href", is("http://localhost/v1/events/1")));
 
         newEvent.setEventId(-1);
@@ -150,6 +338,76 @@ class EventControllerTest {
                 .andExpect(status().isBadRequest());
     }
 
+    @Test
+    void getEventNotModified() throws Exception {
+        when(eventService.findVersion(1)).thenReturn(new EntityVersion(2, UPDATED_AT));
+        eventList.get(0).setVersion(2);
+        when(eventService.findById(1)).thenReturn(eventList.get(0));
+
+        mockMvc.perform(get("/v1/events/1").header(HttpHeaders.IF_NONE_MATCH, "\"2\""))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"2\""))
+                .andExpect(content().string(""));
+        verify(eventService, never()).findById(ArgumentMatchers.anyInt());
+
+        mockMvc.perform(get("/v1/events/1").header(HttpHeaders.IF_NONE_MATCH, "\"1\""))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"2\""))
+                .andExpect(jsonPath("$.eventId", is(1)));
+    }
+
+    @Test
+    void partiallyUpdateEventConflict() throws Exception {
+        when(eventService.partiallyUpdateEvent(eq(1), ArgumentMatchers.any(Event.class)))
+                .thenThrow(new ObjectOptimisticLockingFailureException(Event.class, 1));
+
+        mockMvc.perform(patch("/v1/events/1")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"title\":\"new title\"}"))
+                .andExpect(status().isConflict())
+                .andExpect(jsonPath("$.message", is("The resource was modified concurrently, retry with its current state")));
+    }
+
+    @Test
+    void updateEventIfMatch() throws Exception {
+        when(eventService.updateEvent(eq(1), ArgumentMatchers.any(Event.class))).then(invocation -> {
+            Event event = invocation.getArgument(1);
+            if (event.getVersion() != null && event.getVersion() != 5)
+                throw new PreconditionFailedException("eventId:1 has been modified");
+            event.setEventId(1);
+            event.setVersion(6);
+            return event;
+        });
+
+        Event updatedEvent = eventList.get(0);
+        updatedEvent.setDate(null);
+
+        mockMvc.perform(put("/v1/events/1")
+                .header(HttpHeaders.IF_MATCH, "\"5\"")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(updatedEvent)))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"6\""));
+
+        mockMvc.perform(put("/v1/events/1")
+                .header(HttpHeaders.IF_MATCH, "\"4\"")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(updatedEvent)))
+                .andExpect(status().isPreconditionFailed());
+
+        mockMvc.perform(patch("/v1/events/1")
+                .header(HttpHeaders.IF_MATCH, "W/\"5\"")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(updatedEvent)))
+                .andExpect(status().isPreconditionFailed());
+
+        mockMvc.perform(put("/v1/events/1")
+                .header(HttpHeaders.IF_MATCH, "\"4\", \"5\"")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(updatedEvent)))
+                .andExpect(status().isBadRequest());
+    }
+
     @Test
     void updateEvent() throws Exception {
 
@@ -176,7 +434,7 @@ class EventControllerTest {
                 .andExpect(jsonPath("$.imageUrl", is("this is a new imageUrl")))
                 .andExpect(jsonPath("$.price", is(0.01)))
                 .andExpect(jsonPath("$._links").exists())
-                .andExpect(jsonPath("$._links.all-events.href", is("http://localhost/v1/events/")))
+                .andExpect(jsonPath("$._links.all-events.href", is("http://localhost/v1/events")))
                 .andExpect(jsonPath("$._links.self.href", is("http://localhost/v1/events/1")));
 
         mockMvc.perform(put("/v1/events/4")
@@ -216,7 +474,7 @@ class EventControllerTest {
                 .andExpect(jsonPath("$.imageUrl", is("new imageUrl")))
                 .andExpect(jsonPath("$.price", is(0.01)))
                 .andExpect(jsonPath("$._links").exists())
-                .andExpect(jsonPath("$._links.all-events.href", is("http://localhost/v1/events/")))
+                .andExpect(jsonPath("$._links.all-events.href", is("http://localhost/v1/events")))
                 .andExpect(jsonPath("$._links.self.href", is("http://localhost/v1/events/1")));
 
         mockMvc.perform(patch("/v1/events/4")
@@ -244,7 +502,7 @@ class EventControllerTest {
                 .andExpect(jsonPath("$.imageUrl", is("https://picsum.photos/id/1000/300")))
                 .andExpect(jsonPath("$.price", is(0.01)))
                 .andExpect(jsonPath("$._links").exists())
-                .andExpect(jsonPath("$._links.all-events.href", is("http://localhost/v1/events/")));
+                .andExpect(jsonPath("$._links.all-events.href", is("http://localhost/v1/events")));
 
         mockMvc.perform(delete("/v1/events/0"))
                 .andExpect(status().isNotFound());
@@ -0,0 +1,70 @@
+package com.dogginer.dog.controller;
+
+import com.dogginer.dog.model.ImportResult;
+import com.dogginer.dog.service.IImportService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.security.servlet.SecurityAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.io.InputStream;
+
+import static org.hamcrest.Matchers.is;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WebMvcTest(value = ImportController.class, excludeAutoConfiguration = {SecurityAutoConfiguration.class})
+@AutoConfigureMockMvc
+class ImportControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private IImportService importService;
+
+    @Test
+    void importEvents() throws Exception {
+        ImportResult result = new ImportResult(10);
+        result.created(1);
+        result.failed(1, "capacity:-1 is below the attendee count");
+        when(importService.importEvents(any(InputStream.class))).thenReturn(result);
+
+        mockMvc.perform(post("/v1/events:bulk")
+                .contentType("application/x-ndjson")
+                .content("{\"title\":\"bulkTitle1\"}\n{\"title\":\"bulkTitle2\",\"capacity\":-1}\n"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.requested", is(2)))
+                .andExpect(jsonPath("$.created", is(1)))
+                .andExpect(jsonPath("$.failed", is(1)))
+                .andExpect(jsonPath("$.errors[0].index", is(1)))
+                .andExpect(jsonPath("$.errors[0].message", is("capacity:-1 is below the attendee count")));
+
+        mockMvc.perform(post("/v1/events:bulk")
+                .contentType(MediaType.TEXT_PLAIN)
+                .content("title"))
+                .andExpect(status().isUnsupportedMediaType());
+    }
+
+    @Test
+    void importClients() throws Exception {
+        ImportResult result = new ImportResult(10);
+        result.created(2);
+        when(importService.importClients(any(InputStream.class))).thenReturn(result);
+
+        mockMvc.perform(post("/v1/clients:bulk")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("[{\"username\":\"bulkClient1\",\"password\":\"secret1\"}," +
+                        "{\"username\":\"bulkClient2\",\"password\":\"secret2\"}]"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.created", is(2)))
+                .andExpect(jsonPath("$.errors.length()", is(0)));
+    }
+}
@@ -0,0 +1,78 @@
+package com.dogginer.dog.load;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latencies and failures of one endpoint during a load test, recorded concurrently by the workers
+ */
+final class EndpointStats {
+    private final String endpoint;
+    // microseconds, resized as needed, 3 significant digits
+    private final Recorder latencies = new Recorder(3);
+    private final LongAdder failures = new LongAdder();
+    private final LongAdder shed = new LongAdder();
+    private Histogram measured;
+    private long measuredFailures;
+    private long measuredShed;
+
+    EndpointStats(String endpoint) {
+        this.endpoint = endpoint;
+    }
+
+    void record(long latencyMicros, boolean failed, boolean rejected) {
+        latencies.recordValue(latencyMicros);
+        if (failed) failures.increment();
+        if (rejected) shed.increment();
+    }
+
+    /**
+     * Drops what was recorded so far, e.g. during the warm-up
+     */
+    void reset() {
+        latencies.reset();
+        failures.reset();
+        shed.reset();
+    }
+
+    /**
+     * Freezes what was recorded since the last reset
+     */
+    void stop() {
+        measured = latencies.getIntervalHistogram();
+        measuredFailures = failures.sum();
+        measuredShed = shed.sum();
+    }
+
+    String getEndpoint() {
+        return endpoint;
+    }
+
+    long getRequests() {
+        return measured.getTotalCount();
+    }
+
+    long getFailures() {
+        return measuredFailures;
+    }
+
+    /**
+     * @return the requests answered with 503, which the instance sheds on purpose when a bounded pool is full
+     */
+    long getShed() {
+        return measuredShed;
+    }
+
+    /**
+     * @return the latency at a percentile, in milliseconds
+     */
+    double percentile(double percentile) {
+        return measured.getValueAtPercentile(percentile) / 1000.0;
+    }
+
+    double max() {
+        return measured.getMaxValue() / 1000.0;
+    }
+}
@@ -0,0 +1,352 @@
+package com.dogginer.dog.load;
+
+import com.dogginer.dog.model.Client;
+import com.dogginer.dog.model.Event;
+import com.dogginer.dog.query.Cursor;
+import com.dogginer.dog.repository.IBulkInsertRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiFunction;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Load test of a full instance on H2, run with {@code mvn -Pload-test test}.
+ * The import.sql fixture is expanded to a large generated dataset, then a fixed number of workers drive a mix
+ * of reads and writes over /v1/events and /v1/clients with HTTP Basic auth, the reads as clients and the writes
+ * as the admin. Each worker sends its next request as soon as the previous one is answered, so the throughput is
+ * what the instance sustains at that concurrency.
+ * Every worker holds a connection, the workers are platform threads even when the instance runs on virtual threads,
+ * so the client never waits for the scheduler of the instance and its latencies are the instance's.
+ * Throughput and latency percentiles per endpoint are printed and written to target/load-test-result.json.
+ * With a think time, every worker pauses that long between its requests, so thousands of mostly idle connections
+ * can be held open at a rate the instance sustains, instead of saturating it.
+ * The dataset, the workers, the think time and the durations are set with the dogginer.load.* system properties,
+ * the request execution mode with spring.threads.virtual.enabled
+ */
+@Tag("load")
+// the test properties replace the main ones, so their server and connection pool limits are repeated here
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "server.tomcat.max-connections=10240",
+        // the connections of thinking workers stay open
+        "server.tomcat.keep-alive-timeout=5m",
+        "dogginer.requests.max-concurrent=200",
+        "dogginer.requests.queue-timeout=1s",
+        "spring.datasource.hikari.maximum-pool-size=20",
+        "spring.datasource.hikari.connection-timeout=5000"})
+public class LoadTest {
+    private static final String PASSWORD = "loadPassword";
+    private static final String ADMIN_USERNAME = "admin";
+    private static final String ADMIN_PASSWORD = "admin123";
+    // clients that send the requests, the credentials cache keeps one BCrypt verification per client
+    private static final int USERS = 100;
+    private static final int BATCH_SIZE = 1000;
+    private static final double MAX_FAILURE_RATE = 0.01;
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(30);
+
+    static {
+        // the client drops idle connections after 30s by default, the thinking workers would keep reconnecting
+        System.setProperty("jdk.httpclient.keepalive.timeout", "300");
+    }
+
+    @LocalServerPort private int port;
+    @Autowired private IBulkInsertRepository bulkInsertRepository;
+    @Autowired private JdbcTemplate jdbcTemplate;
+    @Autowired private BCryptPasswordEncoder passwordEncoder;
+
+    @Value("${dogginer.load.events:100000}") private int eventCount;
+    @Value("${dogginer.load.clients:10000}") private int clientCount;
+    @Value("${dogginer.load.workers:32}") private int workers;
+    @Value("${dogginer.load.warm-up:10s}") private Duration warmUp;
+    @Value("${dogginer.load.duration:30s}") private Duration duration;
+    @Value("${dogginer.load.think-time:0s}") private Duration thinkTime;
+    @Value("${spring.threads.virtual.enabled:false}") private boolean virtualThreads;
+
+    private final AtomicInteger createdClients = new AtomicInteger();
+    // HTTP/1.1 opens a connection per concurrent request
+    private final HttpClient httpClient = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+
+    @Test
+    void mixedTraffic() throws Exception {
+        seed();
+        int maxEventId = jdbcTemplate.queryForObject("SELECT MAX(event_id) FROM events", Integer.class);
+        List<Operation> operations = operations(maxEventId);
+        int totalWeight = operations.stream().mapToInt(operation -> operation.weight).sum();
+        String[] authorizations = new String[USERS];
+        int[] clientIds = new int[USERS];
+        for (int i = 0; i < USERS; i++) {
+            authorizations[i] = basic("loadClient" + (i + 1), PASSWORD);
+            clientIds[i] = jdbcTemplate.queryForObject("SELECT client_id FROM clients WHERE username = ?",
+                    Integer.class, "loadClient" + (i + 1));
+        }
+        String adminAuthorization = basic(ADMIN_USERNAME, ADMIN_PASSWORD);
+
+        // every client logs in once before the run, as the BCrypt verification of a first login would
+        // otherwise dominate the latencies of the warm-up on small boxes
+        Request login = new Request("GET", "/v1/events/1", null, 200, false);
+        for (String authorization : authorizations) {
+            assertEquals(200, send(login, authorization).statusCode(), "load clients can log in");
+        }
+        assertEquals(200, send(login, adminAuthorization).statusCode(), "admin can log in");
+
+        AtomicBoolean stopped = new AtomicBoolean();
+        ExecutorService pool = Executors.newFixedThreadPool(workers, new CustomizableThreadFactory("load-"));
+        for (int i = 0; i < workers; i++) {
+            pool.execute(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                // staggered over a think time, so the workers don't all send their first request at once
+                if (!pause(random.nextLong(thinkTime.toMillis() + 1))) return;
+                while (!stopped.get()) {
+                    Operation operation = pick(operations, random.nextInt(totalWeight));
+                    int user = random.nextInt(USERS);
+                    Request request = operation.request.apply(random, clientIds[user]);
+                    long start = System.nanoTime();
+                    HttpResponse<Void> response;
+                    try {
+                        response = send(request, request.admin ? adminAuthorization : authorizations[user]);
+                    } catch (IOException e) {
+                        response = null;
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        return;
+                    }
+                    int status = response == null ? -1 : response.statusCode();
+                    // 503s are load shed by the bounded pools on purpose, they are counted apart from the failures
+                    boolean shed = status == 503;
+                    operation.stats.record(TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - start),
+                            !shed && status != request.expectedStatus, shed);
+                    // shed requests are retried after their Retry-After, like a well-behaved client would
+                    long pause = shed ? TimeUnit.SECONDS.toMillis(
+                            response.headers().firstValueAsLong("Retry-After").orElse(1)) : 0;
+                    if (!pause(Math.max(pause, thinkTime.toMillis()))) return;
+                }
+            });
+        }
+
+        Thread.sleep(warmUp.toMillis());
+        operations.forEach(operation -> operation.stats.reset());
+        long start = System.nanoTime();
+        Thread.sleep(duration.toMillis());
+        operations.forEach(operation -> operation.stats.stop());
+        double seconds = (System.nanoTime() - start) / 1e9;
+        stopped.set(true);
+        // interrupts the workers that think
+        pool.shutdownNow();
+        assertTrue(pool.awaitTermination(REQUEST_TIMEOUT.toSeconds() * 2, TimeUnit.SECONDS), "workers stop");
+
+        report(operations, seconds);
+        for (Operation operation : operations) {
+            EndpointStats stats = operation.stats;
+            assertTrue(stats.getRequests() > 0, stats.getEndpoint() + " is exercised");
+            assertTrue(stats.getFailures() <= stats.getRequests() * MAX_FAILURE_RATE,
+                    stats.getEndpoint() + " fails at most 1% of the requests, failed " + stats.getFailures());
+        }
+    }
+
+    // the generated rows are inserted in JDBC batches, the clients share a single hash to spare BCrypt
+    private void seed() {
+        LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.MINUTES);
+        List<Event> events = new ArrayList<>(BATCH_SIZE);
+        for (int i = 1; i <= eventCount; i++) {
+            events.add(event(i, now.plusMinutes(i * 7L % (365 * 24 * 60))));
+            if (events.size() == BATCH_SIZE || i == eventCount) {
+                bulkInsertRepository.insertEvents(events);
+                events.clear();
+            }
+        }
+
+        String hash = passwordEncoder.encode(PASSWORD);
+        List<Client> clients = new ArrayList<>(BATCH_SIZE);
+        for (int i = 1; i <= Math.max(clientCount, USERS); i++) {
+            Client client = new Client();
+            client.setUsername("loadClient" + i);
+            client.setEmail("loadClient" + i + "@dogginer.com");
+            client.setPassword(hash);
+            clients.add(client);
+            if (clients.size() == BATCH_SIZE || i == Math.max(clientCount, USERS)) {
+                bulkInsertRepository.insertClients(clients);
+                clients.clear();
+            }
+        }
+    }
+
+    // clients read the events and their own client, the listing of the clients and the writes are sent as the admin
+    private List<Operation> operations(int maxEventId) {
+        List<Operation> operations = new ArrayList<>();
+        operations.add(new Operation("GET /v1/events", 25, (random, clientId) -> new Request("GET",
+                "/v1/events?after=" + Cursor.of(random.nextInt(1, maxEventId)).encode(), null, 200, false)));
+        operations.add(new Operation("GET /v1/events?sort=date&days=30", 10, (random, clientId) -> new Request("GET",
+                "/v1/events?sort=date&days=30", null, 200, false)));
+        operations.add(new Operation("GET /v1/events/{id}", 30, (random, clientId) -> new Request("GET",
+                "/v1/events/" + random.nextInt(1, maxEventId + 1), null, 200, false)));
+        operations.add(new Operation("GET /v1/clients", 5, (random, clientId) -> new Request("GET",
+                "/v1/clients", null, 200, true)));
+        operations.add(new Operation("GET /v1/clients/{id}", 15, (random, clientId) -> new Request("GET",
+                "/v1/clients/" + clientId, null, 200, false)));
+        operations.add(new Operation("PATCH /v1/events/{id}", 8, (random, clientId) -> new Request("PATCH",
+                "/v1/events/" + random.nextInt(1, maxEventId + 1), "{\"price\":" + random.nextInt(1, 50) + ".5}",
+                200, true)));
+        operations.add(new Operation("POST /v1/events", 5, (random, clientId) -> new Request("POST",
+                "/v1/events", eventJson(random), 201, true)));
+        operations.add(new Operation("POST /v1/clients", 2, (random, clientId) -> {
+            int i = createdClients.incrementAndGet();
+            return new Request("POST", "/v1/clients", "{\"username\":\"newLoadClient" + i
+                    + "\",\"email\":\"newLoadClient" + i + "@dogginer.com\",\"password\":\"" + PASSWORD + "\"}",
+                    201, true);
+        }));
+        return operations;
+    }
+
+    private static String basic(String username, String password) {
+        return "Basic " + Base64.getEncoder()
+                .encodeToString((username + ":" + password).getBytes(StandardCharsets.UTF_8));
+    }
+
+    private HttpResponse<Void> send(Request request, String authorization) throws IOException, InterruptedException {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create("http://localhost:" + port + request.path))
+                .timeout(REQUEST_TIMEOUT)
+                .header("Authorization", authorization)
+                .header("Accept", "application/json, application/hal+json");
+        if (request.body != null) {
+            builder.header("Content-Type", "application/json")
+                    .method(request.method, HttpRequest.BodyPublishers.ofString(request.body));
+        } else {
+            builder.method(request.method, HttpRequest.BodyPublishers.noBody());
+        }
+        // the body is read to the end and dropped, so the connection goes back to the pool
+        return httpClient.send(builder.build(), HttpResponse.BodyHandlers.discarding());
+    }
+
+    private void report(List<Operation> operations, double seconds) throws IOException {
+        List<Map<String, Object>> results = new ArrayList<>();
+        StringBuilder table = new StringBuilder(String.format("%n%-36s %9s %9s %9s %9s %9s %9s %9s %9s%n",
+                "endpoint", "requests", "failures", "shed", "req/s", "p50 ms", "p99 ms", "p999 ms", "max ms"));
+        for (Operation operation : operations) {
+            EndpointStats stats = operation.stats;
+            table.append(String.format("%-36s %9d %9d %9d %9.1f %9.2f %9.2f %9.2f %9.2f%n", stats.getEndpoint(),
+                    stats.getRequests(), stats.getFailures(), stats.getShed(), stats.getRequests() / seconds,
+                    stats.percentile(50), stats.percentile(99), stats.percentile(99.9), stats.max()));
+
+            Map<String, Object> result = new LinkedHashMap<>();
+            result.put("endpoint", stats.getEndpoint());
+            result.put("requests", stats.getRequests());
+            result.put("failures", stats.getFailures());
+            result.put("shed", stats.getShed());
+            result.put("throughput", stats.getRequests() / seconds);
+            result.put("p50", stats.percentile(50));
+            result.put("p99", stats.percentile(99));
+            result.put("p999", stats.percentile(99.9));
+            result.put("max", stats.max());
+            results.add(result);
+        }
+        System.out.println(table);
+
+        Map<String, Object> run = new LinkedHashMap<>();
+        run.put("events", eventCount);
+        run.put("clients", clientCount);
+        run.put("workers", workers);
+        run.put("thinkTime", thinkTime.toMillis());
+        run.put("virtualThreads", virtualThreads);
+        run.put("seconds", seconds);
+        run.put("endpoints", results);
+        new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT)
+                .writeValue(new File("target/load-test-result.json"), run);
+    }
+
+    // false when interrupted, i.e. the run is over
+    private static boolean pause(long millis) {
+        if (millis <= 0) return true;
+        try {
+            Thread.sleep(millis);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private static Operation pick(List<Operation> operations, int draw) {
+        for (Operation operation : operations) {
+            draw -= operation.weight;
+            if (draw < 0) return operation;
+        }
+        throw new IllegalStateException("draw beyond the total weight");
+    }
+
+    private static Event event(int i, LocalDateTime date) {
+        Event event = new Event();
+        event.setTitle("loadEvent" + i);
+        event.setDescription("A walk in the park for dogs and their humans, number " + i);
+        event.setDate(date);
+        event.setPrice(i % 50 + 0.5);
+        event.setCapacity(20 + i % 30);
+        return event;
+    }
+
+    private static String eventJson(ThreadLocalRandom random) {
+        int i = random.nextInt(1_000_000);
+        return "{\"title\":\"loadEvent" + i + "\",\"description\":\"A walk in the park, number " + i
+                + "\",\"date\":\"" + LocalDateTime.now().plusDays(random.nextInt(1, 365)).truncatedTo(ChronoUnit.MINUTES)
+                + "\",\"price\":" + (i % 50 + 0.5) + ",\"capacity\":30}";
+    }
+
+    private static final class Operation {
+        private final EndpointStats stats;
+        private final int weight;
+        // the request of the client with the given id
+        private final BiFunction<ThreadLocalRandom, Integer, Request> request;
+
+        private Operation(String endpoint, int weight, BiFunction<ThreadLocalRandom, Integer, Request> request) {
+            this.stats = new EndpointStats(endpoint);
+            this.weight = weight;
+            this.request = request;
+        }
+    }
+
+    private static final class Request {
+        private final String method;
+        private final String path;
+        private final String body;
+        private final int expectedStatus;
+        private final boolean admin;
+
+        private Request(String method, String path, String body, int expectedStatus, boolean admin) {
+            this.method = method;
+            this.path = path;
+            this.body = body;
+            this.expectedStatus = expectedStatus;
+            this.admin = admin;
+        }
+    }
+}
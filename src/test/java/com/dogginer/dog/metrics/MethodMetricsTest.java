@@ -0,0 +1,68 @@
+package com.dogginer.dog.metrics;
+
+import com.dogginer.dog.exception.ResourceNotFoundException;
+import com.dogginer.dog.service.IEventService;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = "management.endpoints.web.exposure.include=prometheus")
+@AutoConfigureObservability
+@AutoConfigureMockMvc
+public class MethodMetricsTest {
+
+    @Autowired private IEventService eventService;
+    @Autowired private MeterRegistry meterRegistry;
+    @Autowired private MockMvc mockMvc;
+
+    @Test
+    void serviceAndRepositoryMetrics() throws Exception {
+        eventService.findAll();
+        eventService.findAll();
+        assertThrows(ResourceNotFoundException.class, () -> eventService.findById(99), "missing events are not found");
+
+        Timer findAll = meterRegistry.find(MethodMetricsInterceptor.TIMER)
+                .tags("layer", "service", "operation", "IEventService.findAll", "exception", "none").timer();
+        assertNotNull(findAll, "service calls are timed");
+        assertEquals(2, findAll.count(), "every call is recorded");
+        DistributionSummary rows = meterRegistry.find(MethodMetricsInterceptor.ROWS)
+                .tags("operation", "IEventService.findAll").summary();
+        assertNotNull(rows, "rows of collection results are counted");
+        assertEquals(6, rows.totalAmount(), "the rows of both calls are counted");
+
+        assertNotNull(meterRegistry.find(MethodMetricsInterceptor.TIMER)
+                .tags("operation", "IEventService.findById", "exception", "ResourceNotFoundException").timer(),
+                "failed calls are timed by exception");
+        assertNotNull(meterRegistry.find(MethodMetricsInterceptor.TIMER)
+                .tags("layer", "repository", "operation", "IEventRepository.findAll").timer(),
+                "Spring Data repositories are timed with their interface");
+        DistributionSummary findById = meterRegistry.find(MethodMetricsInterceptor.ROWS)
+                .tags("operation", "IEventRepository.findById").summary();
+        assertNotNull(findById, "optional results are counted");
+        assertEquals(0, findById.totalAmount(), "a missing row counts none");
+
+        String admin = Base64.getEncoder().encodeToString("admin:admin123".getBytes(StandardCharsets.UTF_8));
+        mockMvc.perform(get("/actuator/prometheus").header(HttpHeaders.AUTHORIZATION, "Basic " + admin))
+                .andExpect(status().isOk())
+                .andExpect(content().string(containsString(
+                        "dogginer_invocations_seconds_bucket{exception=\"none\",layer=\"service\",operation=\"IEventService.findAll\"")))
+                .andExpect(content().string(containsString("dogginer_password_hash_seconds")))
+                .andExpect(content().string(containsString("hibernate_second_level_cache_requests_total")));
+    }
+}
@@ -2,10 +2,14 @@ package com.dogginer.dog.repository;
 
 import com.dogginer.dog.exception.ResourceNotFoundException;
 import com.dogginer.dog.model.Client;
+import com.dogginer.dog.model.ClientCredentials;
+import com.dogginer.dog.model.ClientSummary;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 
 import java.util.List;
@@ -43,4 +47,42 @@ public class ClientRepositoryTest {
         Optional<Client> client = clientRepository.findById(0);
         assertFalse(client.isPresent(), "client doesn't exist");
     }
+
+    @Test
+    void findCredentialsByUsername() {
+        Optional<ClientCredentials> credentials = clientRepository.findCredentialsByUsername("testClient1");
+        assertTrue(credentials.isPresent(), "client exists");
+        assertEquals(1, credentials.get().getClientId(), "correct client id");
+        assertEquals("testClient1", credentials.get().getUsername(), "correct username");
+        assertTrue(credentials.get().getPassword().startsWith("$2a$"), "password hash is returned");
+
+        assertFalse(clientRepository.findCredentialsByUsername("testclient").isPresent(),
+                "username must match exactly");
+    }
+
+    @Test
+    void findSummaries() {
+        Slice<ClientSummary> slice = clientRepository.findSummaries(null, null, PageRequest.of(0, 2));
+        assertEquals(2, slice.getNumberOfElements(), "page size is honoured");
+        assertTrue(slice.hasNext(), "a following slice exists");
+        assertEquals("testClient1", slice.getContent().get(0).getUsername(), "clients are ordered by id");
+
+        slice = clientRepository.findSummaries(null, "testClient3%", PageRequest.of(0, 2));
+        assertEquals(1, slice.getNumberOfElements(), "email prefix is applied");
+        assertEquals("testClient3@email.com", slice.getContent().get(0).getEmail(), "email prefix is applied");
+    }
+
+    @Test
+    void findSummariesAfterAndBefore() {
+        List<ClientSummary> clients = clientRepository.findSummariesAfter(1, "testClient%", null, PageRequest.of(0, 5));
+        assertEquals(2, clients.size(), "only clients after the cursor are returned");
+        assertEquals(2, clients.get(0).getClientId(), "clients are in ascending order");
+
+        clients = clientRepository.findSummariesBefore(3, null, null, PageRequest.of(0, 5));
+        assertEquals(2, clients.size(), "only clients before the cursor are returned");
+        assertEquals(2, clients.get(0).getClientId(), "clients are in descending order");
+
+        clients = clientRepository.findSummariesAfter(0, "testClient\\_%", null, PageRequest.of(0, 5));
+        assertTrue(clients.isEmpty(), "escaped wildcards are matched literally");
+    }
 }
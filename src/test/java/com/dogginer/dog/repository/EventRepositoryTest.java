@@ -0,0 +1,122 @@
+package com.dogginer.dog.repository;
+
+import com.dogginer.dog.model.Event;
+import com.dogginer.dog.query.Cursor;
+import com.dogginer.dog.query.EventFilter;
+import com.dogginer.dog.query.EventSort;
+import com.dogginer.dog.support.StatementRecorder;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+@Import(StatementRecorder.class)
+public class EventRepositoryTest {
+
+    @Autowired private IEventRepository eventRepository;
+    @Autowired private StatementRecorder statementRecorder;
+    @Autowired private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void findPage_byId() {
+        List<Event> events = eventRepository.findPage(new EventFilter(), EventSort.ID, null, false, 2);
+        assertEquals(2, events.size(), "limit is applied");
+        assertEquals(1, events.get(0).getEventId(), "events are ordered by id");
+        assertEquals(2, events.get(1).getEventId(), "events are ordered by id");
+
+        events = eventRepository.findPage(new EventFilter(), EventSort.ID, Cursor.of(2), false, 2);
+        assertEquals(1, events.size(), "only events after the cursor are returned");
+        assertEquals(3, events.get(0).getEventId(), "events after the cursor are returned");
+
+        events = eventRepository.findPage(new EventFilter(), EventSort.ID, Cursor.of(3), true, 5);
+        assertEquals(2, events.size(), "only events before the cursor are returned");
+        assertEquals(2, events.get(0).getEventId(), "backwards pages are read in reverse order");
+    }
+
+    @Test
+    void findPage_byDate() {
+        Cursor cursor = new Cursor(1, LocalDateTime.of(2022, 10, 23, 0, 0));
+        List<Event> events = eventRepository.findPage(new EventFilter(), EventSort.DATE, cursor, false, 5);
+        assertEquals(2, events.size(), "events after the cursor date are returned");
+        assertEquals("eventTitle2", events.get(0).getTitle(), "events are ordered by date");
+
+        events = eventRepository.findPage(new EventFilter(), EventSort.DATE, cursor, true, 5);
+        assertTrue(events.isEmpty(), "no event precedes the first one");
+    }
+
+    @Test
+    void findPage_filters() {
+        EventFilter filter = new EventFilter();
+        filter.setFrom(LocalDateTime.of(2022, 11, 1, 0, 0));
+        filter.setTo(LocalDateTime.of(2022, 12, 31, 0, 0));
+        assertEquals(2, eventRepository.findPage(filter, EventSort.ID, null, false, 5).size(),
+                "date range is applied");
+
+        filter = new EventFilter();
+        filter.setMinPrice(0.015);
+        filter.setMaxPrice(0.025);
+        List<Event> events = eventRepository.findPage(filter, EventSort.ID, null, false, 5);
+        assertEquals(1, events.size(), "price range is applied");
+        assertEquals("eventTitle2", events.get(0).getTitle(), "price range is applied");
+
+        filter = new EventFilter();
+        filter.setTitle("eventTitle3");
+        assertEquals(1, eventRepository.findPage(filter, EventSort.ID, null, false, 5).size(),
+                "title prefix is applied");
+
+        filter.setTitle("event%");
+        assertTrue(eventRepository.findPage(filter, EventSort.ID, null, false, 5).isEmpty(),
+                "wildcards in the title prefix are matched literally");
+    }
+
+    @Test
+    void findPage_byPrice() {
+        List<Event> events = eventRepository.findPage(new EventFilter(), EventSort.PRICE, null, false, 5);
+        assertEquals("eventTitle1", events.get(0).getTitle(), "events are ordered cheapest first");
+
+        events = eventRepository.findPage(new EventFilter(), EventSort.PRICE, Cursor.ofPrice(1, 0.01), false, 5);
+        assertEquals(2, events.size(), "events after the cursor price are returned");
+        assertEquals("eventTitle2", events.get(0).getTitle(), "events are ordered by price");
+
+        events = eventRepository.findPage(new EventFilter(), EventSort.PRICE, Cursor.ofPrice(3, 0.03), true, 5);
+        assertEquals("eventTitle2", events.get(0).getTitle(), "backwards pages are read in reverse order");
+    }
+
+    @Test
+    void findPage_dateWindowUsesDateIndex() {
+        assertEquals(2, eventRepository.findPage(window(), EventSort.DATE, null, false, 5).size(),
+                "date window is applied");
+        assertTrue(plan().contains("IDX_EVENTS_DATE_ID"), "the date window is read through (date, event_id)");
+    }
+
+    @Test
+    void findPage_priceWindowUsesPriceIndex() {
+        EventFilter filter = window();
+        filter.setMinPrice(0.015);
+        assertEquals(2, eventRepository.findPage(filter, EventSort.PRICE, null, false, 5).size(),
+                "date window is applied");
+        assertTrue(plan().contains("IDX_EVENTS_DATE_PRICE"),
+                "the price bound of a date window is checked in (date, price)");
+    }
+
+    private static EventFilter window() {
+        EventFilter filter = new EventFilter();
+        filter.setFrom(LocalDateTime.of(2022, 11, 1, 0, 0));
+        filter.setTo(LocalDateTime.of(2022, 12, 31, 0, 0));
+        return filter;
+    }
+
+    // H2 plan of the last event listing sent to the database
+    private String plan() {
+        List<String> selects = statementRecorder.getStatements("select");
+        assertFalse(selects.isEmpty(), "the listing reached the database");
+        return jdbcTemplate.queryForObject("EXPLAIN " + selects.get(selects.size() - 1), String.class);
+    }
+}
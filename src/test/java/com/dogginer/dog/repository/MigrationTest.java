@@ -0,0 +1,77 @@
+package com.dogginer.dog.repository;
+
+import com.dogginer.dog.model.Client;
+import com.dogginer.dog.model.Event;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Builds the schema from the migrations on H2 in MySQL mode and checks that the entities map onto it.
+ * Hibernate's validate mode is not used as it rejects the DECIMAL price mapped to a Double.
+ */
+@DataJpaTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:migrations;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+        "spring.flyway.enabled=true",
+        "spring.jpa.hibernate.ddl-auto=none"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+public class MigrationTest {
+
+    @Autowired private Flyway flyway;
+    @Autowired private JdbcTemplate jdbcTemplate;
+    @Autowired private TestEntityManager entityManager;
+    @Autowired private IEventRepository eventRepository;
+    @Autowired private IClientRepository clientRepository;
+
+    @Test
+    void migrate() {
+        assertEquals(0, flyway.info().pending().length, "every migration is applied");
+        assertDoesNotThrow(() -> flyway.validate(), "applied migrations match the scripts");
+
+        List<String> indexes = jdbcTemplate.queryForList(
+                "SELECT index_name FROM information_schema.indexes WHERE table_name = 'events'", String.class);
+        assertTrue(indexes.contains("idx_events_date_id"), "date window index is created");
+        assertTrue(indexes.contains("idx_events_date_price"), "price window index is created");
+    }
+
+    @Test
+    void roundTrip() {
+        Client client = new Client();
+        client.setUsername("migrationClient");
+        client.setEmail("migration@dogginer.com");
+        client.setPassword("password");
+        client = clientRepository.saveAndFlush(client);
+        assertEquals(0, client.getVersion(), "clients start at version 0");
+
+        Event event = new Event();
+        event.setTitle("migrationEvent");
+        event.setDescription("migrationDescription");
+        event.setDate(LocalDateTime.of(2022, 10, 23, 0, 0));
+        event.setPrice(0.01);
+        event.setCapacity(10);
+        event = eventRepository.saveAndFlush(event);
+        assertEquals(0, event.getVersion(), "events start at version 0");
+        entityManager.clear();
+        // the JCache regions are shared by every context of the test run, and the ids of this database
+        // start over, so an event of another context could be read from the second-level cache
+        entityManager.getEntityManager().getEntityManagerFactory().getCache().evictAll();
+
+        Event found = eventRepository.findById(event.getEventId()).orElseThrow(AssertionError::new);
+        assertEquals("migrationEvent", found.getTitle(), "event is read back");
+        assertEquals(0.01, found.getPrice(), "price is read back");
+        assertEquals(0, found.getAttendeeCount(), "attendee count defaults to 0");
+        assertNotNull(found.getUpdatedAt(), "update time is set");
+        assertEquals("migrationClient", clientRepository.findById(client.getClientId())
+                .orElseThrow(AssertionError::new).getUsername(), "client is read back");
+    }
+}
@@ -0,0 +1,49 @@
+package com.dogginer.dog.search;
+
+import com.dogginer.dog.exception.BadRequestException;
+import com.dogginer.dog.model.Client;
+import com.dogginer.dog.model.Suggestion;
+import com.dogginer.dog.service.IClientService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+public class ClientSearchIndexTest {
+
+    @Autowired private ClientSearchIndex searchIndex;
+    @Autowired private IClientService clientService;
+
+    @Test
+    void suggestClients() throws Exception {
+        searchIndex.rebuild().get();
+        assertTrue(searchIndex.isReady(), "index is ready once rebuilt");
+
+        List<Suggestion> suggestions = clientService.suggest("TESTclient", 2);
+        assertEquals(2, suggestions.size(), "limit is applied");
+        assertEquals("testClient1", suggestions.get(0).getValue(), "usernames are matched ignoring case");
+
+        Client client = new Client();
+        client.setUsername("suggestedClient");
+        client.setEmail("suggested@email.com");
+        client.setPassword("password");
+        Client created = clientService.addClient(client);
+        assertEquals(created.getClientId(), clientService.suggest("sugg", 10).get(0).getId(),
+                "created clients are indexed");
+
+        Client update = new Client();
+        update.setUsername("renamedClient");
+        clientService.partiallyUpdateClient(created.getClientId(), update);
+        assertTrue(clientService.suggest("sugg", 10).isEmpty(), "old usernames are removed");
+        assertEquals(1, clientService.suggest("renamed", 10).size(), "new usernames are indexed");
+
+        clientService.deleteById(created.getClientId());
+        assertTrue(clientService.suggest("renamed", 10).isEmpty(), "deleted clients are removed");
+
+        assertThrows(BadRequestException.class, () -> clientService.suggest("", 10), "empty prefixes are rejected");
+    }
+}
@@ -0,0 +1,55 @@
+package com.dogginer.dog.search;
+
+import com.dogginer.dog.exception.BadRequestException;
+import com.dogginer.dog.model.Event;
+import com.dogginer.dog.service.IEventService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+public class EventSearchIndexTest {
+
+    @Autowired private EventSearchIndex searchIndex;
+    @Autowired private IEventService eventService;
+
+    @Test
+    void searchEvents() throws Exception {
+        searchIndex.rebuild().get();
+        assertTrue(searchIndex.isReady(), "index is ready once rebuilt");
+
+        List<Event> events = eventService.search("eventDescription2", 10);
+        assertEquals(1, events.size(), "descriptions are searched");
+        assertEquals("eventTitle2", events.get(0).getTitle(), "matching event is returned");
+
+        Event event = new Event();
+        event.setTitle("Retriever walk");
+        event.setDescription("A long walk by the river");
+        event.setDate(LocalDateTime.of(2022, 12, 1, 10, 0));
+        event.setPrice(1.0);
+        Event created = eventService.addEvent(event);
+        assertEquals(created.getEventId(), eventService.search("walk", 10).get(0).getEventId(),
+                "created events are indexed");
+        assertEquals(created.getEventId(), eventService.suggest("retr", 10).get(0).getId(),
+                "created titles are suggested");
+        assertEquals(3, eventService.suggest("eventTitle", 10).size(), "titles are suggested by prefix");
+
+        Event update = new Event();
+        update.setDescription("A short swim in the lake");
+        eventService.partiallyUpdateEvent(created.getEventId(), update);
+        assertEquals(1, eventService.search("walk", 10).size(), "title terms stay indexed");
+        assertEquals(1, eventService.search("lake", 10).size(), "updated descriptions are indexed");
+        assertTrue(eventService.search("river", 10).isEmpty(), "replaced terms are dropped");
+
+        eventService.deleteById(created.getEventId());
+        assertTrue(eventService.search("walk", 10).isEmpty(), "deleted events are removed");
+        assertTrue(eventService.suggest("Retriever", 10).isEmpty(), "deleted titles are removed");
+
+        assertThrows(BadRequestException.class, () -> eventService.search(" ", 10), "blank queries are rejected");
+    }
+}
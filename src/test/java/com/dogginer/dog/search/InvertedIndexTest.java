@@ -0,0 +1,62 @@
+package com.dogginer.dog.search;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class InvertedIndexTest {
+
+    private InvertedIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new InvertedIndex();
+        index.put(1, "Puppy training", "Basic obedience for young dogs");
+        index.put(2, "Dog park meetup", "Let the dogs run, bring a ball for the puppy");
+        index.put(3, "Agility course", "Jumps, tunnels and weave poles");
+    }
+
+    @Test
+    void search() {
+        assertEquals(Arrays.asList(1, 2), ids(index.search("puppy", 10)), "title matches rank first");
+        assertEquals(Arrays.asList(3), ids(index.search("TUNNELS!", 10)), "terms are case insensitive");
+        assertEquals(Arrays.asList(3, 1, 2), ids(index.search("puppy weave", 10)),
+                "any term matches, rarer terms weigh more");
+        assertEquals(Arrays.asList(1), ids(index.search("puppy", 1)), "limit is applied");
+        assertTrue(index.search("cat", 10).isEmpty(), "unknown terms match nothing");
+        assertTrue(index.search("  ", 10).isEmpty(), "blank queries match nothing");
+
+        List<InvertedIndex.Hit> hits = index.search("dogs ball", 10);
+        assertEquals(2, hits.get(0).getId(), "more matching terms rank higher");
+        assertTrue(hits.get(0).getScore() > hits.get(1).getScore(), "hits are ordered by score");
+    }
+
+    @Test
+    void update() {
+        index.put(3, "Puppy agility", "Tunnels for puppies");
+        assertEquals(3, index.size(), "replacing a document keeps one copy of it");
+        assertTrue(ids(index.search("puppy", 10)).contains(3), "new terms are indexed");
+        assertTrue(index.search("weave", 10).isEmpty(), "old terms are removed");
+
+        index.remove(1);
+        index.remove(42);
+        assertEquals(2, index.size(), "removed documents are dropped");
+        assertEquals(Arrays.asList(3, 2), ids(index.search("puppy", 10)), "removed documents don't match");
+    }
+
+    @Test
+    void tokenize() {
+        assertEquals(Arrays.asList("dog", "s", "day", "2022"), InvertedIndex.tokenize("Dog's day, 2022"),
+                "text is split on anything but letters and digits");
+        assertTrue(InvertedIndex.tokenize(null).isEmpty(), "null text has no terms");
+    }
+
+    private static List<Integer> ids(List<InvertedIndex.Hit> hits) {
+        return hits.stream().map(InvertedIndex.Hit::getId).collect(Collectors.toList());
+    }
+}
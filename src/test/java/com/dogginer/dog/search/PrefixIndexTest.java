@@ -0,0 +1,69 @@
+package com.dogginer.dog.search;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PrefixIndexTest {
+
+    private PrefixIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new PrefixIndex();
+        for (int id = 1; id <= 40; id++) index.put(id, "walk" + id);
+        index.put(41, "Puppy training");
+        index.put(42, "puppy park");
+        index.put(43, "Agility");
+    }
+
+    @Test
+    void suggest() {
+        assertEquals(Arrays.asList("puppy park", "Puppy training"), values(index.suggest("PUP", 10)),
+                "prefixes match ignoring case, in alphabetical order");
+        assertEquals(Arrays.asList("walk1", "walk10"), values(index.suggest("walk1", 2)), "limit is applied");
+        assertEquals(11, index.suggest("walk1", 20).size(), "the whole run of matches is returned");
+        assertTrue(index.suggest("puppy parks", 10).isEmpty(), "longer prefixes don't match");
+        assertTrue(index.suggest("zebra", 10).isEmpty(), "prefixes past the last key match nothing");
+        assertTrue(index.suggest("", 10).isEmpty(), "empty prefixes match nothing");
+        assertEquals(43, index.suggest("agi", 10).get(0).getId(), "the id of the match is returned");
+    }
+
+    @Test
+    void update() {
+        index.put(43, "Puppy agility");
+        assertEquals(43, index.size(), "replacing a value keeps one copy of it");
+        assertTrue(index.suggest("agi", 10).isEmpty(), "old value is removed");
+        assertEquals(Arrays.asList("Puppy agility", "puppy park", "Puppy training"), values(index.suggest("puppy", 10)),
+                "new value is indexed");
+
+        index.remove(42);
+        index.remove(99);
+        assertEquals(42, index.size(), "removed values are dropped");
+        assertEquals(Arrays.asList("Puppy agility", "Puppy training"), values(index.suggest("puppy", 10)),
+                "removed values don't match");
+    }
+
+    @Test
+    void bulkLoad() {
+        PrefixIndex loaded = new PrefixIndex();
+        loaded.append(2, "puppy park");
+        loaded.append(1, "Puppy training");
+        loaded.append(3, "Agility");
+        loaded.sort();
+        assertEquals(Arrays.asList("puppy park", "Puppy training"), values(loaded.suggest("pup", 10)),
+                "appended values are found once sorted");
+
+        loaded.put(4, "Puppy agility");
+        assertEquals(3, loaded.suggest("pup", 10).size(), "values can be added after the bulk load");
+    }
+
+    private static List<String> values(List<PrefixIndex.Match> matches) {
+        return matches.stream().map(PrefixIndex.Match::getValue).collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,76 @@
+package com.dogginer.dog.security;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.RequestPostProcessor;
+
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.httpBasic;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = "management.endpoints.web.exposure.include=env,statements")
+@AutoConfigureMockMvc
+class AuthorizationTest {
+
+    // testClient1 has the clientId 1, testClient2 the clientId 2
+    private static final RequestPostProcessor CLIENT_1 = SecurityMockMvcRequestPostProcessors.user(
+            new ClientUser(1, "testClient1", "{noop}testPassword1",
+                    AuthorityUtils.createAuthorityList("ROLE_" + ClientUserDetailsService.CLIENT_ROLE)));
+    private static final RequestPostProcessor ADMIN = httpBasic("admin", "admin123");
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    void clientsCantWriteOtherClients() throws Exception {
+        mockMvc.perform(put("/v1/clients/2").with(CLIENT_1)
+                        .contentType(MediaType.APPLICATION_JSON).content("{\"username\":\"stolen\"}"))
+                .andExpect(status().isForbidden());
+        mockMvc.perform(patch("/v1/clients/2").with(CLIENT_1)
+                        .contentType(MediaType.APPLICATION_JSON).content("{\"email\":\"stolen@email.com\"}"))
+                .andExpect(status().isForbidden());
+        mockMvc.perform(delete("/v1/clients/2").with(CLIENT_1))
+                .andExpect(status().isForbidden());
+        mockMvc.perform(put("/v1/clients/2/password").with(CLIENT_1)
+                        .contentType(MediaType.APPLICATION_JSON).content("{\"password\":\"stolen\"}"))
+                .andExpect(status().isForbidden());
+        mockMvc.perform(post("/v1/events/1/attendees/2").with(CLIENT_1))
+                .andExpect(status().isForbidden());
+    }
+
+    @Test
+    void clientsReadTheirOwnClient() throws Exception {
+        mockMvc.perform(get("/v1/clients/1").with(CLIENT_1)).andExpect(status().isOk());
+        mockMvc.perform(get("/v1/clients/1/events").with(CLIENT_1)).andExpect(status().isOk());
+        mockMvc.perform(get("/v1/clients/2").with(CLIENT_1)).andExpect(status().isForbidden());
+        mockMvc.perform(get("/v1/clients").with(CLIENT_1)).andExpect(status().isForbidden());
+        mockMvc.perform(get("/v1/clients/2").with(ADMIN)).andExpect(status().isOk());
+    }
+
+    @Test
+    void clientsOnlyReadEvents() throws Exception {
+        mockMvc.perform(get("/v1/events/1").with(CLIENT_1)).andExpect(status().isOk());
+        mockMvc.perform(post("/v1/events").with(CLIENT_1)
+                        .contentType(MediaType.APPLICATION_JSON).content("{\"title\":\"newEvent\"}"))
+                .andExpect(status().isForbidden());
+        mockMvc.perform(delete("/v1/events/1").with(CLIENT_1)).andExpect(status().isForbidden());
+        mockMvc.perform(get("/v1/events/export").with(CLIENT_1)).andExpect(status().isForbidden());
+        mockMvc.perform(post("/v1/events:bulk").with(CLIENT_1)
+                        .contentType(MediaType.APPLICATION_JSON).content("[]"))
+                .andExpect(status().isForbidden());
+    }
+
+    @Test
+    void actuatorIsForAdmins() throws Exception {
+        mockMvc.perform(get("/actuator/env").with(CLIENT_1)).andExpect(status().isForbidden());
+        mockMvc.perform(delete("/actuator/statements").with(CLIENT_1)).andExpect(status().isForbidden());
+        mockMvc.perform(get("/actuator/env").with(ADMIN)).andExpect(status().isOk());
+        mockMvc.perform(get("/actuator/env")).andExpect(status().isUnauthorized());
+    }
+}
@@ -0,0 +1,65 @@
+package com.dogginer.dog.security;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.AuthenticationProvider;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.AuthorityUtils;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.*;
+
+class CachingAuthenticationProviderTest {
+
+    private AuthenticationProvider delegate;
+    private CachingAuthenticationProvider provider;
+
+    @BeforeEach
+    void setUp() {
+        delegate = mock(AuthenticationProvider.class);
+        when(delegate.supports(any())).thenReturn(true);
+        when(delegate.authenticate(argThat(a -> a != null && "admin123".equals(a.getCredentials()))))
+                .thenAnswer(invocation -> authenticated(invocation.getArgument(0)));
+        when(delegate.authenticate(argThat(a -> a != null && !"admin123".equals(a.getCredentials()))))
+                .thenThrow(new BadCredentialsException("Bad credentials"));
+        provider = new CachingAuthenticationProvider(delegate, Duration.ofMinutes(1), 100);
+    }
+
+    @Test
+    void authenticate() {
+        Authentication first = provider.authenticate(token("admin", "admin123"));
+        Authentication second = provider.authenticate(token("admin", "admin123"));
+        assertTrue(second.isAuthenticated(), "cached credentials authenticate");
+        assertSame(first, second, "cached authentication is returned");
+        verify(delegate, times(1)).authenticate(any());
+
+        assertThrows(BadCredentialsException.class, () -> provider.authenticate(token("admin", "wrong")),
+                "a different password is verified by the delegate");
+        assertThrows(BadCredentialsException.class, () -> provider.authenticate(token("admin", "wrong")),
+                "failed attempts are not cached");
+        verify(delegate, times(3)).authenticate(any());
+    }
+
+    @Test
+    void evict() {
+        provider.authenticate(token("admin", "admin123"));
+        provider.evict("admin");
+        provider.authenticate(token("admin", "admin123"));
+        verify(delegate, times(2)).authenticate(any());
+    }
+
+    private static UsernamePasswordAuthenticationToken token(String username, String password) {
+        return new UsernamePasswordAuthenticationToken(username, password);
+    }
+
+    private static Authentication authenticated(Authentication authentication) {
+        return new UsernamePasswordAuthenticationToken(authentication.getName(), null,
+                AuthorityUtils.createAuthorityList("ROLE_ADMIN"));
+    }
+}
@@ -0,0 +1,91 @@
+package com.dogginer.dog.security;
+
+import com.dogginer.dog.model.Client;
+import com.dogginer.dog.model.ClientCredentials;
+import com.dogginer.dog.repository.IClientRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.security.provisioning.InMemoryUserDetailsManager;
+
+import java.time.Duration;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+class ClientUserDetailsServiceTest {
+
+    private IClientRepository clientRepository;
+    private CaffeineUserCache userCache;
+    private ClientUserDetailsService userDetailsService;
+
+    @BeforeEach
+    void setUp() {
+        clientRepository = mock(IClientRepository.class);
+        when(clientRepository.findCredentialsByUsername(anyString())).thenReturn(Optional.empty());
+        when(clientRepository.findCredentialsByUsername("testClient1"))
+                .thenReturn(Optional.of(new ClientCredentials(1, "testClient1", "{hash}")));
+        UserDetails admin = User.withUsername("admin").password("{admin}").roles("ADMIN").build();
+        userCache = new CaffeineUserCache(Duration.ofMinutes(1), 100);
+        userDetailsService = new ClientUserDetailsService(clientRepository, new InMemoryUserDetailsManager(admin),
+                userCache);
+    }
+
+    @Test
+    void loadUserByUsername() {
+        UserDetails client = userDetailsService.loadUserByUsername("testClient1");
+        assertEquals("testClient1", client.getUsername(), "correct username is returned");
+        assertEquals("{hash}", client.getPassword(), "password hash is returned");
+        assertTrue(client.getAuthorities().stream().anyMatch(a -> a.getAuthority().equals("ROLE_CLIENT")),
+                "clients have the client role");
+        assertEquals(1, ((ClientUser) client).getClientId(), "clients carry their client id");
+
+        UserDetails admin = userDetailsService.loadUserByUsername("admin");
+        assertTrue(admin.getAuthorities().stream().anyMatch(a -> a.getAuthority().equals("ROLE_ADMIN")),
+                "built-in users are kept");
+        verify(clientRepository, never()).findCredentialsByUsername("admin");
+
+        assertThrows(UsernameNotFoundException.class, () -> userDetailsService.loadUserByUsername("nobody"),
+                "inexistent user throws exception");
+    }
+
+    @Test
+    void updatePassword() {
+        Client client = new Client();
+        client.setUsername("testClient1");
+        client.setPassword("{hash}");
+        when(clientRepository.findByUsername("testClient1")).thenReturn(Optional.of(client));
+        UserDetails user = userDetailsService.loadUserByUsername("testClient1");
+        userCache.putUserInCache(user);
+
+        UserDetails upgraded = userDetailsService.updatePassword(user, "{stronger}");
+        assertEquals("{stronger}", upgraded.getPassword(), "upgraded user is returned");
+        assertEquals(1, ((ClientUser) upgraded).getClientId(), "upgraded client keeps its client id");
+        assertEquals("{stronger}", client.getPassword(), "upgraded hash is stored");
+        verify(clientRepository).save(client);
+        assertNull(userCache.getUserFromCache("testClient1"), "user with the old hash is evicted");
+
+        userDetailsService.updatePassword(userDetailsService.loadUserByUsername("admin"), "{new}");
+        assertEquals("{new}", userDetailsService.loadUserByUsername("admin").getPassword(),
+                "built-in users are upgraded in memory");
+        verify(clientRepository, never()).findByUsername("admin");
+    }
+
+    @Test
+    void userCache() {
+        UserDetails client = userDetailsService.loadUserByUsername("testClient1");
+        userCache.putUserInCache(client);
+        ((User) client).eraseCredentials();
+
+        assertEquals("{hash}", userCache.getUserFromCache("testClient1").getPassword(),
+                "erasing the authenticated user doesn't erase the cached one");
+        assertEquals(1, ((ClientUser) userCache.getUserFromCache("testClient1")).getClientId(),
+                "cached clients keep their client id");
+        userCache.removeUserFromCache("testClient1");
+        assertNull(userCache.getUserFromCache("testClient1"), "evicted user is not cached");
+    }
+}
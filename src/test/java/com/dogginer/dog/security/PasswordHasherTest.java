@@ -0,0 +1,45 @@
+package com.dogginer.dog.security;
+
+import com.dogginer.dog.exception.ServiceUnavailableException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class PasswordHasherTest {
+
+    @Test
+    void encode() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        BCryptPasswordEncoder encoder = mock(BCryptPasswordEncoder.class);
+        when(encoder.encode(any())).then(invocation -> {
+            release.await();
+            return "hash:" + invocation.getArgument(0);
+        });
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        PasswordHasher hasher = new PasswordHasher(encoder, meterRegistry, 1, 1);
+        try {
+            CompletableFuture<String> running = hasher.encode("pwd1");
+            CompletableFuture<String> queued = hasher.encode("pwd2");
+            assertThrows(ServiceUnavailableException.class, () -> hasher.encode("pwd3"),
+                    "saturated pool rejects new work");
+
+            release.countDown();
+            assertEquals("hash:pwd1", running.get(), "running hash completes");
+            assertEquals("hash:pwd2", queued.get(), "queued hash completes");
+            assertEquals(2, meterRegistry.get("dogginer.password.hash").timer().count(), "hash latency is recorded");
+            assertNotNull(meterRegistry.find("executor.queued").tag("name", PasswordHasher.POOL_NAME).gauge(),
+                    "queue depth is published");
+        } finally {
+            release.countDown();
+            hasher.shutdown();
+        }
+    }
+}
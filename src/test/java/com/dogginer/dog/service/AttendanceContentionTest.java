@@ -0,0 +1,92 @@
+package com.dogginer.dog.service;
+
+import com.dogginer.dog.exception.ConflictException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Thousands of concurrent signups for a single event must never exceed its capacity
+ */
+@SpringBootTest
+class AttendanceContentionTest {
+
+    private static final int SIGNUPS = 2000;
+    private static final int CAPACITY = 150;
+    private static final int THREADS = 32;
+
+    @Autowired
+    private IAttendanceService attendanceService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private int eventId;
+    private int firstClientId;
+
+    @BeforeEach
+    void createEventAndClients() {
+        jdbcTemplate.update("INSERT INTO events (title, description, date, price, capacity) " +
+                "VALUES ('contendedEvent', 'contendedEvent', '2022-10-23', 1.0, ?)", CAPACITY);
+        eventId = jdbcTemplate.queryForObject(
+                "SELECT event_id FROM events WHERE title = 'contendedEvent'", Integer.class);
+
+        List<Object[]> clients = new ArrayList<>();
+        for (int i = 0; i < SIGNUPS; i++)
+            clients.add(new Object[]{"contender" + i, "contender" + i + "@email.com", "pwd"});
+        jdbcTemplate.batchUpdate("INSERT INTO clients (username, email, password) VALUES (?, ?, ?)", clients);
+        firstClientId = jdbcTemplate.queryForObject(
+                "SELECT MIN(client_id) FROM clients WHERE username LIKE 'contender%'", Integer.class);
+    }
+
+    @AfterEach
+    void deleteEventAndClients() {
+        jdbcTemplate.update("DELETE FROM attendees WHERE event_id = ?", eventId);
+        jdbcTemplate.update("DELETE FROM events WHERE event_id = ?", eventId);
+        jdbcTemplate.update("DELETE FROM clients WHERE username LIKE 'contender%'");
+    }
+
+    @Test
+    void concurrentSignupsNeverOversell() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger accepted = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+
+        List<Future<?>> signups = new ArrayList<>();
+        for (int i = 0; i < SIGNUPS; i++) {
+            int clientId = firstClientId + i;
+            signups.add(executor.submit(() -> {
+                start.await();
+                try {
+                    if (attendanceService.addAttendee(eventId, clientId)) accepted.incrementAndGet();
+                } catch (ConflictException e) {
+                    rejected.incrementAndGet();
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> signup : signups) signup.get(60, TimeUnit.SECONDS);
+        executor.shutdown();
+
+        assertEquals(CAPACITY, accepted.get(), "exactly the capacity of the event is accepted");
+        assertEquals(SIGNUPS - CAPACITY, rejected.get(), "every other signup is rejected");
+        assertEquals(CAPACITY, (int) jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM attendees WHERE event_id = ?", Integer.class, eventId),
+                "no attendee row over capacity is stored");
+        assertEquals(CAPACITY, (int) jdbcTemplate.queryForObject(
+                "SELECT attendee_count FROM events WHERE event_id = ?", Integer.class, eventId),
+                "the attendee counter matches the attendee rows");
+    }
+}
@@ -0,0 +1,196 @@
+package com.dogginer.dog.service;
+
+import com.dogginer.dog.exception.BadRequestException;
+import com.dogginer.dog.exception.ConflictException;
+import com.dogginer.dog.exception.ResourceNotFoundException;
+import com.dogginer.dog.model.Attendance;
+import com.dogginer.dog.model.AttendanceBatchResult;
+import com.dogginer.dog.model.ClientSummary;
+import com.dogginer.dog.model.Event;
+import com.dogginer.dog.query.Cursor;
+import com.dogginer.dog.query.KeysetPage;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import jakarta.persistence.EntityManagerFactory;
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@Transactional
+class AttendanceServiceImplTest {
+
+    @Autowired
+    private IAttendanceService attendanceService;
+
+    @Autowired
+    private IEventService eventService;
+
+    @Autowired
+    private IClientService clientService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Test
+    void addAttendee() {
+        assertTrue(attendanceService.addAttendee(1, 1), "attendance is created");
+        assertFalse(attendanceService.addAttendee(1, 1), "repeated attendance is not duplicated");
+        assertEquals(1, countAttendees(1), "a single row is stored");
+        assertEquals(1, attendeeCount(1), "the attendee counter is incremented once");
+
+        assertThrows(ResourceNotFoundException.class, () -> attendanceService.addAttendee(73, 1),
+                "inexistent event throws exception");
+        assertThrows(ResourceNotFoundException.class, () -> attendanceService.addAttendee(1, 73),
+                "inexistent client throws exception");
+    }
+
+    @Test
+    void removeAttendee() {
+        attendanceService.addAttendee(2, 1);
+
+        attendanceService.removeAttendee(2, 1);
+        assertEquals(0, countAttendees(2), "attendance is deleted");
+        assertEquals(0, attendeeCount(2), "the attendee counter is decremented");
+
+        assertThrows(ResourceNotFoundException.class, () -> attendanceService.removeAttendee(2, 1),
+                "inexistent attendance throws exception");
+    }
+
+    @Test
+    void deleteAttendingClient() {
+        attendanceService.addAttendees(Arrays.asList(new Attendance(1, 3), new Attendance(2, 3), new Attendance(2, 1)));
+
+        clientService.deleteById(3);
+        assertEquals(0, countAttendees(1), "attendances of the deleted client are deleted");
+        assertEquals(0, attendeeCount(1), "the seats of the deleted client are released");
+        assertEquals(1, attendeeCount(2), "the seats of the other attendees are kept");
+    }
+
+    @Test
+    void addAttendees() {
+        attendanceService.addAttendee(1, 1);
+
+        AttendanceBatchResult result = attendanceService.addAttendees(Arrays.asList(
+                new Attendance(1, 1), new Attendance(1, 2), new Attendance(1, 3), new Attendance(2, 3)));
+        assertEquals(4, result.getRequested(), "all attendances are counted");
+        assertEquals(3, result.getCreated(), "existing attendances are skipped");
+        assertEquals(3, countAttendees(1), "attendances are stored");
+        assertEquals(3, attendeeCount(1), "the attendee counter counts the created attendances only");
+        assertEquals(1, attendeeCount(2), "every event counter is updated");
+
+        assertThrows(BadRequestException.class,
+                () -> attendanceService.addAttendees(Collections.singletonList(new Attendance(73, 1))),
+                "inexistent event throws exception");
+        assertThrows(BadRequestException.class,
+                () -> attendanceService.addAttendees(Collections.singletonList(new Attendance(null, 1))),
+                "incomplete attendance throws exception");
+    }
+
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    void capacity() {
+        try {
+            assertCapacityIsEnforced();
+        } finally {
+            jdbcTemplate.update("DELETE FROM attendees WHERE event_id = 1");
+            jdbcTemplate.update("UPDATE events SET capacity = NULL, attendee_count = 0 WHERE event_id = 1");
+        }
+    }
+
+    private void assertCapacityIsEnforced() {
+        jdbcTemplate.update("UPDATE events SET capacity = 2 WHERE event_id = 1");
+
+        assertTrue(attendanceService.addAttendee(1, 1), "attendance within capacity is created");
+        assertTrue(attendanceService.addAttendee(1, 2), "attendance within capacity is created");
+        assertThrows(ConflictException.class, () -> attendanceService.addAttendee(1, 3),
+                "attendance over capacity throws exception");
+        assertFalse(attendanceService.addAttendee(1, 2), "repeated attendance to a full event is not a conflict");
+        assertEquals(2, countAttendees(1), "no attendance over capacity is stored");
+        assertEquals(2, attendeeCount(1), "the attendee counter stays at capacity");
+
+        attendanceService.removeAttendee(1, 1);
+        assertThrows(ConflictException.class,
+                () -> attendanceService.addAttendees(Arrays.asList(new Attendance(1, 1), new Attendance(1, 3))),
+                "bulk attendance over capacity throws exception");
+        assertEquals(1, countAttendees(1), "no attendance of a rejected bulk request is stored");
+        assertEquals(1, attendeeCount(1), "the attendee counter is not changed by a rejected bulk request");
+    }
+
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    void cachedEventCounter() {
+        try {
+            assertCachedCounterIsEvicted();
+        } finally {
+            jdbcTemplate.update("DELETE FROM attendees WHERE event_id = 2");
+            jdbcTemplate.update("UPDATE events SET attendee_count = 0 WHERE event_id = 2");
+        }
+    }
+
+    private void assertCachedCounterIsEvicted() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        eventService.findById(2);
+        long hits = statistics.getSecondLevelCacheHitCount();
+        assertEquals(0, eventService.findById(2).getAttendeeCount(), "event is cached");
+        assertEquals(hits + 1, statistics.getSecondLevelCacheHitCount(), "cached event is read from the cache");
+
+        attendanceService.addAttendee(2, 1);
+        assertEquals(1, eventService.findById(2).getAttendeeCount(), "cached event sees the new attendee");
+        attendanceService.removeAttendee(2, 1);
+        assertEquals(0, eventService.findById(2).getAttendeeCount(), "cached event sees the removed attendee");
+    }
+
+    @Test
+    void findAttendees() {
+        attendanceService.addAttendees(Arrays.asList(new Attendance(3, 1), new Attendance(3, 2), new Attendance(3, 3)));
+
+        KeysetPage<ClientSummary> page = attendanceService.findAttendees(3, null, 2);
+        assertEquals(2, page.getContent().size(), "page size is honoured");
+        assertEquals("testClient1", page.getContent().get(0).getUsername(), "attendees are ordered by id");
+        assertEquals(Cursor.of(2), page.getNext(), "next cursor points at the last attendee");
+
+        page = attendanceService.findAttendees(3, page.getNext().encode(), 2);
+        assertEquals(1, page.getContent().size(), "second page holds the remaining attendee");
+        assertEquals("testClient3", page.getContent().get(0).getUsername(), "remaining attendee is returned");
+        assertNull(page.getNext(), "last page has no next page");
+
+        assertTrue(attendanceService.findAttendees(1, null, 2).getContent().isEmpty(),
+                "event without attendees returns an empty page");
+        assertThrows(ResourceNotFoundException.class, () -> attendanceService.findAttendees(73, null, 2),
+                "inexistent event throws exception");
+    }
+
+    @Test
+    void findAttendedEvents() {
+        attendanceService.addAttendees(Arrays.asList(new Attendance(1, 2), new Attendance(3, 2)));
+
+        KeysetPage<Event> page = attendanceService.findAttendedEvents(2, null, 5);
+        assertEquals(2, page.getContent().size(), "attended events are returned");
+        assertEquals("eventTitle1", page.getContent().get(0).getTitle(), "events are ordered by id");
+        assertEquals("eventTitle3", page.getContent().get(1).getTitle(), "events are ordered by id");
+        assertNull(page.getNext(), "single page has no next page");
+
+        assertThrows(ResourceNotFoundException.class, () -> attendanceService.findAttendedEvents(73, null, 2),
+                "inexistent client throws exception");
+    }
+
+    private int attendeeCount(int eventId) {
+        return jdbcTemplate.queryForObject("SELECT attendee_count FROM events WHERE event_id = ?", Integer.class, eventId);
+    }
+
+    private int countAttendees(int eventId) {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM attendees WHERE event_id = ?", Integer.class, eventId);
+    }
+}
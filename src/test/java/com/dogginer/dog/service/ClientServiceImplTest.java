@@ -3,7 +3,13 @@ package com.dogginer.dog.service;
 import com.dogginer.dog.exception.BadRequestException;
 import com.dogginer.dog.exception.ResourceNotFoundException;
 import com.dogginer.dog.model.Client;
+import com.dogginer.dog.model.ClientSummary;
+import com.dogginer.dog.query.ClientFilter;
+import com.dogginer.dog.query.Cursor;
+import com.dogginer.dog.query.KeysetPage;
 import com.dogginer.dog.repository.IClientRepository;
+import com.dogginer.dog.security.PasswordHasher;
+import com.dogginer.dog.security.PrincipalCacheEvictor;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
@@ -14,17 +20,25 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.test.web.servlet.MockMvc;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.atomic.AtomicReference;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.Mockito.doNothing;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 @SpringBootTest
@@ -37,6 +51,9 @@ class ClientServiceImplTest {
     @MockBean
     private IClientRepository clientRepository;
 
+    @MockBean
+    private PrincipalCacheEvictor principalCacheEvictor;
+
     @Autowired
     private IClientService clientService;
 
@@ -77,6 +94,45 @@ class ClientServiceImplTest {
 
     }
 
+    @Test
+    void findPage() {
+        ClientSummary first = new ClientSummary(1, "client0", "email0");
+        ClientSummary second = new ClientSummary(2, "client1", "email1");
+        ClientSummary third = new ClientSummary(3, "client2", "email2");
+        when(clientRepository.findSummariesAfter(eq(0), eq("client%"), isNull(), eq(PageRequest.of(0, 3))))
+                .thenReturn(Arrays.asList(first, second, third));
+        when(clientRepository.findSummariesBefore(eq(3), isNull(), isNull(), eq(PageRequest.of(0, 3))))
+                .thenReturn(Arrays.asList(second, first));
+
+        ClientFilter filter = new ClientFilter();
+        filter.setUsername("client");
+        KeysetPage<ClientSummary> page = clientService.findPage(filter, null, null, 2);
+        assertEquals(Arrays.asList(first, second), page.getContent(), "page size is honoured");
+        assertEquals(Cursor.of(2), page.getNext(), "next cursor points at the last client of the page");
+        assertNull(page.getPrev(), "first page has no previous page");
+
+        page = clientService.findPage(new ClientFilter(), null, Cursor.of(3).encode(), 2);
+        assertEquals(Arrays.asList(first, second), page.getContent(), "backwards page is in ascending order");
+        assertEquals(Cursor.of(2), page.getNext(), "backwards page links forward");
+        assertNull(page.getPrev(), "backwards page reached the start");
+
+        assertThrows(BadRequestException.class, () -> clientService.findPage(filter, null, null, -1),
+                "negative page sizes are rejected");
+    }
+
+    @Test
+    void findSlice() {
+        Slice<ClientSummary> slice = new SliceImpl<>(Arrays.asList(new ClientSummary(1, "client0", "email0")));
+        when(clientRepository.findSummaries(isNull(), eq("email\\_%"), eq(PageRequest.of(2, 100))))
+                .thenReturn(slice);
+
+        ClientFilter filter = new ClientFilter();
+        filter.setEmail("email_");
+        assertEquals(slice, clientService.findSlice(filter, 2, 1000), "size is clamped and wildcards escaped");
+        assertThrows(BadRequestException.class, () -> clientService.findSlice(filter, -1, 10),
+                "negative pages are rejected");
+    }
+
     @Test
     void findById() {
         when(clientRepository.findById(0)).thenReturn(Optional.empty());
@@ -96,7 +152,11 @@ class ClientServiceImplTest {
 
     @Test
     void addClient() {
-        when(clientRepository.save(any())).then(mockRepositorySave());
+        AtomicReference<String> savingThread = new AtomicReference<>();
+        when(clientRepository.save(any())).then(invocation -> {
+            savingThread.set(Thread.currentThread().getName());
+            return mockRepositorySave().answer(invocation);
+        });
 
         Client newClient = clientList.get(0);
         newClient.setClientId(null);
@@ -108,6 +168,8 @@ class ClientServiceImplTest {
         assertEquals(newClient.getUsername(), savedClient.getUsername(), "correct username is returned");
         assertTrue(passwordEncoder.matches("pwd0", savedClient.getPassword()),
                 "password has been encoded correctly");
+        assertFalse(savingThread.get().startsWith(PasswordHasher.POOL_NAME),
+                "client is saved off the hashing pool");
 
         newClient.setUsername("repeated");
         assertThrows(BadRequestException.class, () -> clientService.addClient(newClient), "wrong data throws exception");
@@ -126,6 +188,7 @@ class ClientServiceImplTest {
         assertEquals(clientList.get(0).getEmail(), deletedClient.getEmail(), "correct email is returned");
         assertEquals(clientList.get(0).getUsername(), deletedClient.getUsername(), "correct username is returned");
         assertEquals(clientList.get(0).getPassword(), deletedClient.getPassword(), "correct pwd is returned");
+        verify(principalCacheEvictor).evict(clientList.get(0).getUsername());
 
         assertThrows(ResourceNotFoundException.class, () -> clientService.deleteById(0));
     }
@@ -136,6 +199,8 @@ class ClientServiceImplTest {
         when(clientRepository.findById(0)).thenReturn(Optional.empty());
         when(clientRepository.findById(1)).thenReturn(Optional.of(clientList.get(0)));
 
+        String oldUsername = clientList.get(0).getUsername();
+        String oldPassword = clientList.get(0).getPassword();
         Client newClientInfo = clientList.get(2);
         Client updatedClient = clientService.updateClient(1, newClientInfo);
 
@@ -143,7 +208,8 @@ class ClientServiceImplTest {
         assertEquals(1, updatedClient.getClientId(), "correct clientId returned");
         assertEquals(clientList.get(2).getEmail(), updatedClient.getEmail(), "correct email is returned");
         assertEquals(clientList.get(2).getUsername(), updatedClient.getUsername(), "correct username is returned");
-        assertEquals(clientList.get(2).getPassword(), updatedClient.getPassword(), "correct pwd is returned");
+        assertEquals(oldPassword, updatedClient.getPassword(), "the stored pwd is kept");
+        verify(principalCacheEvictor).evict(oldUsername);
 
         assertThrows(ResourceNotFoundException.class, () -> clientService.updateClient(0, newClientInfo));
 
@@ -162,9 +228,11 @@ class ClientServiceImplTest {
         });
         when(clientRepository.findById(1)).thenReturn(Optional.of(clientList.get(0)));
 
+        String oldUsername = clientList.get(0).getUsername();
         Client username = new Client();
         username.setUsername("new username");
         Client updatedClient = clientService.partiallyUpdateClient(1, username);
+        verify(principalCacheEvictor).evict(oldUsername);
 
         assertNotNull(updatedClient.getClientId(), "a clientId is returned");
         assertEquals(1, updatedClient.getClientId(), "correct clientId returned");
@@ -189,7 +257,22 @@ class ClientServiceImplTest {
         updatedClient = clientService.partiallyUpdateClient(3, password);
         assertEquals(clientList.get(2).getEmail(), updatedClient.getEmail(), "correct email is returned");
         assertEquals(clientList.get(2).getUsername(), updatedClient.getUsername(), "correct username is returned");
-        assertTrue(passwordEncoder.matches("new", updatedClient.getPassword()), "correct password is returned");
+        assertEquals("pwd2", updatedClient.getPassword(), "the stored pwd is kept");
+    }
+
+    @Test
+    void changePassword() {
+        when(clientRepository.save(any())).then(mockRepositorySave());
+        when(clientRepository.findById(0)).thenReturn(Optional.empty());
+        when(clientRepository.findById(1)).thenReturn(Optional.of(clientList.get(0)));
+
+        clientService.changePassword(1, "new");
+        assertTrue(passwordEncoder.matches("new", clientList.get(0).getPassword()), "the new pwd is hashed and stored");
+        verify(principalCacheEvictor).evict(clientList.get(0).getUsername());
+
+        assertThrows(ResourceNotFoundException.class, () -> clientService.changePassword(0, "new"));
+        assertThrows(BadRequestException.class, () -> clientService.changePassword(1, ""),
+                "empty pwd throws exception");
     }
 
 
@@ -198,7 +281,7 @@ class ClientServiceImplTest {
         return invocation -> {
             Client client = invocation.getArgument(0);
             if (client.getUsername().equals("repeated")) throw new Exception();
-            if (client.getClientId() == 0) client.setClientId(7);
+            if (client.getClientId() == null) client.setClientId(7);
             return client;
         };
     }
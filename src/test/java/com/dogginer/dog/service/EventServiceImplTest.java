@@ -1,8 +1,13 @@
 package com.dogginer.dog.service;
 
 import com.dogginer.dog.exception.BadRequestException;
+import com.dogginer.dog.exception.PreconditionFailedException;
 import com.dogginer.dog.exception.ResourceNotFoundException;
 import com.dogginer.dog.model.Event;
+import com.dogginer.dog.query.Cursor;
+import com.dogginer.dog.query.EventFilter;
+import com.dogginer.dog.query.EventSort;
+import com.dogginer.dog.query.KeysetPage;
 import com.dogginer.dog.repository.IEventRepository;
 import org.aspectj.lang.annotation.After;
 import org.aspectj.lang.annotation.Before;
@@ -14,18 +19,25 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.test.web.servlet.MockMvc;
 
 import javax.swing.text.html.Option;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.Mockito.doNothing;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 @SpringBootTest
@@ -89,6 +101,65 @@ class EventServiceImplTest {
         assertEquals(0.01, events.get(0).getPrice(), "price returned correctly");
     }
 
+    @Test
+    void findPage() {
+        EventFilter filter = new EventFilter();
+        when(eventRepository.findPage(eq(filter), eq(EventSort.ID), isNull(), eq(false), eq(3)))
+                .thenReturn(new ArrayList<>(eventList.subList(0, 3)));
+        when(eventRepository.findPage(eq(filter), eq(EventSort.ID), eq(Cursor.of(2)), eq(false), eq(3)))
+                .thenReturn(new ArrayList<>(eventList.subList(2, 4)));
+        when(eventRepository.findPage(eq(filter), eq(EventSort.ID), eq(Cursor.of(3)), eq(true), eq(3)))
+                .thenReturn(Arrays.asList(eventList.get(1), eventList.get(0)));
+
+        KeysetPage<Event> first = eventService.findPage(filter, EventSort.ID, null, null, 2);
+        assertEquals(2, first.getContent().size(), "page size is honoured");
+        assertEquals(1, first.getContent().get(0).getEventId(), "first page starts at the first event");
+        assertEquals(Cursor.of(2), first.getNext(), "next cursor points at the last event of the page");
+        assertNull(first.getPrev(), "first page has no previous page");
+
+        KeysetPage<Event> last = eventService.findPage(filter, EventSort.ID, first.getNext().encode(), null, 2);
+        assertEquals(2, last.getContent().size(), "last page is full");
+        assertEquals(3, last.getContent().get(0).getEventId(), "last page starts after the cursor");
+        assertNull(last.getNext(), "last page has no next page");
+        assertEquals(Cursor.of(3), last.getPrev(), "prev cursor points at the first event of the page");
+
+        KeysetPage<Event> back = eventService.findPage(filter, EventSort.ID, null, last.getPrev().encode(), 2);
+        assertEquals(1, back.getContent().get(0).getEventId(), "backwards page is returned in ascending order");
+        assertEquals(2, back.getContent().get(1).getEventId(), "backwards page is returned in ascending order");
+        assertEquals(Cursor.of(2), back.getNext(), "backwards page links forward");
+        assertNull(back.getPrev(), "backwards page reached the start");
+
+        assertThrows(BadRequestException.class, () -> eventService.findPage(filter, EventSort.ID, null, null, 0),
+                "empty pages are rejected");
+        assertThrows(BadRequestException.class, () -> eventService.findPage(filter, EventSort.ID, "%%", null, 2),
+                "malformed cursors are rejected");
+        assertThrows(BadRequestException.class,
+                () -> eventService.findPage(filter, EventSort.DATE, Cursor.of(2).encode(), null, 2),
+                "date ordering requires a date cursor");
+        assertThrows(BadRequestException.class,
+                () -> eventService.findPage(filter, EventSort.PRICE, Cursor.of(2).encode(), null, 2),
+                "price ordering requires a price cursor");
+    }
+
+    @Test
+    void findPageWindow() {
+        when(eventRepository.findPage(any(), eq(EventSort.PRICE), isNull(), eq(false), eq(3)))
+                .thenReturn(new ArrayList<>(eventList.subList(0, 3)));
+
+        EventFilter filter = new EventFilter();
+        filter.setDays(7);
+        KeysetPage<Event> page = eventService.findPage(filter, EventSort.PRICE, null, null, 2);
+        assertNotNull(filter.getFrom(), "the window starts now");
+        assertEquals(filter.getFrom().plusDays(7), filter.getTo(), "the window ends after the given days");
+        assertEquals(Cursor.ofPrice(eventList.get(1).getEventId(), eventList.get(1).getPrice()), page.getNext(),
+                "next cursor carries the price of the last event");
+
+        EventFilter invalid = new EventFilter();
+        invalid.setDays(0);
+        assertThrows(BadRequestException.class, () -> eventService.findPage(invalid, EventSort.DATE, null, null, 2),
+                "empty windows are rejected");
+    }
+
     @Test
     void findById() {
         when(eventRepository.findById(0)).thenReturn(Optional.empty());
@@ -145,6 +216,26 @@ class EventServiceImplTest {
         assertThrows(BadRequestException.class, () -> eventService.updateEvent(1, newEventInfo));
     }
 
+    @Test
+    void updateEventIfMatch() {
+        when(eventRepository.save(any())).then(mockRepositorySave());
+        Event existingEvent = eventList.get(0);
+        existingEvent.setVersion(2);
+        when(eventRepository.findById(1)).thenReturn(Optional.of(existingEvent));
+
+        Event staleEvent = this.createTestEvent();
+        staleEvent.setVersion(1);
+        assertThrows(PreconditionFailedException.class, () -> eventService.updateEvent(1, staleEvent),
+                "an update conditional on an older version is rejected");
+        assertThrows(PreconditionFailedException.class, () -> eventService.partiallyUpdateEvent(1, staleEvent),
+                "a patch conditional on an older version is rejected");
+
+        Event currentEvent = this.createTestEvent();
+        currentEvent.setVersion(2);
+        assertEquals(this.TEST_EVENT_TITLE, eventService.updateEvent(1, currentEvent).getTitle(),
+                "an update conditional on the current version is applied");
+    }
+
     @Test
     void partiallyUpdateEvent() {
         when(eventRepository.save(any())).then(mockRepositorySave());
@@ -201,6 +292,24 @@ class EventServiceImplTest {
         assertThrows(ResourceNotFoundException.class, () -> eventService.partiallyUpdateEvent(0, description));
     }
 
+    @Test
+    void capacityBelowAttendeeCount() {
+        when(eventRepository.save(any())).then(mockRepositorySave());
+        when(eventRepository.findById(1)).thenReturn(Optional.of(eventList.get(0)));
+        eventList.get(0).setAttendeeCount(5);
+
+        Event capacity = new Event();
+        capacity.setCapacity(4);
+        assertThrows(BadRequestException.class, () -> eventService.partiallyUpdateEvent(1, capacity),
+                "capacity below the attendee count throws exception");
+
+        Event newEventInfo = this.createTestEvent();
+        newEventInfo.setCapacity(5);
+        Event updatedEvent = eventService.updateEvent(1, newEventInfo);
+        assertEquals(5, updatedEvent.getCapacity(), "capacity is updated");
+        assertEquals(5, updatedEvent.getAttendeeCount(), "attendee count is kept on replacement");
+    }
+
     @Test
     void deleteById() {
         when(eventRepository.findById(0)).thenReturn(Optional.empty());
@@ -218,11 +327,55 @@ class EventServiceImplTest {
         assertThrows(ResourceNotFoundException.class, () -> eventService.deleteById(0));
     }
 
+    @Test
+    void partiallyUpdateEventMerge() {
+        when(eventRepository.save(any())).then(mockRepositorySave());
+        // the first read is overtaken by a concurrent write of the description
+        Event staleEvent = eventList.get(0);
+        staleEvent.setVersion(1);
+        Event currentEvent = this.createTestEvent();
+        currentEvent.setEventId(1);
+        currentEvent.setDescription("concurrent description");
+        currentEvent.setVersion(2);
+        when(eventRepository.findById(1)).thenReturn(Optional.of(staleEvent), Optional.of(currentEvent));
+        doThrow(new ObjectOptimisticLockingFailureException(Event.class, 1)).doNothing().when(eventRepository).flush();
+
+        Event title = new Event();
+        title.setTitle("new title");
+        Event updatedEvent = eventService.partiallyUpdateEvent(1, title);
+        assertEquals("new title", updatedEvent.getTitle(), "patch is applied after the conflict");
+        assertEquals("concurrent description", updatedEvent.getDescription(), "concurrent write is kept");
+        verify(eventRepository, times(2)).findById(1);
+    }
+
+    @Test
+    void partiallyUpdateEventConflict() {
+        when(eventRepository.save(any())).then(mockRepositorySave());
+        when(eventRepository.findById(1)).then(invocation -> {
+            Event event = this.createTestEvent();
+            event.setEventId(1);
+            event.setVersion(8);
+            return Optional.of(event);
+        });
+        doThrow(new ObjectOptimisticLockingFailureException(Event.class, 1)).when(eventRepository).flush();
+
+        Event title = new Event();
+        title.setTitle("new title");
+        assertThrows(ObjectOptimisticLockingFailureException.class, () -> eventService.partiallyUpdateEvent(1, title),
+                "conflicts are reported once the attempts are exhausted");
+        verify(eventRepository, times(3)).findById(1);
+
+        title.setVersion(8);
+        assertThrows(ObjectOptimisticLockingFailureException.class, () -> eventService.partiallyUpdateEvent(1, title),
+                "conditional patches are not merged");
+        verify(eventRepository, times(4)).findById(1);
+    }
+
     private Answer<Object> mockRepositorySave() {
         return invocation -> {
             Event event = invocation.getArgument(0);
             if (event.getTitle().equals("repeated")) throw new Exception();
-            if (event.getEventId() == 0) event.setEventId(7);
+            if (event.getEventId() == null) event.setEventId(7);
             return event;
         };
     }
@@ -0,0 +1,65 @@
+package com.dogginer.dog.service;
+
+import com.dogginer.dog.query.ExportFormat;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+class ExportServiceImplTest {
+
+    @Autowired
+    private IExportService exportService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Test
+    void exportEvents() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        exportService.exportEvents(ExportFormat.NDJSON, out);
+
+        String export = out.toString(StandardCharsets.UTF_8.name());
+        assertTrue(export.endsWith("\n"), "every line is terminated");
+        String[] lines = export.split("\n");
+        assertEquals(3, lines.length, "one line per event");
+        for (int i = 0; i < lines.length; i++) {
+            JsonNode event = objectMapper.readTree(lines[i]);
+            assertEquals(i + 1, event.get("eventId").asInt(), "events are exported in id order");
+            assertEquals("eventTitle" + (i + 1), event.get("title").asText(), "event fields are exported");
+            assertFalse(event.has("links"), "no links are exported");
+        }
+
+        out = new ByteArrayOutputStream();
+        exportService.exportEvents(ExportFormat.CSV, out);
+        lines = out.toString(StandardCharsets.UTF_8.name()).split("\n");
+        assertEquals(4, lines.length, "a header and one line per event");
+        assertTrue(lines[0].startsWith("eventId,title,"), "header names the columns in field order");
+        assertTrue(lines[1].startsWith("1,eventTitle1,"), "rows follow the header columns");
+    }
+
+    @Test
+    void exportClients() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        exportService.exportClients(ExportFormat.NDJSON, out);
+
+        String[] lines = out.toString(StandardCharsets.UTF_8.name()).split("\n");
+        assertEquals(3, lines.length, "one line per client");
+        JsonNode client = objectMapper.readTree(lines[0]);
+        assertEquals("testClient1", client.get("username").asText(), "client fields are exported");
+        assertFalse(client.has("password"), "passwords are never exported");
+
+        out = new ByteArrayOutputStream();
+        exportService.exportClients(ExportFormat.CSV, out);
+        lines = out.toString(StandardCharsets.UTF_8.name()).split("\n");
+        assertEquals(4, lines.length, "a header and one line per client");
+        assertFalse(lines[0].contains("password"), "passwords are never exported");
+    }
+}
@@ -0,0 +1,145 @@
+package com.dogginer.dog.service;
+
+import com.dogginer.dog.model.Client;
+import com.dogginer.dog.model.Event;
+import com.dogginer.dog.model.ImportResult;
+import com.dogginer.dog.repository.IClientRepository;
+import com.dogginer.dog.repository.IEventRepository;
+import com.dogginer.dog.search.ClientSearchIndex;
+import com.dogginer.dog.search.EventSearchIndex;
+import com.dogginer.dog.search.PrefixIndex;
+import org.apache.commons.lang3.StringUtils;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import jakarta.persistence.EntityManagerFactory;
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = "dogginer.import.batch-size=2")
+class ImportServiceImplTest {
+
+    @Autowired
+    private IImportService importService;
+
+    @Autowired
+    private IEventRepository eventRepository;
+
+    @Autowired
+    private IClientRepository clientRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private BCryptPasswordEncoder passwordEncoder;
+
+    @Autowired
+    private EventSearchIndex eventSearchIndex;
+
+    @Autowired
+    private ClientSearchIndex clientSearchIndex;
+
+    @AfterEach
+    void afterEach() throws Exception {
+        // the imports commit, so the rows of import.sql are restored for the other tests
+        jdbcTemplate.update("DELETE FROM events WHERE event_id > 3");
+        jdbcTemplate.update("DELETE FROM clients WHERE client_id > 3");
+        entityManagerFactory.getCache().evictAll();
+        eventSearchIndex.rebuild().get();
+        clientSearchIndex.rebuild().get();
+    }
+
+    @Test
+    void importEvents() throws Exception {
+        String body = event("bulkTitle1", "") + "\n" +
+                event("bulkTitle2", ",\"capacity\":-1") + "\n" +
+                "{\"title\":\"bulkTitle3\",\"price\":\"free\"}\n" +
+                event(StringUtils.repeat('x', 300), "") + "\n" +
+                event("bulkTitle5", "") + "\n" +
+                "{\"title\":\"bulkTitle6\",\"description\":\"\",\"price\":1.5}\n" +
+                event("bulkTitle7", ",\"price\":-1.5") + "\n";
+
+        ImportResult result = importService.importEvents(stream(body));
+        assertEquals(7, result.getRequested(), "every row is counted");
+        assertEquals(2, result.getCreated(), "valid rows are created");
+        assertEquals(5, result.getFailed(), "invalid rows are rejected");
+        assertEquals(1, result.getErrors().get(0).getIndex(), "rows failing validation are reported");
+        assertEquals("capacity:-1 must not be negative", result.getErrors().get(0).getMessage(),
+                "negative capacities are rejected");
+        assertEquals(2, result.getErrors().get(1).getIndex(), "rows that don't map are reported");
+        assertEquals(3, result.getErrors().get(2).getIndex(), "rows rejected by the database are reported");
+        assertEquals("date is required", result.getErrors().get(3).getMessage(),
+                "rows missing a required field are rejected");
+        assertEquals("price:-1.5 must not be negative", result.getErrors().get(4).getMessage(),
+                "negative prices are rejected");
+        assertEquals(5, eventRepository.count(), "the valid rows of a failed batch are still created");
+    }
+
+    @Test
+    void importEventsArray() throws Exception {
+        String body = "[" + event("bulkTitle1", "") + "," + event("bulkTitle2", "") + ","
+                + event("bulkTitle3", "") + "]";
+
+        ImportResult result = importService.importEvents(stream(body));
+        assertEquals(3, result.getCreated(), "the elements of a JSON array are created");
+        assertTrue(result.getErrors().isEmpty(), "no row is rejected");
+        assertEquals(6, eventRepository.count(), "events are created");
+
+        List<PrefixIndex.Match> matches = eventSearchIndex.suggest("bulkTitle", 10);
+        assertEquals(3, matches.size(), "created events are indexed");
+        assertEquals("bulkTitle1", eventRepository.findById(matches.get(0).getId()).map(Event::getTitle).orElse(null),
+                "events are indexed with their generated ids");
+    }
+
+    @Test
+    void importClients() throws Exception {
+        String body = "[{\"username\":\"bulkClient1\",\"email\":\"bulk1@mail.com\",\"password\":\"secret1\"}," +
+                "{\"username\":\"bulkClient2\",\"email\":\"bulk2@mail.com\"}," +
+                "{\"username\":\"bulkClient3\",\"email\":\"bulk3@mail.com\",\"password\":\"secret3\"}," +
+                "{\"username\":\"bulkClient4\",\"password\":\"secret4\"}]";
+
+        ImportResult result = importService.importClients(stream(body));
+        assertEquals(2, result.getCreated(), "complete clients are created");
+        assertEquals(1, result.getErrors().get(0).getIndex(), "clients without a password are rejected");
+        assertEquals("password is required", result.getErrors().get(0).getMessage(),
+                "missing password is reported");
+        assertEquals("email is required", result.getErrors().get(1).getMessage(), "missing email is reported");
+
+        Client client = clientRepository.findByUsername("bulkClient3").orElse(null);
+        assertNotNull(client, "client is created");
+        assertTrue(passwordEncoder.matches("secret3", client.getPassword()), "password is stored hashed");
+        List<PrefixIndex.Match> matches = clientSearchIndex.suggest("bulkClient", 10);
+        assertEquals(2, matches.size(), "only the created clients are indexed");
+        assertEquals(client.getClientId(), matches.get(1).getId(), "clients are indexed with their generated ids");
+    }
+
+    @Test
+    void importMalformed() throws Exception {
+        ImportResult result = importService.importEvents(stream(event("bulkTitle1", "") + "\n{\"title\":"));
+        assertEquals(1, result.getCreated(), "rows before the malformed one are created");
+        assertEquals(1, result.getFailed(), "malformed row is reported");
+        assertEquals(1, result.getErrors().get(0).getIndex(), "malformed row is identified");
+    }
+
+    // a complete event, the extra fields are appended and override the defaults
+    private static String event(String title, String extra) {
+        return "{\"title\":\"" + title + "\",\"description\":\"bulkDescription\"," +
+                "\"date\":\"2023-01-01T10:00:00\",\"price\":1.5" + extra + "}";
+    }
+
+    private static InputStream stream(String body) {
+        return new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,109 @@
+package com.dogginer.dog.service;
+
+import com.dogginer.dog.model.Client;
+import com.dogginer.dog.model.Event;
+import com.dogginer.dog.support.StatementRecorder;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.transaction.BeforeTransaction;
+import org.springframework.transaction.annotation.Transactional;
+
+import jakarta.persistence.EntityManager;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@Import(StatementRecorder.class)
+@Transactional
+class WriteRoundTripTest {
+
+    @Autowired
+    private IEventService eventService;
+
+    @Autowired
+    private IClientService clientService;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private StatementRecorder statementRecorder;
+
+    @BeforeTransaction
+    void warmCache() {
+        // load the rows into the second-level cache before the test transaction starts, as a previous
+        // request would have: read-write entries are not readable by a transaction older than them
+        // the locks left by the rolled back writes of previous tests are cleared first, a versioned entry
+        // can't be put back over a lock of the same version
+        entityManager.getEntityManagerFactory().getCache().evictAll();
+        eventService.findById(1);
+        eventService.findById(3);
+        clientService.findById(2);
+    }
+
+    @BeforeEach
+    void beforeEach() {
+        statementRecorder.clear();
+    }
+
+    @Test
+    void partiallyUpdateEvent() {
+        Event titleUpdate = new Event();
+        titleUpdate.setTitle("patchedTitle");
+
+        eventService.partiallyUpdateEvent(1, titleUpdate);
+        assertEquals(1, statementRecorder.getStatements().size(), "cached event is patched in one statement");
+        String update = statementRecorder.getStatements("update").get(0).toLowerCase();
+        assertTrue(update.contains("title"), "changed column is updated");
+        assertFalse(update.contains("description"), "unchanged columns are not updated");
+    }
+
+    @Test
+    void updateEvent() {
+        Event event = eventService.findById(1);
+        entityManager.clear();
+        statementRecorder.clear();
+
+        Event replacement = new Event();
+        replacement.setTitle("replacedTitle");
+        replacement.setDescription(event.getDescription());
+        replacement.setDate(event.getDate());
+        replacement.setImageUrl(event.getImageUrl());
+        replacement.setPrice(event.getPrice());
+
+        eventService.updateEvent(1, replacement);
+        assertEquals(1, statementRecorder.getStatements().size(), "cached event is replaced in one statement");
+        assertEquals(1, statementRecorder.getStatements("update").size(), "a single update is issued");
+    }
+
+    @Test
+    void deleteEvent() {
+        eventService.deleteById(3);
+        assertEquals(1, statementRecorder.getStatements().size(), "cached event is deleted in one statement");
+        assertEquals(1, statementRecorder.getStatements("delete").size(), "a single delete is issued");
+    }
+
+    @Test
+    void partiallyUpdateClient() {
+        Client emailUpdate = new Client();
+        emailUpdate.setEmail("patched@email.com");
+
+        clientService.partiallyUpdateClient(2, emailUpdate);
+        assertEquals(1, statementRecorder.getStatements().size(), "cached client is patched in one statement");
+        String update = statementRecorder.getStatements("update").get(0).toLowerCase();
+        assertTrue(update.contains("email"), "changed column is updated");
+        assertFalse(update.contains("password"), "unchanged columns are not updated");
+    }
+
+    @Test
+    void deleteClient() {
+        clientService.deleteById(2);
+        assertEquals(3, statementRecorder.getStatements().size(),
+                "cached client is deleted with its attendances in two statements, after looking up its seats");
+        assertEquals(2, statementRecorder.getStatements("delete").size(), "client and attendances are deleted");
+        assertEquals(1, statementRecorder.getStatements("select").size(), "attended events are looked up once");
+    }
+}
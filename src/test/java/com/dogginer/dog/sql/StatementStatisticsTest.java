@@ -0,0 +1,79 @@
+package com.dogginer.dog.sql;
+
+import com.dogginer.dog.support.StatementBudget;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.system.CapturedOutput;
+import org.springframework.boot.test.system.OutputCaptureExtension;
+import org.springframework.http.HttpHeaders;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Map;
+
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = {"management.endpoints.web.exposure.include=statements",
+        "dogginer.sql.slow-query-threshold=0ms"})
+@AutoConfigureMockMvc
+@ExtendWith(OutputCaptureExtension.class)
+public class StatementStatisticsTest {
+    private static final String ADMIN = "Basic "
+            + Base64.getEncoder().encodeToString("admin:admin123".getBytes(StandardCharsets.UTF_8));
+
+    @Autowired private MockMvc mockMvc;
+    @Autowired private StatementStatistics statistics;
+    @Autowired private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void beforeEach() {
+        statistics.reset();
+    }
+
+    @Test
+    void countStatementsPerEndpoint() throws Exception {
+        mockMvc.perform(get("/v1/events").param("size", "2").header(HttpHeaders.AUTHORIZATION, ADMIN))
+                .andExpect(status().isOk())
+                .andExpect(StatementBudget.atMost(2));
+        mockMvc.perform(get("/v1/events").param("size", "2").header(HttpHeaders.AUTHORIZATION, ADMIN))
+                .andExpect(status().isOk());
+
+        Map<String, StatementStatistics.EndpointSummary> summaries = statistics.summaries();
+        StatementStatistics.EndpointSummary events = summaries.get("GET /v1/events");
+        assertNotNull(events, "statements are counted by method and path pattern");
+        assertEquals(2, events.getRequests(), "every request is counted");
+        assertTrue(events.getStatements() > 0, "statements of the page are counted");
+
+        mockMvc.perform(get("/actuator/statements").header(HttpHeaders.AUTHORIZATION, ADMIN))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$['GET /v1/events'].requests", is(2)));
+
+        // another page size, which misses the query cache
+        assertThrows(AssertionError.class, () ->
+                mockMvc.perform(get("/v1/events").param("size", "1").header(HttpHeaders.AUTHORIZATION, ADMIN))
+                        .andExpect(StatementBudget.atMost(0)),
+                "requests over their budget fail");
+    }
+
+    @Test
+    void logSlowQueries(CapturedOutput output) {
+        jdbcTemplate.queryForObject("SELECT title FROM events WHERE event_id = ?", String.class, 2);
+        assertTrue(output.getOut().contains("SELECT title FROM events WHERE event_id = ? [1=2]"),
+                "slow queries are logged with their parameters");
+
+        jdbcTemplate.queryForObject("SELECT password FROM clients WHERE username = ?", String.class, "testClient1");
+        assertTrue(output.getOut().contains("SELECT password FROM clients WHERE username = ? [1=***]"),
+                "parameters of password queries are masked");
+        assertEquals(0, statistics.end("none"), "statements outside requests are not counted");
+    }
+}
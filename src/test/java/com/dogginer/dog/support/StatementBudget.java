@@ -0,0 +1,31 @@
+package com.dogginer.dog.support;
+
+import com.dogginer.dog.sql.StatementCountingFilter;
+import org.springframework.test.web.servlet.ResultMatcher;
+
+import static org.springframework.test.util.AssertionErrors.assertNotNull;
+import static org.springframework.test.util.AssertionErrors.assertTrue;
+
+/**
+ * MockMvc matchers on the statements sent by a request, to keep N+1 queries out of the endpoints.
+ * The {@link StatementCountingFilter} must be in the MockMvc filter chain, as with {@code @AutoConfigureMockMvc}
+ * in a Spring Boot test
+ */
+public final class StatementBudget {
+
+    private StatementBudget() {
+    }
+
+    /**
+     * @param budget the maximum number of statements of the request
+     * @return a matcher that fails when the request sent more statements
+     */
+    public static ResultMatcher atMost(int budget) {
+        return result -> {
+            Object statements = result.getRequest().getAttribute(StatementCountingFilter.STATEMENTS_ATTRIBUTE);
+            assertNotNull("statements are counted, the StatementCountingFilter must be in the filter chain", statements);
+            assertTrue("request sent " + statements + " statements, over its budget of " + budget,
+                    (Integer) statements <= budget);
+        };
+    }
+}
@@ -0,0 +1,61 @@
+package com.dogginer.dog.support;
+
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Records the SQL statements sent to the database, so tests can assert the round-trips of a call.
+ * Import it in a Spring Boot test and autowire it.
+ */
+@TestConfiguration
+public class StatementRecorder implements QueryExecutionListener {
+
+    private final List<String> statements = Collections.synchronizedList(new ArrayList<>());
+
+    @Bean
+    public static BeanPostProcessor statementRecordingDataSource(StatementRecorder recorder) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (!(bean instanceof DataSource)) return bean;
+                return ProxyDataSourceBuilder.create((DataSource) bean).listener(recorder).build();
+            }
+        };
+    }
+
+    @Override
+    public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+    }
+
+    @Override
+    public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        queryInfoList.forEach(queryInfo -> statements.add(queryInfo.getQuery()));
+    }
+
+    public void clear() {
+        statements.clear();
+    }
+
+    public List<String> getStatements() {
+        synchronized (statements) {
+            return new ArrayList<>(statements);
+        }
+    }
+
+    public List<String> getStatements(String verb) {
+        return getStatements().stream()
+                .filter(statement -> statement.trim().toLowerCase().startsWith(verb.toLowerCase()))
+                .collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,46 @@
+package com.dogginer.dog.web;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.time.Duration;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConcurrencyLimitFilterTest {
+
+    @Test
+    void requestsBeyondTheLimitAreShed() throws Exception {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        ConcurrencyLimitFilter filter = new ConcurrencyLimitFilter(1, Duration.ZERO,
+                Jackson2ObjectMapperBuilder.json().build(), meterRegistry);
+
+        // a second request arrives while the first one holds the only slot
+        MockHttpServletResponse shedResponse = new MockHttpServletResponse();
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(new MockHttpServletRequest("GET", "/v1/events"), response, (request, servletResponse) -> {
+            assertEquals(1, filter.getActive(), "the first request holds a slot");
+            filter.doFilter(new MockHttpServletRequest("GET", "/v1/events/1"), shedResponse,
+                    (shedRequest, shedServletResponse) -> fail("requests beyond the limit don't reach the chain"));
+        });
+
+        assertEquals(200, response.getStatus(), "requests within the limit go through");
+        assertEquals(503, shedResponse.getStatus(), "requests beyond the limit are shed");
+        assertEquals("1", shedResponse.getHeader(HttpHeaders.RETRY_AFTER), "shed requests are told when to retry");
+        assertThat("shed requests are told why", shedResponse.getContentAsString(),
+                containsString("Too many requests in flight"));
+        assertEquals(1, meterRegistry.get("dogginer.requests.shed").counter().count(), "shed requests are counted");
+        assertEquals(0, filter.getActive(), "slots are released");
+
+        MockHttpServletResponse nextResponse = new MockHttpServletResponse();
+        filter.doFilter(new MockHttpServletRequest("GET", "/v1/events/1"), nextResponse, (request, servletResponse) -> {
+        });
+        assertEquals(200, nextResponse.getStatus(), "released slots are reused");
+    }
+}
@@ -0,0 +1,59 @@
+package com.dogginer.dog.web;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TrailingSlashRedirectFilterTest {
+
+    private final TrailingSlashRedirectFilter filter = new TrailingSlashRedirectFilter();
+
+    @Test
+    void trailingSlashesAreRedirected() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/v1/events/");
+        request.setQueryString("sort=date");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        MockFilterChain chain = new MockFilterChain();
+        filter.doFilter(request, response, chain);
+
+        assertEquals(308, response.getStatus(), "paths with a trailing slash are redirected, keeping the method");
+        assertEquals("/v1/events?sort=date", response.getHeader(HttpHeaders.LOCATION),
+                "redirect drops the slash and keeps the query");
+        assertNull(chain.getRequest(), "redirected requests don't reach the chain");
+    }
+
+    @Test
+    void redirectsStayOnThisHost() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/dogginer/v1/events/");
+        request.setContextPath("/dogginer");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, new MockFilterChain());
+        assertEquals("/dogginer/v1/events", response.getHeader(HttpHeaders.LOCATION),
+                "redirect keeps the context path");
+
+        for (String path : new String[]{"//evil.example/", "/\\evil.example/", "/v1//evil.example/"}) {
+            response = new MockHttpServletResponse();
+            MockFilterChain chain = new MockFilterChain();
+            filter.doFilter(new MockHttpServletRequest("GET", path), response, chain);
+
+            assertNull(response.getHeader(HttpHeaders.LOCATION), path + " is not redirected to another host");
+            assertNotNull(chain.getRequest(), path + " is left to the firewall");
+        }
+    }
+
+    @Test
+    void otherPathsGoThrough() throws Exception {
+        for (String path : new String[]{"/v1/events", "/"}) {
+            MockHttpServletResponse response = new MockHttpServletResponse();
+            MockFilterChain chain = new MockFilterChain();
+            filter.doFilter(new MockHttpServletRequest("GET", path), response, chain);
+
+            assertEquals(200, response.getStatus(), path + " is not redirected");
+            assertNotNull(chain.getRequest(), path + " reaches the chain");
+        }
+    }
+}